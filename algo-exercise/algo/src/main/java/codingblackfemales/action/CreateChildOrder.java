@@ -2,8 +2,12 @@ package codingblackfemales.action;
 
 import codingblackfemales.sequencer.Sequencer;
 import messages.order.CreateOrderEncoder;
+import messages.order.ExecInst;
 import messages.order.MessageHeaderEncoder;
+import messages.order.OrdType;
 import messages.order.Side;
+import messages.order.TimeInForce;
+import messages.order.Venue;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,17 +22,46 @@ public class CreateChildOrder implements Action {
 
     private final Side side;
 
+    private final long instrumentId;
+    private final Venue venue;
 
+    private final OrdType ordType;
+    private final TimeInForce timeInForce;
+    private final ExecInst execInst;
 
+    /**
+     * An order for whichever instrument a single instrument backtest is running, a book registry can't route it.
+     */
     public CreateChildOrder(final Side side, final long quantity, final long price) {
+        this(side, quantity, price, 0L, Venue.NULL_VAL);
+    }
+
+    /**
+     * A limit order that rests until it's filled or cancelled.
+     */
+    public CreateChildOrder(final Side side, final long quantity, final long price, final long instrumentId, final Venue venue) {
+        this(side, quantity, price, instrumentId, venue, OrdType.LIMIT, TimeInForce.DAY, ExecInst.NULL_VAL);
+    }
+
+    /**
+     * @param price ignored for a {@link OrdType#MARKET market} order, it takes whatever's there.
+     * @param execInst {@link ExecInst#POST_ONLY} or NULL_VAL for none.
+     */
+    public CreateChildOrder(final Side side, final long quantity, final long price, final long instrumentId, final Venue venue,
+                            final OrdType ordType, final TimeInForce timeInForce, final ExecInst execInst) {
         this.quantity = quantity;
         this.price = price;
         this.side = side;
+        this.instrumentId = instrumentId;
+        this.venue = venue;
+        this.ordType = ordType;
+        this.timeInForce = timeInForce;
+        this.execInst = execInst;
     }
 
     @Override
     public String toString() {
-        return "CreateChildOrder(side=" + side + ",quantity=" + quantity + ",price=" + price + ")";
+        return "CreateChildOrder(side=" + side + ",quantity=" + quantity + ",price=" + price + ",instrumentId=" + instrumentId + ",venue=" + venue + ",ordType=" + ordType + ",timeInForce=" + timeInForce + ",execInst=" + execInst + ")";
     }
 
     @Override
@@ -41,9 +74,14 @@ public class CreateChildOrder implements Action {
         encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
         headerEncoder.schemaId(CreateOrderEncoder.SCHEMA_ID);
         headerEncoder.version(CreateOrderEncoder.SCHEMA_VERSION);
+        encoder.instrumentId(instrumentId);
+        encoder.venue(venue);
         encoder.price(price);
         encoder.quantity(quantity);
         encoder.side(side);
+        encoder.ordType(ordType);
+        encoder.timeInForce(timeInForce);
+        encoder.execInst(execInst);
         sequencer.onCommand(directBuffer);
     }
 }
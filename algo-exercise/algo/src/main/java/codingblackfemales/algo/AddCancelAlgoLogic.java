@@ -24,7 +24,7 @@ public class AddCancelAlgoLogic implements AlgoLogic {
 
         logger.info("[ADDCANCELALGO] Algo Sees Book as:\n" + book);
 
-        var totalOrderCount = state.getChildOrders().size();
+        var totalOrderCount = state.getChildOrderCount();
 
         //make sure we have an exit condition...
         if (totalOrderCount > 20) {
@@ -50,7 +50,7 @@ public class AddCancelAlgoLogic implements AlgoLogic {
             final long price = level.price;
             final long quantity = level.quantity;
             logger.info("[ADDCANCELALGO] Adding order for" + quantity + "@" + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return new CreateChildOrder(Side.BUY, quantity, price, state.getInstrumentId(), state.getVenue());
         }
     }
 }
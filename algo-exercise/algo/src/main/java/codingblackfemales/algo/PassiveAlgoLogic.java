@@ -33,7 +33,7 @@ public class PassiveAlgoLogic implements AlgoLogic{
         if(state.getChildOrders().size() < 3){
             //then keep creating a new one
             logger.info("[PASSIVEALGO] Have:" + state.getChildOrders().size() + " children, want 3, joining passive side of book with: " + quantity + " @ " + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return new CreateChildOrder(Side.BUY, quantity, price, state.getInstrumentId(), state.getVenue());
         }else{
             logger.info("[PASSIVEALGO] Have:" + state.getChildOrders().size() + " children, want 3, done.");
             return NoAction;
@@ -5,7 +5,10 @@ import codingblackfemales.action.CreateChildOrder;
 import codingblackfemales.sotw.SimpleAlgoState;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.util.Util;
+import messages.order.ExecInst;
+import messages.order.OrdType;
 import messages.order.Side;
+import messages.order.TimeInForce;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +37,9 @@ public class SniperAlgoLogic implements AlgoLogic {
         if (state.getChildOrders().size() < 5) {
             //then keep creating a new one
             logger.info("[SNIPERALGO] Have:" + state.getChildOrders().size() + " children, want 5, sniping far touch of book with: " + quantity + " @ " + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            //IOC, if the touch has gone by the time we get there whatever we didn't take is cancelled rather than left resting
+            return new CreateChildOrder(Side.BUY, quantity, price, state.getInstrumentId(), state.getVenue(),
+                    OrdType.LIMIT, TimeInForce.IOC, ExecInst.NULL_VAL);
         } else {
             logger.info("[SNIPERALGO] Have:" + state.getChildOrders().size() + " children, want 5, done.");
             return NoAction;
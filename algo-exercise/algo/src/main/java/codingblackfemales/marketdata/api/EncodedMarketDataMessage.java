@@ -0,0 +1,21 @@
+package codingblackfemales.marketdata.api;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * A market data message that's already an SBE frame, so there's nothing to encode: {@link MarketDataEncoder}
+ * hands the frame straight back.
+ */
+public interface EncodedMarketDataMessage extends MarketDataMessage {
+
+    /**
+     * @return the frame, header first at offset 0. It's a view onto the provider's buffer and is only good until
+     * the provider is next polled.
+     */
+    UnsafeBuffer buffer();
+
+    /**
+     * @return how many bytes the frame is, header included.
+     */
+    int length();
+}
@@ -1,82 +1,153 @@
 package codingblackfemales.marketdata.api;
 
 import messages.marketdata.*;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 import static java.lang.String.format;
 
 public class MarketDataEncoder {
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
     private final AskBookUpdateEncoder askBookUpdateEncoder = new AskBookUpdateEncoder();
     private final BidBookUpdateEncoder bidBookUpdateEncoder = new BidBookUpdateEncoder();
 
+    /**
+     * @return the message encoded into a new buffer, or for a message that's already a frame the frame itself.
+     */
     public UnsafeBuffer encode(final MarketDataMessage message) {
+        if (message instanceof EncodedMarketDataMessage) {
+            return ((EncodedMarketDataMessage) message).buffer();
+        }
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(Math.max(DEFAULT_BUFFER_SIZE, encodedLength(message))));
+        encode(message, directBuffer, 0);
+        return directBuffer;
+    }
+
+    /**
+     * Encodes the message into the caller's buffer, e.g. a ring or pool slot, so nothing is allocated. A message
+     * that's already a frame is copied.
+     *
+     * @return how many bytes were written, header included.
+     * @throws IllegalArgumentException if the message won't fit between the offset and the end of the buffer.
+     */
+    public int encode(final MarketDataMessage message, final MutableDirectBuffer buffer, final int offset) {
+        final int length = encodedLength(message);
+        if (offset < 0 || buffer.capacity() - offset < length) {
+            throw new IllegalArgumentException(format("Buffer too small for updateType=[%s] of %s bytes capacity=[%s] offset=[%s]",
+                    message.updateType(), length, buffer.capacity(), offset));
+        }
+        if (message instanceof EncodedMarketDataMessage) {
+            buffer.putBytes(offset, ((EncodedMarketDataMessage) message).buffer(), 0, length);
+            return length;
+        }
+        switch (message.updateType()) {
+            case BookUpdate:
+                doEncode((BookUpdate) message, buffer, offset);
+                break;
+            case AskUpdate:
+                doEncode((AskBookUpdate) message, buffer, offset);
+                break;
+            case BidUpdate:
+                doEncode((BidBookUpdate) message, buffer, offset);
+                break;
+            default:
+                throw new RuntimeException(format("Unsupported updateType=[%s] message=[%s]", message.updateType(), message));
+        }
+        return length;
+    }
+
+    /**
+     * @return how many bytes the message encodes to, header included, which depends on how deep its book is.
+     */
+    public int encodedLength(final MarketDataMessage message) {
+        if (message instanceof EncodedMarketDataMessage) {
+            return ((EncodedMarketDataMessage) message).length();
+        }
         switch (message.updateType()) {
             case BookUpdate:
-                return doEncode((BookUpdate) message);
+                final BookUpdate update = (BookUpdate) message;
+                return MessageHeaderEncoder.ENCODED_LENGTH + BookUpdateEncoder.BLOCK_LENGTH
+                        + BookUpdateEncoder.BidBookEncoder.sbeHeaderSize() + update.bidBook().size() * BookUpdateEncoder.BidBookEncoder.sbeBlockLength()
+                        + BookUpdateEncoder.AskBookEncoder.sbeHeaderSize() + update.askBook().size() * BookUpdateEncoder.AskBookEncoder.sbeBlockLength();
             case AskUpdate:
-                return doEncode((AskBookUpdate) message);
+                return MessageHeaderEncoder.ENCODED_LENGTH + AskBookUpdateEncoder.BLOCK_LENGTH
+                        + AskBookUpdateEncoder.AskBookEncoder.sbeHeaderSize() + ((AskBookUpdate) message).askBook().size() * AskBookUpdateEncoder.AskBookEncoder.sbeBlockLength();
             case BidUpdate:
-                return doEncode((BidBookUpdate) message);
+                return MessageHeaderEncoder.ENCODED_LENGTH + BidBookUpdateEncoder.BLOCK_LENGTH
+                        + BidBookUpdateEncoder.BidBookEncoder.sbeHeaderSize() + ((BidBookUpdate) message).bidBook().size() * BidBookUpdateEncoder.BidBookEncoder.sbeBlockLength();
             default:
                 throw new RuntimeException(format("Unsupported updateType=[%s] message=[%s]", message.updateType(), message));
         }
     }
 
-    private UnsafeBuffer doEncode(final AskBookUpdate update) {
-        final UnsafeBuffer directBuffer = buffer();
-        askBookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+    private void doEncode(final AskBookUpdate update, final MutableDirectBuffer buffer, final int offset) {
+        clear(buffer, offset, AskBookUpdateEncoder.BLOCK_LENGTH);
+        askBookUpdateEncoder.wrapAndApplyHeader(buffer, offset, headerEncoder);
         askBookUpdateEncoder.venue(update.venue());
         askBookUpdateEncoder.instrumentId(update.instrumentId());
-        AskBookUpdateEncoder.AskBookEncoder askBookEncoder = askBookUpdateEncoder.askBookCount(update.askBook().size());
-        for (int i = 0; i < update.askBook().size(); i++) {
-            BookEntry bookEntry = update.askBook().get(i);
+        askBookUpdateEncoder.source(Source.STREAM);
+        final List<BookEntry> askBook = update.askBook();
+        final int askCount = askBook.size();
+        final AskBookUpdateEncoder.AskBookEncoder askBookEncoder = askBookUpdateEncoder.askBookCount(askCount);
+        for (int i = 0; i < askCount; i++) {
+            final BookEntry bookEntry = askBook.get(i);
             askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
-        return directBuffer;
     }
 
-    private UnsafeBuffer doEncode(final BidBookUpdate update) {
-        final UnsafeBuffer directBuffer = buffer();
-        bidBookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+    private void doEncode(final BidBookUpdate update, final MutableDirectBuffer buffer, final int offset) {
+        clear(buffer, offset, BidBookUpdateEncoder.BLOCK_LENGTH);
+        bidBookUpdateEncoder.wrapAndApplyHeader(buffer, offset, headerEncoder);
         bidBookUpdateEncoder.venue(update.venue());
         bidBookUpdateEncoder.instrumentId(update.instrumentId());
-        BidBookUpdateEncoder.BidBookEncoder bidBookEncoder = bidBookUpdateEncoder.bidBookCount(update.bidBook().size());
-        for (int i = 0; i < update.bidBook().size(); i++) {
-            BookEntry bookEntry = update.bidBook().get(i);
+        bidBookUpdateEncoder.source(Source.STREAM);
+        final List<BookEntry> bidBook = update.bidBook();
+        final int bidCount = bidBook.size();
+        final BidBookUpdateEncoder.BidBookEncoder bidBookEncoder = bidBookUpdateEncoder.bidBookCount(bidCount);
+        for (int i = 0; i < bidCount; i++) {
+            final BookEntry bookEntry = bidBook.get(i);
             bidBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
-        return directBuffer;
     }
 
-    private UnsafeBuffer doEncode(final BookUpdate update) {
-        final UnsafeBuffer directBuffer = buffer();
-        bookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+    private void doEncode(final BookUpdate update, final MutableDirectBuffer buffer, final int offset) {
+        clear(buffer, offset, BookUpdateEncoder.BLOCK_LENGTH);
+        bookUpdateEncoder.wrapAndApplyHeader(buffer, offset, headerEncoder);
         bookUpdateEncoder.venue(update.venue());
         bookUpdateEncoder.instrumentId(update.instrumentId());
 
-        BookUpdateEncoder.AskBookEncoder askBookEncoder = bookUpdateEncoder.askBookCount(update.askBook().size());
-        for (int i = 0; i < update.askBook().size(); i++) {
-            BookEntry bookEntry = update.askBook().get(i);
-            askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
+        //groups go in schema order, bids then asks, they're read back by position
+        final List<BookEntry> bidBook = update.bidBook();
+        final int bidCount = bidBook.size();
+        final BookUpdateEncoder.BidBookEncoder bidBookEncoder = bookUpdateEncoder.bidBookCount(bidCount);
+        for (int i = 0; i < bidCount; i++) {
+            final BookEntry bookEntry = bidBook.get(i);
+            bidBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
 
-        BookUpdateEncoder.BidBookEncoder bidBookEncoder = bookUpdateEncoder.bidBookCount(update.bidBook().size());
-        for (int i = 0; i < update.bidBook().size(); i++) {
-            BookEntry bookEntry = update.bidBook().get(i);
-            bidBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
+        final List<BookEntry> askBook = update.askBook();
+        final int askCount = askBook.size();
+        final BookUpdateEncoder.AskBookEncoder askBookEncoder = bookUpdateEncoder.askBookCount(askCount);
+        for (int i = 0; i < askCount; i++) {
+            final BookEntry bookEntry = askBook.get(i);
+            askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
 
         bookUpdateEncoder.instrumentStatus(update.instrumentStatus());
         bookUpdateEncoder.source(Source.STREAM);
-        return directBuffer;
     }
 
-    private UnsafeBuffer buffer() {
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        return new UnsafeBuffer(byteBuffer);
+    /**
+     * The caller's buffer may hold an old frame, the header's sequencer number and any padding in the block aren't
+     * written by the encoders so they're zeroed first.
+     */
+    private static void clear(final MutableDirectBuffer buffer, final int offset, final int blockLength) {
+        buffer.setMemory(offset, MessageHeaderEncoder.ENCODED_LENGTH + blockLength, (byte) 0);
     }
 }
@@ -0,0 +1,16 @@
+package codingblackfemales.marketdata.api;
+
+import org.agrona.DirectBuffer;
+
+/**
+ * A provider of market data that's already encoded, each poll is the next SBE frame ready for {@code
+ * Sequencer.onCommand} with no {@link MarketDataMessage} or {@link MarketDataEncoder} in between.
+ */
+public interface MarketDataFrameProvider {
+
+    /**
+     * @return the next frame, header first at offset 0 and sized to fit, or null at the end of the data. It's a
+     * view onto the provider's buffer and is only good until the provider is next polled.
+     */
+    DirectBuffer pollFrame();
+}
@@ -0,0 +1,26 @@
+package codingblackfemales.marketdata.gen;
+
+/**
+ * {@link SimpleFileMarketDataGenerator} for the binary {@link codingblackfemales.marketdata.impl.MarketDataFile}
+ * format, each message is written as the SBE frame it would be sent as.
+ */
+public class BinaryFileMarketDataGenerator {
+    private final MarketDataFileWriter writer;
+    private final MarketDataGenerator generator;
+
+    public BinaryFileMarketDataGenerator(final String marketDataFileName,
+                                         final MarketDataGenerator generator) {
+        this.generator = generator;
+        this.writer = new MarketDataFileWriter(marketDataFileName);
+    }
+
+    public void close() {
+        writer.close();
+    }
+
+    public void generate(final int entriesCount) {
+        for (int i = 0; i < entriesCount; i++) {
+            writer.write(generator.next());
+        }
+    }
+}
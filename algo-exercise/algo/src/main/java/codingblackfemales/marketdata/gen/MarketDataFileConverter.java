@@ -0,0 +1,42 @@
+package codingblackfemales.marketdata.gen;
+
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.impl.StreamingFileMarketDataProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts a JSON market data file (the {@link SimpleFileMarketDataGenerator} format, e.g. the backtest fixtures)
+ * to the binary {@link codingblackfemales.marketdata.impl.MarketDataFile} format. The JSON file can be gzipped.
+ *
+ * <pre>
+ *   java codingblackfemales.marketdata.gen.MarketDataFileConverter marketdatatest.json marketdatatest.bin
+ * </pre>
+ */
+public class MarketDataFileConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataFileConverter.class);
+
+    /**
+     * @return how many messages were converted.
+     */
+    public static long convert(final String jsonFileName, final String binaryFileName) {
+        try (StreamingFileMarketDataProvider provider = new StreamingFileMarketDataProvider(jsonFileName);
+             MarketDataFileWriter writer = new MarketDataFileWriter(binaryFileName)) {
+            MarketDataMessage message;
+            while ((message = provider.poll()) != null) {
+                writer.write(message);
+            }
+            return writer.getFramesWritten();
+        }
+    }
+
+    public static void main(final String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: MarketDataFileConverter <json file> <binary file>");
+            System.exit(1);
+        }
+        final long converted = convert(args[0], args[1]);
+        logger.info("Converted " + converted + " messages from " + args[0] + " to " + args[1]);
+    }
+}
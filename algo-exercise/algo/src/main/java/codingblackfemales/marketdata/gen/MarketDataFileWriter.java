@@ -0,0 +1,123 @@
+package codingblackfemales.marketdata.gen;
+
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.impl.MarketDataFile;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes SBE market data frames to a {@link MarketDataFile}, replacing any file that's already there.
+ *
+ * Frames are staged in a direct buffer and written out a buffer at a time.
+ */
+public class MarketDataFileWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String marketDataFileName;
+    private final FileChannel channel;
+    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(byteBuffer);
+    private int position = 0;
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+
+    private long framesWritten = 0;
+
+    public MarketDataFileWriter(final String marketDataFileName) {
+        this.marketDataFileName = marketDataFileName;
+        try {
+            channel = FileChannel.open(new File(marketDataFileName).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to create market data file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+        buffer.putInt(position, MarketDataFile.MAGIC, MarketDataFile.BYTE_ORDER);
+        buffer.putInt(position + Integer.BYTES, MarketDataFile.VERSION, MarketDataFile.BYTE_ORDER);
+        position += MarketDataFile.HEADER_LENGTH;
+    }
+
+    /**
+     * Encodes the message and writes the frame, straight into the staging buffer if it fits.
+     */
+    public void write(final MarketDataMessage message) {
+        final int length = encoder.encodedLength(message);
+        if (MarketDataFile.LENGTH_PREFIX + length > BUFFER_SIZE) {
+            final UnsafeBuffer frame = encoder.encode(message);
+            write(frame, 0, length);
+            return;
+        }
+        if (position + MarketDataFile.LENGTH_PREFIX + length > BUFFER_SIZE) {
+            flush();
+        }
+        buffer.putInt(position, length, MarketDataFile.BYTE_ORDER);
+        encoder.encode(message, buffer, position + MarketDataFile.LENGTH_PREFIX);
+        position += MarketDataFile.LENGTH_PREFIX + length;
+        framesWritten++;
+    }
+
+    /**
+     * Writes a frame that's already encoded, e.g. one taken off the network.
+     */
+    public void write(final DirectBuffer frame, final int offset, final int length) {
+        if (position + MarketDataFile.LENGTH_PREFIX + length > BUFFER_SIZE) {
+            flush();
+        }
+
+        if (MarketDataFile.LENGTH_PREFIX + length > BUFFER_SIZE) {
+            //bigger than the staging buffer, it goes straight out after its length
+            buffer.putInt(0, length, MarketDataFile.BYTE_ORDER);
+            position = MarketDataFile.LENGTH_PREFIX;
+            flush();
+            writeFully(ByteBuffer.wrap(copy(frame, offset, length)));
+        } else {
+            buffer.putInt(position, length, MarketDataFile.BYTE_ORDER);
+            buffer.putBytes(position + MarketDataFile.LENGTH_PREFIX, frame, offset, length);
+            position += MarketDataFile.LENGTH_PREFIX + length;
+        }
+        framesWritten++;
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    public void flush() {
+        byteBuffer.clear().limit(position);
+        writeFully(byteBuffer);
+        position = 0;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to close market data file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+
+    private void writeFully(final ByteBuffer source) {
+        try {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to write market data file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+
+    private static byte[] copy(final DirectBuffer frame, final int offset, final int length) {
+        final byte[] bytes = new byte[length];
+        frame.getBytes(offset, bytes);
+        return bytes;
+    }
+}
@@ -280,8 +280,9 @@ public class RandomMarketDataGenerator implements MarketDataGenerator {
     }
 
     private long rand(long min, long max) {
+        //the book can leave no room between its bounds, min always keeps the side behind the other one's touch
         if (min >= max) {
-            throw new RuntimeException(String.format("min >= max -- min=[%s] max=[%s]", min, max));
+            return min;
         }
         return ThreadLocalRandom.current().nextLong(min, max);
     }
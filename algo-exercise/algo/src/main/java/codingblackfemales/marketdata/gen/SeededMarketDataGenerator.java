@@ -0,0 +1,312 @@
+package codingblackfemales.marketdata.gen;
+
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.UpdateType;
+import codingblackfemales.marketdata.impl.MarketDataRecord;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The same random book as {@link RandomMarketDataGenerator}, built for soak tests and benchmarks that want a lot
+ * of ticks and the same ticks every run.
+ *
+ * Everything comes from one {@link SplittableRandom} seeded by the caller, so a seed always gives the same run.
+ * Each side of the book is a pair of price and quantity arrays kept in price order, best first, so picking an order
+ * is an index and publishing the book is reading the front of the arrays. Every tick is written into the same
+ * {@link MarketDataRecord}, which is only good until the next call to {@link #next()}.
+ */
+public class SeededMarketDataGenerator implements MarketDataGenerator {
+    private static final long BID_START = Long.MIN_VALUE;
+    private static final long ASK_START = Long.MAX_VALUE;
+    private static final int SPREAD_MULTIPLIER_MIN = 5;
+    private static final int SPREAD_MULTIPLIER_MAX = 12;
+
+    private static final int CANCEL = 0;
+    private static final int UPDATE_QTY = 1;
+    private static final int UPDATE_PRICE = 2;
+    private static final int NEW_ORDER = 3;
+    private static final int ACTIONS = 4;
+
+    private final long instrumentId;
+    private final Venue venue;
+    private final long startPriceLevel;
+    private final long priceMaxDelta;
+    private final int marketDataMessagesMaxLevel;
+    private final SplittableRandom random;
+
+    private final BookSide buys = new BookSide(true);
+    private final BookSide sells = new BookSide(false);
+    private long spreadMultiplier;
+    private long mid;
+    private long bid = BID_START;
+    private long ask = ASK_START;
+
+    private final MarketDataRecord message = new MarketDataRecord();
+
+    public SeededMarketDataGenerator(final long instrumentId,
+                                     final Venue venue,
+                                     final long priceLevel,
+                                     final long priceMaxDelta,
+                                     final int marketDataMessagesMaxLevel,
+                                     final long seed) {
+        this.instrumentId = instrumentId;
+        this.venue = venue;
+        this.startPriceLevel = this.mid = priceLevel;
+        this.priceMaxDelta = priceMaxDelta;
+        this.marketDataMessagesMaxLevel = marketDataMessagesMaxLevel;
+        this.random = new SplittableRandom(seed);
+        initBook();
+    }
+
+    @Override
+    public MarketDataMessage next() {
+        boolean buyUpdated = false;
+        boolean sellUpdated = false;
+        final int updateCount = (int) rand(1, 3);
+        for (int i = 0; i < updateCount; i++) {
+            final BookSide updated = updateBook();
+            if (updated == buys) {
+                buyUpdated = true;
+            } else if (updated == sells) {
+                sellUpdated = true;
+            }
+        }
+
+        if (!buyUpdated && !sellUpdated) {
+            //nothing could be changed, add an order instead
+            final BookSide side = randomSide();
+            newOrder(side);
+            buyUpdated = side == buys;
+            sellUpdated = side == sells;
+        }
+
+        if (buyUpdated && sellUpdated) {
+            message.reset(UpdateType.BookUpdate).setInstrumentStatus(InstrumentStatus.CONTINUOUS);
+        } else {
+            message.reset(buyUpdated ? UpdateType.BidUpdate : UpdateType.AskUpdate);
+        }
+        message.setInstrumentId(instrumentId).setVenue(venue);
+        if (buyUpdated) {
+            publish(buys, message.bidEntries());
+        }
+        if (sellUpdated) {
+            publish(sells, message.askEntries());
+        }
+        return message;
+    }
+
+    /**
+     * @return how many orders are on each side, not just the levels that get published.
+     */
+    public int getBuyCount() {
+        return buys.size;
+    }
+
+    public int getSellCount() {
+        return sells.size;
+    }
+
+    private void initBook() {
+        bid = rand(mid - priceMaxDelta, mid - 1);
+        ask = rand(mid + 1, mid + priceMaxDelta);
+
+        for (int i = 0; i < rand0Max(10); i++) {
+            addBuy(nextBid(), nextQty());
+        }
+        for (int i = 0; i < rand0Max(10); i++) {
+            addSell(nextAsk(), nextQty());
+        }
+    }
+
+    /**
+     * @return the side that changed, or null if twenty goes couldn't find anything to do.
+     */
+    private BookSide updateBook() {
+        for (int i = 0; i < 20; i++) {
+            final BookSide side = randomSide();
+            final int action = (int) rand0Max(ACTIONS);
+            if (action != NEW_ORDER && side.size == 0) {
+                continue;
+            }
+            switch (action) {
+                case CANCEL:
+                    side.remove((int) rand0Max(side.size));
+                    updateAskBid();
+                    break;
+                case UPDATE_QTY:
+                    side.quantities[(int) rand0Max(side.size)] = nextQty();
+                    break;
+                case UPDATE_PRICE:
+                    nextSpreadMultiplier();
+                    final int index = (int) rand0Max(side.size);
+                    final long quantity = side.quantities[index];
+                    side.remove(index);
+                    side.insert(side == buys ? nextBid() : nextAsk(), quantity);
+                    updateAskBid();
+                    break;
+                default:
+                    newOrder(side);
+                    break;
+            }
+            return side;
+        }
+        return null;
+    }
+
+    private BookSide randomSide() {
+        return rand0Max(2) == 0 ? buys : sells;
+    }
+
+    private void newOrder(final BookSide side) {
+        nextSpreadMultiplier();
+        if (side == buys) {
+            addBuy(nextBid(), nextQty());
+        } else {
+            addSell(nextAsk(), nextQty());
+        }
+    }
+
+    private void addBuy(final long price, final long quantity) {
+        buys.insert(price, quantity);
+        bid = Math.max(price, bid);
+        updatePriceTarget();
+    }
+
+    private void addSell(final long price, final long quantity) {
+        sells.insert(price, quantity);
+        ask = Math.min(price, ask);
+        updatePriceTarget();
+    }
+
+    private void publish(final BookSide side, final MarketDataRecord.BookEntries entries) {
+        final int levels = Math.min(side.size, marketDataMessagesMaxLevel);
+        for (int i = 0; i < levels; i++) {
+            entries.add(side.prices[i], side.quantities[i]);
+        }
+    }
+
+    private void updateAskBid() {
+        if (buys.size == 0 && sells.size == 0) {
+            mid = startPriceLevel;
+            ask = ASK_START;
+            bid = BID_START;
+        } else if (sells.size == 0) {
+            mid = bid = buys.prices[0];
+            ask = ASK_START;
+        } else if (buys.size == 0) {
+            mid = ask = sells.prices[0];
+            bid = BID_START;
+        } else {
+            bid = buys.prices[0];
+            ask = sells.prices[0];
+            mid = (bid + ask) / 2;
+        }
+    }
+
+    private void updatePriceTarget() {
+        if (ask != ASK_START && bid != BID_START) {
+            mid = (ask + bid) / 2;
+        }
+    }
+
+    private void nextSpreadMultiplier() {
+        spreadMultiplier = rand(SPREAD_MULTIPLIER_MIN, SPREAD_MULTIPLIER_MAX);
+    }
+
+    private long nextBid() {
+        final long maxBid = ask != ASK_START ? Math.min(ask - 1, mid) : mid;
+        final long minBid = bid != BID_START ? Math.max(bid - Math.min(spreadMultiplier * spread(), 10), mid - priceMaxDelta) : mid - priceMaxDelta;
+        return rand(minBid, maxBid);
+    }
+
+    private long nextAsk() {
+        final long minAsk = Math.max(bid + 1, mid);
+        final long maxAsk = ask != ASK_START ? Math.min(ask + spreadMultiplier * spread(), mid + priceMaxDelta) : mid + priceMaxDelta;
+        return rand(minAsk, maxAsk);
+    }
+
+    private long nextQty() {
+        return rand(1, 100);
+    }
+
+    private long spread() {
+        return Math.min(Math.abs(bid - ask), 100);
+    }
+
+    private long rand0Max(final long bound) {
+        return random.nextLong(bound);
+    }
+
+    /**
+     * @return a price or quantity in [min, max), or min if that's empty. The book can leave no room between its
+     * bounds, and min always keeps the side behind the other one's touch.
+     */
+    private long rand(final long min, final long max) {
+        return min >= max ? min : random.nextLong(min, max);
+    }
+
+    @Override
+    public String toString() {
+        return "SeededMarketDataGenerator{" +
+                String.format("\n mid=%d spread=%d spreadMultiplier=%d", mid, spread(), spreadMultiplier) +
+                String.format("\n bid=%d ask=%d", bid, ask) +
+                "\n buys=" + buys +
+                "\n sells=" + sells +
+                '}';
+    }
+
+    /**
+     * One side's orders in price order, best first, orders at the same price in the order they arrived.
+     */
+    private static final class BookSide {
+        private final boolean descending;
+        private long[] prices = new long[64];
+        private long[] quantities = new long[64];
+        private int size = 0;
+
+        private BookSide(final boolean descending) {
+            this.descending = descending;
+        }
+
+        private void insert(final long price, final long quantity) {
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+            }
+            //behind every order at this price or better
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (descending ? prices[middle] >= price : prices[middle] <= price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            System.arraycopy(prices, low, prices, low + 1, size - low);
+            System.arraycopy(quantities, low, quantities, low + 1, size - low);
+            prices[low] = price;
+            quantities[low] = quantity;
+            size++;
+        }
+
+        private void remove(final int index) {
+            System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+            System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+            size--;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                builder.append("\n\t").append(quantities[i]).append(" @ ").append(prices[i]);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.MarketDataFrameProvider;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.MarketDataProvider;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.apache.commons.lang3.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.String.format;
+
+/**
+ * Reads a {@link MarketDataFile} back a buffer at a time. Each poll returns the same {@link MarketDataFrame}
+ * wrapped round the next frame, nothing is decoded into objects and {@link
+ * codingblackfemales.marketdata.api.MarketDataEncoder} passes the frame straight through.
+ *
+ * The message returned by a poll is only good until the next poll.
+ */
+public class BinaryFileMarketDataProvider implements MarketDataProvider, MarketDataFrameProvider, AutoCloseable {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final String marketDataFileName;
+    private final FileChannel channel;
+
+    private ByteBuffer byteBuffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(byteBuffer);
+    //what's been read but not polled is [position, limit)
+    private int position = 0;
+    private int limit = 0;
+    private boolean endOfFile = false;
+
+    private final MarketDataFrame frame = new MarketDataFrame();
+
+    public BinaryFileMarketDataProvider(final String marketDataFileName) {
+        this.marketDataFileName = marketDataFileName;
+        final File marketDataFile = new File(marketDataFileName);
+        Validate.isTrue(marketDataFile.canRead(), "Unable to read marketDataFileName=[%s] marketDataFile.path=[%s]", marketDataFileName, marketDataFile.getAbsolutePath());
+        try {
+            channel = FileChannel.open(marketDataFile.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to read file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+
+        if (!fill(MarketDataFile.HEADER_LENGTH)
+                || buffer.getInt(position, MarketDataFile.BYTE_ORDER) != MarketDataFile.MAGIC
+                || buffer.getInt(position + Integer.BYTES, MarketDataFile.BYTE_ORDER) != MarketDataFile.VERSION) {
+            close();
+            throw new IllegalArgumentException(format("Not a version %s market data file marketDataFileName=[%s]", MarketDataFile.VERSION, marketDataFileName));
+        }
+        position += MarketDataFile.HEADER_LENGTH;
+    }
+
+    @Override
+    public MarketDataMessage poll() {
+        if (!fill(MarketDataFile.LENGTH_PREFIX)) {
+            return null;
+        }
+        final int length = buffer.getInt(position, MarketDataFile.BYTE_ORDER);
+        //a corrupt prefix mustn't wrap around or grow the buffer past what's left of the file
+        if (length < 0 || (limit - position - MarketDataFile.LENGTH_PREFIX < length && unreadFileBytes() - MarketDataFile.LENGTH_PREFIX < length)
+                || !fill(MarketDataFile.LENGTH_PREFIX + length)) {
+            throw new IllegalStateException(format("Truncated frame of %s bytes at the end of marketDataFileName=[%s]", length, marketDataFileName));
+        }
+        frame.wrap(buffer, position + MarketDataFile.LENGTH_PREFIX, length);
+        position += MarketDataFile.LENGTH_PREFIX + length;
+        return frame;
+    }
+
+    @Override
+    public DirectBuffer pollFrame() {
+        return poll() != null ? frame.buffer() : null;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to close file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+
+    /**
+     * @return how much of the file hasn't been polled yet, buffered or not.
+     */
+    private long unreadFileBytes() {
+        try {
+            return channel.size() - channel.position() + (limit - position);
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to read file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+
+    /**
+     * @return true once there are at least this many unread bytes buffered, false if the file ends first.
+     */
+    private boolean fill(final int required) {
+        while (limit - position < required) {
+            if (endOfFile) {
+                if (limit != position && required == MarketDataFile.LENGTH_PREFIX) {
+                    throw new IllegalStateException(format("Trailing %s bytes at the end of marketDataFileName=[%s]", limit - position, marketDataFileName));
+                }
+                return false;
+            }
+            compact(required);
+            read();
+        }
+        return true;
+    }
+
+    /**
+     * Moves the unread bytes to the front, and grows the buffer if a frame won't fit in it. Frames polled before
+     * this are no longer valid.
+     */
+    private void compact(final int required) {
+        final int unread = limit - position;
+        if (required > byteBuffer.capacity()) {
+            final ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(required, byteBuffer.capacity() * 2));
+            byteBuffer.limit(limit).position(position);
+            grown.put(byteBuffer);
+            byteBuffer = grown;
+            buffer.wrap(byteBuffer);
+        } else if (position > 0) {
+            buffer.putBytes(0, buffer, position, unread);
+        }
+        position = 0;
+        limit = unread;
+    }
+
+    private void read() {
+        byteBuffer.limit(byteBuffer.capacity()).position(limit);
+        try {
+            final int read = channel.read(byteBuffer);
+            if (read < 0) {
+                endOfFile = true;
+            } else {
+                limit += read;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to read file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.UpdateType;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+
+import static java.lang.String.format;
+
+/**
+ * Parses the {@link codingblackfemales.marketdata.gen.SimpleFileMarketDataGenerator} format, an update type
+ * then a JSON object per line:
+ *
+ * <pre>
+ *   0,{"instrumentId":1234,"venue":"XLON","instrumentStatus":"CONTINUOUS","bidBook":[{"price":981,"size":43}],"askBook":[...]}
+ * </pre>
+ *
+ * It reads the characters in place, numbers into longs and names against the enum constants, so unlike going
+ * through Gson nothing is allocated for a line. Fields it doesn't know are skipped.
+ */
+public class JsonMarketDataParser implements MarketDataParser {
+
+    private static final UpdateType[] UPDATE_TYPES = UpdateType.values();
+    private static final Venue[] VENUES = Venue.values();
+    private static final InstrumentStatus[] INSTRUMENT_STATUSES = InstrumentStatus.values();
+
+    private char[] line;
+    private int offset;
+    private int position;
+    private int end;
+    //the last string read is [stringStart, stringEnd)
+    private int stringStart;
+    private int stringEnd;
+
+    @Override
+    public void parse(final char[] line, final int offset, final int length, final MarketDataRecord into) {
+        this.line = line;
+        this.offset = offset;
+        this.position = offset;
+        this.end = offset + length;
+
+        into.reset(updateType());
+        expect('{');
+        if (!next('}')) {
+            do {
+                string();
+                expect(':');
+                field(into);
+            } while (next(','));
+            expect('}');
+        }
+        skipWhitespace();
+        if (position != end) {
+            throw error("end of line");
+        }
+    }
+
+    private UpdateType updateType() {
+        final int type = (int) number();
+        if (type < 0 || type >= UPDATE_TYPES.length) {
+            throw new IllegalArgumentException(format("Unknown update type %s", type));
+        }
+        expect(',');
+        return UPDATE_TYPES[type];
+    }
+
+    private void field(final MarketDataRecord into) {
+        if (isString("instrumentId")) {
+            into.setInstrumentId(number());
+        } else if (isString("venue")) {
+            string();
+            into.setVenue(constant(VENUES));
+        } else if (isString("instrumentStatus")) {
+            string();
+            into.setInstrumentStatus(constant(INSTRUMENT_STATUSES));
+        } else if (isString("bidBook")) {
+            entries(into.bidEntries());
+        } else if (isString("askBook")) {
+            entries(into.askEntries());
+        } else {
+            skipValue();
+        }
+    }
+
+    private void entries(final MarketDataRecord.BookEntries entries) {
+        expect('[');
+        if (next(']')) {
+            return;
+        }
+        do {
+            long price = 0L;
+            long size = 0L;
+            expect('{');
+            if (!next('}')) {
+                do {
+                    string();
+                    expect(':');
+                    if (isString("price")) {
+                        price = number();
+                    } else if (isString("size")) {
+                        size = number();
+                    } else {
+                        skipValue();
+                    }
+                } while (next(','));
+                expect('}');
+            }
+            entries.add(price, size);
+        } while (next(','));
+        expect(']');
+    }
+
+    private long number() {
+        skipWhitespace();
+        final boolean negative = position < end && line[position] == '-';
+        if (negative) {
+            position++;
+        }
+        final int start = position;
+        long value = 0L;
+        while (position < end && line[position] >= '0' && line[position] <= '9') {
+            value = value * 10 + (line[position++] - '0');
+        }
+        if (position == start) {
+            throw error("a number");
+        }
+        return negative ? -value : value;
+    }
+
+    private void string() {
+        expect('"');
+        stringStart = position;
+        while (position < end && line[position] != '"') {
+            position += line[position] == '\\' ? 2 : 1;
+        }
+        if (position >= end) {
+            throw error("the end of a string");
+        }
+        stringEnd = position++;
+    }
+
+    private boolean isString(final String value) {
+        final int length = stringEnd - stringStart;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line[stringStart + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <E extends Enum<E>> E constant(final E[] constants) {
+        for (E constant : constants) {
+            if (isString(constant.name())) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException(format("Unknown %s [%s]", constants[0].getDeclaringClass().getSimpleName(), new String(line, stringStart, stringEnd - stringStart)));
+    }
+
+    /**
+     * Skips a value of any kind, objects and arrays included.
+     */
+    private void skipValue() {
+        skipWhitespace();
+        int depth = 0;
+        while (position < end) {
+            final char c = line[position];
+            if (c == '"') {
+                string();
+                if (depth == 0) {
+                    return;
+                }
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (depth == 0) {
+                    return;
+                }
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                return;
+            }
+            position++;
+            if (depth == 0 && (c == '}' || c == ']')) {
+                return;
+            }
+        }
+        if (depth != 0) {
+            throw error("the end of a value");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < end && Character.isWhitespace(line[position])) {
+            position++;
+        }
+    }
+
+    /**
+     * @return true, having moved past it, if the next character is this one.
+     */
+    private boolean next(final char c) {
+        skipWhitespace();
+        if (position < end && line[position] == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final char c) {
+        if (!next(c)) {
+            throw error("'" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(final String expected) {
+        return new IllegalArgumentException(format("Expected %s at column %s", expected, position - offset));
+    }
+}
@@ -0,0 +1,173 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.MarketDataFrameProvider;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.MarketDataProvider;
+import codingblackfemales.sequencer.Sequencer;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.apache.commons.lang3.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.String.format;
+
+/**
+ * Replays a {@link MarketDataFile} straight out of the page cache. The file is memory mapped read only a region at
+ * a time and each frame is a view onto the mapping, so nothing is read, decoded or encoded on the way.
+ *
+ * Frames are views, they're only good until the next poll: a frame that runs off the end of the current region
+ * moves the mapping along and the old region is unmapped. They must not be written to, the mapping is read only and
+ * the file may be too, so don't hand one to a sequencer that stamps in place. {@link #replay(Sequencer)} copies each
+ * frame into a buffer of its own first, which works with any sequencer and never touches the mapping.
+ */
+public class MappedFileMarketDataProvider implements MarketDataProvider, MarketDataFrameProvider, AutoCloseable {
+
+    //a mapping can be no bigger than Integer.MAX_VALUE
+    public static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+    private final String marketDataFileName;
+    private final FileChannel channel;
+    private final long fileLength;
+    private final int regionSize;
+
+    private MappedByteBuffer region;
+    private final UnsafeBuffer regionBuffer = new UnsafeBuffer(0, 0);
+    //where the mapped region starts in the file
+    private long regionStart = 0;
+    //the next frame's length prefix, as a position in the file
+    private long position = 0;
+
+    private final UnsafeBuffer frameBuffer = new UnsafeBuffer(0, 0);
+    private final MarketDataFrame frame = new MarketDataFrame();
+
+    //replay's copy of the frame, grows to the biggest frame seen
+    private final ExpandableDirectByteBuffer replayCopy = new ExpandableDirectByteBuffer(1024);
+    private final UnsafeBuffer replayBuffer = new UnsafeBuffer(0, 0);
+
+    public MappedFileMarketDataProvider(final String marketDataFileName) {
+        this(marketDataFileName, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param regionSize how much of the file to map at once, frames bigger than this get a region of their own.
+     */
+    public MappedFileMarketDataProvider(final String marketDataFileName, final int regionSize) {
+        Validate.isTrue(regionSize >= MarketDataFile.HEADER_LENGTH, "regionSize=[%s] is smaller than the file header", regionSize);
+        this.marketDataFileName = marketDataFileName;
+        this.regionSize = regionSize;
+        final File marketDataFile = new File(marketDataFileName);
+        Validate.isTrue(marketDataFile.canRead(), "Unable to read marketDataFileName=[%s] marketDataFile.path=[%s]", marketDataFileName, marketDataFile.getAbsolutePath());
+        try {
+            channel = FileChannel.open(marketDataFile.toPath(), StandardOpenOption.READ);
+            fileLength = channel.size();
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to map file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+
+        if (fileLength < MarketDataFile.HEADER_LENGTH
+                || !map(0, MarketDataFile.HEADER_LENGTH)
+                || regionBuffer.getInt(0, MarketDataFile.BYTE_ORDER) != MarketDataFile.MAGIC
+                || regionBuffer.getInt(Integer.BYTES, MarketDataFile.BYTE_ORDER) != MarketDataFile.VERSION) {
+            close();
+            throw new IllegalArgumentException(format("Not a version %s market data file marketDataFileName=[%s]", MarketDataFile.VERSION, marketDataFileName));
+        }
+        position = MarketDataFile.HEADER_LENGTH;
+    }
+
+    @Override
+    public DirectBuffer pollFrame() {
+        final long remaining = fileLength - position;
+        if (remaining == 0) {
+            return null;
+        }
+        if (remaining < MarketDataFile.LENGTH_PREFIX) {
+            throw new IllegalStateException(format("Trailing %s bytes at the end of marketDataFileName=[%s]", remaining, marketDataFileName));
+        }
+
+        map(position, MarketDataFile.LENGTH_PREFIX);
+        final int length = regionBuffer.getInt((int) (position - regionStart), MarketDataFile.BYTE_ORDER);
+        if (length < 0 || remaining - MarketDataFile.LENGTH_PREFIX < length) {
+            throw new IllegalStateException(format("Truncated frame of %s bytes at the end of marketDataFileName=[%s]", length, marketDataFileName));
+        }
+
+        map(position, MarketDataFile.LENGTH_PREFIX + length);
+        frameBuffer.wrap(regionBuffer, (int) (position - regionStart) + MarketDataFile.LENGTH_PREFIX, length);
+        position += MarketDataFile.LENGTH_PREFIX + length;
+        return frameBuffer;
+    }
+
+    @Override
+    public MarketDataMessage poll() {
+        final DirectBuffer next = pollFrame();
+        return next != null ? frame.wrap(next, 0, next.capacity()) : null;
+    }
+
+    /**
+     * Sends every frame left in the file to the sequencer, each one copied out of the mapping first so a sequencer
+     * that stamps in place stamps the copy.
+     *
+     * @return how many frames were sent.
+     */
+    public long replay(final Sequencer sequencer) {
+        long frames = 0;
+        DirectBuffer next;
+        while ((next = pollFrame()) != null) {
+            final int length = next.capacity();
+            replayCopy.putBytes(0, next, 0, length);
+            replayBuffer.wrap(replayCopy, 0, length);
+            sequencer.onCommand(replayBuffer);
+            frames++;
+        }
+        return frames;
+    }
+
+    @Override
+    public void close() {
+        unmap();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to close file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+
+    /**
+     * Makes sure [start, start + length) of the file is mapped, moving the region along to start there if it isn't.
+     *
+     * @return false if the file isn't that long.
+     */
+    private boolean map(final long start, final int length) {
+        if (region != null && start >= regionStart && start + length <= regionStart + region.capacity()) {
+            return true;
+        }
+        if (start + length > fileLength) {
+            return false;
+        }
+        unmap();
+        final long size = Math.min(Math.max(regionSize, length), fileLength - start);
+        try {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to map %s bytes at %s of marketDataFileName=[%s]", size, start, marketDataFileName), e);
+        }
+        regionStart = start;
+        regionBuffer.wrap(region);
+        return true;
+    }
+
+    private void unmap() {
+        if (region != null) {
+            regionBuffer.wrap(0, 0);
+            frameBuffer.wrap(0, 0);
+            IoUtil.unmap(region);
+            region = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package codingblackfemales.marketdata.impl;
+
+import messages.marketdata.MessageHeaderEncoder;
+
+import java.nio.ByteOrder;
+
+/**
+ * The binary market data capture format. After a header of {@link #MAGIC} and {@link #VERSION} the file is a run
+ * of SBE market data frames ({@code BookUpdate}, {@code BidBookUpdate} and {@code AskBookUpdate}, header
+ * included), each one prefixed with its length. Everything is little endian, like the schemas.
+ *
+ * <pre>
+ *   int magic | int version | int length | frame | int length | frame | ...
+ * </pre>
+ *
+ * Frames are stored exactly as they're sent, so replaying a file is a copy rather than a parse. The version is the
+ * market data schema's, a schema change that changes the frames changes the file.
+ */
+public final class MarketDataFile {
+
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    //"CBMD" read as a little endian int
+    public static final int MAGIC = 0x444D4243;
+    public static final int VERSION = MessageHeaderEncoder.SCHEMA_VERSION;
+
+    public static final int HEADER_LENGTH = 2 * Integer.BYTES;
+    public static final int LENGTH_PREFIX = Integer.BYTES;
+
+    private MarketDataFile() {
+    }
+}
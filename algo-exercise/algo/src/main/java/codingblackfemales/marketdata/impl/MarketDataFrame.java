@@ -0,0 +1,109 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.EncodedMarketDataMessage;
+import codingblackfemales.marketdata.api.UpdateType;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.Venue;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static java.lang.String.format;
+
+/**
+ * A flyweight over one SBE market data frame, it reads what {@link codingblackfemales.marketdata.api.MarketDataMessage}
+ * needs from the frame's fixed fields and never decodes the book into objects.
+ */
+public class MarketDataFrame implements EncodedMarketDataMessage {
+
+    private final UnsafeBuffer frame = new UnsafeBuffer(0, 0);
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdate = new BidBookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdate = new AskBookUpdateDecoder();
+
+    private UpdateType updateType;
+
+    public MarketDataFrame wrap(final DirectBuffer buffer, final int offset, final int length) {
+        frame.wrap(buffer, offset, length);
+        header.wrap(frame, 0);
+
+        if (header.schemaId() != BookUpdateDecoder.SCHEMA_ID) {
+            throw new IllegalArgumentException(format("Not a market data frame schemaId=[%s] templateId=[%s]", header.schemaId(), header.templateId()));
+        }
+
+        final int bodyOffset = header.encodedLength();
+        switch (header.templateId()) {
+            case BookUpdateDecoder.TEMPLATE_ID:
+                bookUpdate.wrap(frame, bodyOffset, header.blockLength(), header.version());
+                updateType = UpdateType.BookUpdate;
+                break;
+            case BidBookUpdateDecoder.TEMPLATE_ID:
+                bidBookUpdate.wrap(frame, bodyOffset, header.blockLength(), header.version());
+                updateType = UpdateType.BidUpdate;
+                break;
+            case AskBookUpdateDecoder.TEMPLATE_ID:
+                askBookUpdate.wrap(frame, bodyOffset, header.blockLength(), header.version());
+                updateType = UpdateType.AskUpdate;
+                break;
+            default:
+                throw new IllegalArgumentException(format("Unsupported market data templateId=[%s]", header.templateId()));
+        }
+        return this;
+    }
+
+    @Override
+    public UnsafeBuffer buffer() {
+        return frame;
+    }
+
+    @Override
+    public int length() {
+        return frame.capacity();
+    }
+
+    @Override
+    public long instrumentId() {
+        switch (updateType) {
+            case BookUpdate:
+                return bookUpdate.instrumentId();
+            case BidUpdate:
+                return bidBookUpdate.instrumentId();
+            default:
+                return askBookUpdate.instrumentId();
+        }
+    }
+
+    @Override
+    public Venue venue() {
+        switch (updateType) {
+            case BookUpdate:
+                return bookUpdate.venue();
+            case BidUpdate:
+                return bidBookUpdate.venue();
+            default:
+                return askBookUpdate.venue();
+        }
+    }
+
+    @Override
+    public UpdateType updateType() {
+        return updateType;
+    }
+
+    @Override
+    public String toString() {
+        //the decoders' own toString wraps a copy, so the groups are read without moving ours
+        switch (updateType) {
+            case BookUpdate:
+                return "MarketDataFrame{" + bookUpdate + "}";
+            case BidUpdate:
+                return "MarketDataFrame{" + bidBookUpdate + "}";
+            default:
+                return "MarketDataFrame{" + askBookUpdate + "}";
+        }
+    }
+}
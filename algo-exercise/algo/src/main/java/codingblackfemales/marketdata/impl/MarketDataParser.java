@@ -0,0 +1,15 @@
+package codingblackfemales.marketdata.impl;
+
+/**
+ * Parses one line of a text market data file into a {@link MarketDataRecord}, so {@link
+ * StreamingFileMarketDataProvider} can read formats other than its default {@link JsonMarketDataParser}.
+ */
+public interface MarketDataParser {
+
+    /**
+     * @param line the line's characters are [offset, offset + length), with no line ending.
+     * @param into reset and filled in with the message on the line.
+     * @throws IllegalArgumentException if the line can't be parsed.
+     */
+    void parse(char[] line, int offset, int length, MarketDataRecord into);
+}
@@ -0,0 +1,149 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.AskBookUpdate;
+import codingblackfemales.marketdata.api.BidBookUpdate;
+import codingblackfemales.marketdata.api.BookEntry;
+import codingblackfemales.marketdata.api.BookUpdate;
+import codingblackfemales.marketdata.api.UpdateType;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A reusable market data message a {@link MarketDataParser} fills in, whichever {@link UpdateType} it is. The book
+ * entries are kept between messages and overwritten, so once the deepest book has been seen parsing allocates
+ * nothing.
+ *
+ * It's only good until it's next filled in.
+ */
+public class MarketDataRecord implements BookUpdate, BidBookUpdate, AskBookUpdate {
+
+    //the line's prefix in the JSON file, not a field
+    private transient UpdateType updateType;
+    private long instrumentId;
+    private Venue venue;
+    private InstrumentStatus instrumentStatus;
+    private final BookEntries bidBook = new BookEntries();
+    private final BookEntries askBook = new BookEntries();
+
+    /**
+     * Clears the last message and starts a new one.
+     */
+    public MarketDataRecord reset(final UpdateType updateType) {
+        this.updateType = updateType;
+        this.instrumentId = 0L;
+        this.venue = null;
+        this.instrumentStatus = null;
+        this.bidBook.clear();
+        this.askBook.clear();
+        return this;
+    }
+
+    public MarketDataRecord setInstrumentId(final long instrumentId) {
+        this.instrumentId = instrumentId;
+        return this;
+    }
+
+    public MarketDataRecord setVenue(final Venue venue) {
+        this.venue = venue;
+        return this;
+    }
+
+    public MarketDataRecord setInstrumentStatus(final InstrumentStatus instrumentStatus) {
+        this.instrumentStatus = instrumentStatus;
+        return this;
+    }
+
+    public BookEntries bidEntries() {
+        return bidBook;
+    }
+
+    public BookEntries askEntries() {
+        return askBook;
+    }
+
+    @Override
+    public UpdateType updateType() {
+        return updateType;
+    }
+
+    @Override
+    public long instrumentId() {
+        return instrumentId;
+    }
+
+    @Override
+    public Venue venue() {
+        return venue;
+    }
+
+    @Override
+    public InstrumentStatus instrumentStatus() {
+        return instrumentStatus;
+    }
+
+    @Override
+    public BookEntries bidBook() {
+        return bidBook;
+    }
+
+    @Override
+    public BookEntries askBook() {
+        return askBook;
+    }
+
+    @Override
+    public String toString() {
+        return "MarketDataRecord{" +
+                "updateType=" + updateType +
+                ", instrumentId=" + instrumentId +
+                ", venue=" + venue +
+                ", instrumentStatus=" + instrumentStatus +
+                ", bidBook=" + bidBook +
+                ", askBook=" + askBook +
+                '}';
+    }
+
+    /**
+     * One side of the book, a list view over entries that are reused rather than let go.
+     */
+    public static final class BookEntries extends AbstractList<BookEntry> implements RandomAccess {
+
+        private BookEntry[] entries = new BookEntry[16];
+        private int size = 0;
+
+        public BookEntries add(final long price, final long size) {
+            if (this.size == entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            BookEntry entry = entries[this.size];
+            if (entry == null) {
+                entry = entries[this.size] = new BookEntry();
+            }
+            entry.setPrice(price).setSize(size);
+            this.size++;
+            return this;
+        }
+
+        @Override
+        public BookEntry get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+            }
+            return entries[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            size = 0;
+        }
+    }
+}
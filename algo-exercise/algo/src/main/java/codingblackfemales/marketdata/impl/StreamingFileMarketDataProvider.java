@@ -0,0 +1,199 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.MarketDataProvider;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static java.lang.String.format;
+
+/**
+ * Reads a text market data file, by default the JSON lines {@link SimpleFileMarketDataProvider} reads, without
+ * materialising it. Lines are cut out of one reusable character buffer and parsed into one reusable {@link
+ * MarketDataRecord}, so memory stays at the longest line however big the file is, and the file may be gzipped.
+ *
+ * The message returned by a poll is only good until the next poll.
+ */
+public class StreamingFileMarketDataProvider implements MarketDataProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingFileMarketDataProvider.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC = 0x8B1F;
+
+    private final String marketDataFileName;
+    private final MarketDataParser parser;
+    private final Reader reader;
+
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    //what's been read but not parsed is [position, limit)
+    private int position = 0;
+    private int limit = 0;
+    private boolean endOfFile = false;
+
+    private final MarketDataRecord record = new MarketDataRecord();
+
+    private long linesRead = 0;
+    private long messagesParsed = 0;
+    private long charactersParsed = 0;
+    private long parseNanos = 0;
+
+    public StreamingFileMarketDataProvider(final String marketDataFileName) {
+        this(marketDataFileName, StandardCharsets.UTF_8, new JsonMarketDataParser());
+    }
+
+    public StreamingFileMarketDataProvider(final String marketDataFileName, final Charset charset, final MarketDataParser parser) {
+        this.marketDataFileName = marketDataFileName;
+        this.parser = parser;
+        final File marketDataFile = new File(marketDataFileName);
+        Validate.isTrue(marketDataFile.canRead(), "Unable to read marketDataFileName=[%s] marketDataFile.path=[%s]", marketDataFileName, marketDataFile.getAbsolutePath());
+        try {
+            reader = new InputStreamReader(open(marketDataFile), charset);
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to read file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+
+    /**
+     * Gzipped files are spotted by their magic number rather than their name.
+     */
+    private static InputStream open(final File marketDataFile) throws IOException {
+        final BufferedInputStream in = new BufferedInputStream(new FileInputStream(marketDataFile), INITIAL_BUFFER_SIZE);
+        try {
+            in.mark(2);
+            final int magic = in.read() | (in.read() << 8);
+            in.reset();
+            return magic == GZIP_MAGIC ? new GZIPInputStream(in, INITIAL_BUFFER_SIZE) : in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public MarketDataMessage poll() {
+        while (true) {
+            final int lineEnd = nextLine();
+            if (lineEnd < 0) {
+                return null;
+            }
+            final int lineStart = position;
+            position = lineEnd < limit ? lineEnd + 1 : lineEnd;
+            linesRead++;
+
+            int length = lineEnd - lineStart;
+            if (length > 0 && buffer[lineStart + length - 1] == '\r') {
+                length--;
+            }
+            if (length == 0) {
+                continue;
+            }
+
+            final long start = System.nanoTime();
+            try {
+                parser.parse(buffer, lineStart, length, record);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(format("Failed to parse line %s of marketDataFileName=[%s]", linesRead, marketDataFileName), e);
+            }
+            parseNanos += System.nanoTime() - start;
+            charactersParsed += length;
+            messagesParsed++;
+            return record;
+        }
+    }
+
+    public long getMessagesParsed() {
+        return messagesParsed;
+    }
+
+    public long getCharactersParsed() {
+        return charactersParsed;
+    }
+
+    /**
+     * @return time spent in the parser, reading the file isn't counted.
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public double getMessagesPerSecond() {
+        return parseNanos == 0 ? 0d : messagesParsed * 1e9 / parseNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return parseNanos == 0 ? 0d : charactersParsed * 1e3 / parseNanos;
+    }
+
+    @Override
+    public void close() {
+        logger.info(format("[MARKETDATA] Parsed %s messages (%s characters) from %s in %.1fms, %.0f messages/s %.1f MB/s",
+                messagesParsed, charactersParsed, marketDataFileName, parseNanos / 1e6, getMessagesPerSecond(), getMegabytesPerSecond()));
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to close file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+
+    /**
+     * @return where the next line ends, the index of its newline or of the end of the file if it has none, or -1
+     * if there are no more lines.
+     */
+    private int nextLine() {
+        int scanned = position;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            if (endOfFile) {
+                return position < limit ? limit : -1;
+            }
+            scanned = limit - position;
+            compact();
+            read();
+        }
+    }
+
+    /**
+     * Moves the unparsed characters to the front, and grows the buffer if it's full of one line.
+     */
+    private void compact() {
+        final int unread = limit - position;
+        if (unread == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, unread);
+        }
+        position = 0;
+        limit = unread;
+    }
+
+    private void read() {
+        try {
+            final int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfFile = true;
+            } else {
+                limit += read;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to read file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+}
@@ -1,4 +1,3 @@
-
 package codingblackfemales.service;
 
 import codingblackfemales.container.RunTrigger;
@@ -8,31 +7,118 @@ import codingblackfemales.sotw.marketdata.BidLevel;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
 import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.Venue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The algo's view of the book. Prices and quantities are held per side in preallocated arrays that each update
+ * overwrites, so taking market data allocates nothing.
+ *
+ * {@link #getBidLevel(int)} and {@link #getAskLevel(int)} hand out one reusable level object per depth, refreshed
+ * from the arrays on every call. Read it straight away (or copy it), the same object is handed out again for the
+ * next call at that depth and on the next tick.
+ */
 public class MarketDataService extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(MarketDataService.class);
 
+    public static final int DEFAULT_MAX_DEPTH = 15;
+
+    private final int maxDepth;
+
     private int bidLength = 0;
     private int askLength = 0;
 
     private long instrumentId;
-    private final BidLevel[] bidBook = new BidLevel[15];
-    private final AskLevel[] askBook = new AskLevel[15];
+    //raw value of the update's venue, the same in the market data and order schemas, null until the first update
+    private int venue = Venue.NULL_VAL.value();
+
+    private final long[] bidPrices;
+    private final long[] bidQuantities;
+    private final long[] askPrices;
+    private final long[] askQuantities;
+
+    private final BidLevel[] bidLevels;
+    private final AskLevel[] askLevels;
+
     private final RunTrigger runTrigger;
 
     public MarketDataService(RunTrigger runTrigger) {
+        this(runTrigger, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param maxDepth levels kept per side, anything deeper in an update is ignored.
+     */
+    public MarketDataService(RunTrigger runTrigger, int maxDepth) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+        }
+
         this.runTrigger = runTrigger;
+        this.maxDepth = maxDepth;
+
+        this.bidPrices = new long[maxDepth];
+        this.bidQuantities = new long[maxDepth];
+        this.askPrices = new long[maxDepth];
+        this.askQuantities = new long[maxDepth];
+
+        this.bidLevels = new BidLevel[maxDepth];
+        this.askLevels = new AskLevel[maxDepth];
+        for (int i = 0; i < maxDepth; i++) {
+            bidLevels[i] = new BidLevel();
+            askLevels[i] = new AskLevel();
+        }
     }
 
+    /**
+     * @return the level at depth i, or null if the book isn't that deep.
+     */
     public BidLevel getBidLevel(int i){
-        return bidBook[i];
+        if (i < 0 || i >= bidLength) {
+            return null;
+        }
+        final BidLevel level = bidLevels[i];
+        level.setPrice(bidPrices[i]);
+        level.setQuantity(bidQuantities[i]);
+        return level;
     }
 
+    /**
+     * @return the level at depth i, or null if the book isn't that deep.
+     */
     public AskLevel getAskLevel(int i){
-        return askBook[i];
+        if (i < 0 || i >= askLength) {
+            return null;
+        }
+        final AskLevel level = askLevels[i];
+        level.setPrice(askPrices[i]);
+        level.setQuantity(askQuantities[i]);
+        return level;
+    }
+
+    public long getBidPrice(int i){
+        return bidPrices[checkDepth(i, bidLength)];
+    }
+
+    public long getBidQuantity(int i){
+        return bidQuantities[checkDepth(i, bidLength)];
+    }
+
+    public long getAskPrice(int i){
+        return askPrices[checkDepth(i, askLength)];
+    }
+
+    public long getAskQuantity(int i){
+        return askQuantities[checkDepth(i, askLength)];
+    }
+
+    private static int checkDepth(int i, int length){
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("Level " + i + " of " + length);
+        }
+        return i;
     }
 
     public int getBidLength(){
@@ -43,17 +129,17 @@ public class MarketDataService extends MarketDataEventListener {
         return askLength;
     }
 
+    public int getMaxDepth(){
+        return maxDepth;
+    }
+
     public long getInstrumentId(){return instrumentId;}
 
-    private static void empty(BidLevel[] levels){
-        for (int i=0; i<levels.length; i++) {
-            levels[i] = null;
-        }
-    }
+    public int getVenueValue(){return venue;}
 
-    private static void empty(AskLevel[] levels){
-        for (int i=0; i<levels.length; i++) {
-            levels[i] = null;
+    private void logLevel(String side, long price, long quantity){
+        if (logger.isDebugEnabled()) {
+            logger.debug("[ALGO] " + side + ": price:" + price + " quantity:" + quantity);
         }
     }
 
@@ -63,40 +149,33 @@ public class MarketDataService extends MarketDataEventListener {
         int bookLevel = 0;
 
         instrumentId = bookUpdate.instrumentId();
+        venue = bookUpdate.venueRaw();
 
-        empty(bidBook);
-
+        //every entry has to be read, even past our depth, to get to the next group
         for(BookUpdateDecoder.BidBookDecoder decoder : bookUpdate.bidBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            bidBook[bookLevel] = new BidLevel();
-            bidBook[bookLevel].setPrice(price);
-            bidBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
-
-            bookLevel+= 1;
-            bidLength = bookLevel;
-
+            if (bookLevel < maxDepth) {
+                bidPrices[bookLevel] = decoder.price();
+                bidQuantities[bookLevel] = decoder.size();
+                logLevel("BID", bidPrices[bookLevel], bidQuantities[bookLevel]);
+                bookLevel+= 1;
+            }
         }
 
-        empty(askBook);
+        bidLength = bookLevel;
 
         bookLevel = 0;
 
         for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdate.askBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-
-            askBook[bookLevel] = new AskLevel();
-            askBook[bookLevel].setPrice(price);
-            askBook[bookLevel].setQuantity(quantity);
-
-            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
-
-            bookLevel+= 1;
-            askLength = bookLevel;
+            if (bookLevel < maxDepth) {
+                askPrices[bookLevel] = decoder.price();
+                askQuantities[bookLevel] = decoder.size();
+                logLevel("ASK", askPrices[bookLevel], askQuantities[bookLevel]);
+                bookLevel+= 1;
+            }
         }
 
+        askLength = bookLevel;
+
         runTrigger.triggerRun();
     }
 
@@ -104,24 +183,21 @@ public class MarketDataService extends MarketDataEventListener {
     public void onAskBook(AskBookUpdateDecoder askBookDec){
 
         instrumentId = askBookDec.instrumentId();
-
-        empty(askBook);
+        venue = askBookDec.venueRaw();
 
         int bookLevel = 0;
 
         for(AskBookUpdateDecoder.AskBookDecoder decoder : askBookDec.askBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            askBook[bookLevel] = new AskLevel();
-            askBook[bookLevel].setPrice(price);
-            askBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
-
-            bookLevel+= 1;
-            askLength = bookLevel;
-
+            if (bookLevel < maxDepth) {
+                askPrices[bookLevel] = decoder.price();
+                askQuantities[bookLevel] = decoder.size();
+                logLevel("ASK", askPrices[bookLevel], askQuantities[bookLevel]);
+                bookLevel+= 1;
+            }
         }
 
+        askLength = bookLevel;
+
         runTrigger.triggerRun();
     }
 
@@ -129,22 +205,20 @@ public class MarketDataService extends MarketDataEventListener {
     public void onBidBook(BidBookUpdateDecoder bidBookDec) {
         int bookLevel = 0;
 
-        empty(bidBook);
-
         instrumentId = bidBookDec.instrumentId();
+        venue = bidBookDec.venueRaw();
 
         for(BidBookUpdateDecoder.BidBookDecoder decoder : bidBookDec.bidBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            bidBook[bookLevel] = new BidLevel();
-            bidBook[bookLevel].setPrice(price);
-            bidBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
-
-            bookLevel+= 1;
-            bidLength = bookLevel;
+            if (bookLevel < maxDepth) {
+                bidPrices[bookLevel] = decoder.price();
+                bidQuantities[bookLevel] = decoder.size();
+                logLevel("BID", bidPrices[bookLevel], bidQuantities[bookLevel]);
+                bookLevel+= 1;
+            }
         }
 
+        bidLength = bookLevel;
+
         runTrigger.triggerRun();
     }
 }
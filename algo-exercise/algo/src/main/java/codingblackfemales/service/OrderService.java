@@ -1,22 +1,53 @@
 package codingblackfemales.service;
 
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.Map;
 import codingblackfemales.container.RunTrigger;
 import codingblackfemales.sequencer.event.OrderEventListener;
 import codingblackfemales.sotw.ChildOrder;
 import codingblackfemales.sotw.OrderState;
 import messages.order.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class OrderService extends OrderEventListener {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    private static final int EXPECTED_CHILD_ORDERS = 1024;
+
     private final RunTrigger runTrigger;
+    private final boolean recordFills;
+
+    //children in the order they were created, and the same children by orderId for execution reports
+    private final List<ChildOrder> children = new ArrayList<>(EXPECTED_CHILD_ORDERS);
+    private final LongToObjMap<ChildOrder> childrenById = Map.longToObjMap(EXPECTED_CHILD_ORDERS);
 
-    private List<ChildOrder> children = new LinkedList<>();
+    //split of the same children by state, kept up to date as orders change state rather than filtered per call
+    private final List<ChildOrder> activeChildren = new ArrayList<>();
+    private final List<ChildOrder> terminalChildren = new ArrayList<>(EXPECTED_CHILD_ORDERS);
+
+    private final List<ChildOrder> childrenView = Collections.unmodifiableList(children);
+    private final List<ChildOrder> activeChildrenView = Collections.unmodifiableList(activeChildren);
+    private final List<ChildOrder> terminalChildrenView = Collections.unmodifiableList(terminalChildren);
+
+    //unfilled quantity across the active children
+    private long openQuantity = 0;
 
     public OrderService(RunTrigger runTrigger) {
+        this(runTrigger, false);
+    }
+
+    /**
+     * @param recordFills give every child a {@link codingblackfemales.sotw.ChildFillLog} of its fills.
+     */
+    public OrderService(RunTrigger runTrigger, boolean recordFills) {
         this.runTrigger = runTrigger;
+        this.recordFills = recordFills;
     }
 
 
@@ -25,64 +56,140 @@ public class OrderService extends OrderEventListener {
     }
 
     private ChildOrder createChildOrder(final CreateOrderDecoder create){
-        return new ChildOrder(create.side(), create.orderId(), create.quantity(), create.price(), OrderState.PENDING);
+        return new ChildOrder(create.side(), create.orderId(), create.quantity(), create.price(), OrderState.PENDING, recordFills);
     }
 
-    private void updateState(ChildOrder child, int state){
+    private void updateState(long orderId, int state){
+        final ChildOrder child = find(orderId);
+        if (child == null) {
+            return;
+        }
+
+        final boolean wasTerminal = OrderState.isTerminal(child.getState());
+        final boolean isTerminal = OrderState.isTerminal(state);
+
         child.setState(state);
+
+        if (!wasTerminal && isTerminal) {
+            activeChildren.remove(child);
+            terminalChildren.add(child);
+            openQuantity -= child.getRemainingQuantity();
+        } else if (wasTerminal && !isTerminal) {
+            terminalChildren.remove(child);
+            activeChildren.add(child);
+            openQuantity += child.getRemainingQuantity();
+        }
     }
 
-    private void addChildFill(ChildOrder child, long filledQuantity, long filledPrice){
+    private void addChildFill(long orderId, long filledQuantity, long filledPrice){
+        final ChildOrder child = find(orderId);
+        if (child == null) {
+            return;
+        }
+
+        final long remainingBefore = child.getRemainingQuantity();
         child.addFill(filledQuantity, filledPrice);
+
+        if (!OrderState.isTerminal(child.getState())) {
+            openQuantity += child.getRemainingQuantity() - remainingBefore;
+        }
     }
 
     @Override
     public void onCreateOrder(final CreateOrderDecoder create) {
-        children.add(createChildOrder(create));
+        final ChildOrder child = createChildOrder(create);
+        if (childrenById.containsKey(child.getOrderId())) {
+            logger.warn("[ORDERSERVICE] Ignoring create for duplicate orderId:" + child.getOrderId());
+            return;
+        }
+        children.add(child);
+        childrenById.put(child.getOrderId(), child);
+        activeChildren.add(child);
+        openQuantity += child.getRemainingQuantity();
         triggerRun();
     }
 
-    private ChildOrder find(long orderId){
-        return children.stream().filter( order -> order.getOrderId() == orderId).findFirst().get();
+    /**
+     * @return the child order, or null (and a warning) if it isn't one of ours.
+     */
+    public ChildOrder find(long orderId){
+        final ChildOrder child = childrenById.get(orderId);
+        if (child == null) {
+            logger.warn("[ORDERSERVICE] Ignoring event for unknown orderId:" + orderId);
+        }
+        return child;
     }
 
     @Override
     public void onCancelOrder(final CancelOrderDecoder cancel) {
-        updateState(find(cancel.orderId()), OrderState.CANCELLED);
+        updateState(cancel.orderId(), OrderState.CANCELLED);
         triggerRun();
     }
 
     @Override
     public void onAckedOrder(final AckedOrderDecoder acked) {
-        updateState(find(acked.orderId()), OrderState.ACKED);
+        updateState(acked.orderId(), OrderState.ACKED);
         triggerRun();
     }
 
     @Override
     public void onCancelAckedOrder(final CancelAckedOrderDecoder cancelAcked) {
-        updateState(find(cancelAcked.orderId()), OrderState.CANCELLED);
+        updateState(cancelAcked.orderId(), OrderState.CANCELLED);
         triggerRun();
     }
 
     @Override
     public void onPendingOrder(final PendingOrderDecoder pending) {
-        updateState(find(pending.orderId()), OrderState.PENDING);
+        updateState(pending.orderId(), OrderState.PENDING);
         triggerRun();
     }
 
+    /**
+     * @return read only view of every child, oldest first.
+     */
     public List<ChildOrder> children(){
-        return this.children;
+        return childrenView;
+    }
+
+    /**
+     * @return read only view of the children that aren't cancelled or filled, oldest first.
+     */
+    public List<ChildOrder> activeChildren(){
+        return activeChildrenView;
+    }
+
+    /**
+     * @return read only view of the children that are cancelled or filled, in the order they got there.
+     */
+    public List<ChildOrder> terminalChildren(){
+        return terminalChildrenView;
+    }
+
+    public int childCount(){
+        return children.size();
+    }
+
+    public int activeChildCount(){
+        return activeChildren.size();
+    }
+
+    public long openQuantity(){
+        return openQuantity;
     }
 
     @Override
     public void onPartialFill(PartialFillOrderDecoder partialFill) {
-        addChildFill(find(partialFill.orderId()), partialFill.quantity(), partialFill.price());
+        addChildFill(partialFill.orderId(), partialFill.quantity(), partialFill.price());
         triggerRun();
     }
 
+    /**
+     * The child's last fill, it's FILLED and no longer active.
+     */
     @Override
     public void onFill(FillOrderDecoder fill) {
-        addChildFill(find(fill.orderId()), fill.quantity(), fill.price());
+        addChildFill(fill.orderId(), fill.quantity(), fill.price());
+        updateState(fill.orderId(), OrderState.FILLED);
         triggerRun();
     }
 }
@@ -1,19 +0,0 @@
-package codingblackfemales.sotw;
-
-public class ChildFill {
-    private final long quantity;
-    private final long price;
-
-    public ChildFill(long quantity, long price) {
-        this.quantity = quantity;
-        this.price = price;
-    }
-
-    public long getQuantity() {
-        return quantity;
-    }
-
-    public long getPrice() {
-        return price;
-    }
-}
@@ -0,0 +1,56 @@
+package codingblackfemales.sotw;
+
+import java.util.Arrays;
+
+/**
+ * Every fill on a child order, oldest first, in two primitive arrays rather than a list of fill objects.
+ * Only kept when asked for, the running totals on {@link ChildOrder} are enough for most algos.
+ */
+public class ChildFillLog {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public interface FillConsumer {
+        public void accept(long quantity, long price);
+    }
+
+    void add(long quantity, long price) {
+        if (size == quantities.length) {
+            quantities = Arrays.copyOf(quantities, size * 2);
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        quantities[size] = quantity;
+        prices[size] = price;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getQuantity(int index) {
+        checkIndex(index);
+        return quantities[index];
+    }
+
+    public long getPrice(int index) {
+        checkIndex(index);
+        return prices[index];
+    }
+
+    public void forEach(FillConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(quantities[i], prices[i]);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Fill " + index + " of " + size);
+        }
+    }
+}
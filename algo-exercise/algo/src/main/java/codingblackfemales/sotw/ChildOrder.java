@@ -2,10 +2,6 @@ package codingblackfemales.sotw;
 
 import messages.order.Side;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 public class ChildOrder {
     private Side side;
     private long orderId;
@@ -14,14 +10,27 @@ public class ChildOrder {
 
     private int state;
 
-    private List<ChildFill> fills = new LinkedList<>();
+    //running totals, updated on every fill so reading them is free
+    private long filledQuantity = 0;
+    private long filledNotional = 0;
+    private int fillCount = 0;
+
+    private final ChildFillLog fillLog;
 
     public ChildOrder(Side side, long orderId, long quantity, long price, int state) {
+        this(side, orderId, quantity, price, state, false);
+    }
+
+    /**
+     * @param recordFills keep every fill in a {@link ChildFillLog} as well as the running totals.
+     */
+    public ChildOrder(Side side, long orderId, long quantity, long price, int state, boolean recordFills) {
         this.side = side;
         this.orderId = orderId;
         this.quantity = quantity;
         this.price = price;
         this.state = state;
+        this.fillLog = recordFills ? new ChildFillLog() : null;
     }
 
     public Side getSide() {
@@ -41,7 +50,39 @@ public class ChildOrder {
     }
 
     public long getFilledQuantity() {
-        return fills.stream().map( cf -> cf.getQuantity()).collect(Collectors.summingLong(Long::longValue));
+        return filledQuantity;
+    }
+
+    /**
+     * @return quantity still to fill, never negative even if we've been overfilled.
+     */
+    public long getRemainingQuantity() {
+        return Math.max(0, quantity - filledQuantity);
+    }
+
+    /**
+     * @return sum of price * quantity over the fills.
+     */
+    public long getFilledNotional() {
+        return filledNotional;
+    }
+
+    /**
+     * @return volume weighted average price of the fills, or 0 if there haven't been any.
+     */
+    public double getAverageFillPrice() {
+        return filledQuantity == 0 ? 0 : (double) filledNotional / filledQuantity;
+    }
+
+    public int getFillCount() {
+        return fillCount;
+    }
+
+    /**
+     * @return the fills, or null if this child wasn't created to record them.
+     */
+    public ChildFillLog getFillLog() {
+        return fillLog;
     }
 
     public int getState() {
@@ -53,6 +94,12 @@ public class ChildOrder {
     }
 
     public void addFill(long filledQuantity, long filledPrice) {
-        this.fills.add(new ChildFill(filledQuantity, filledPrice));
+        this.filledQuantity += filledQuantity;
+        this.filledNotional += filledQuantity * filledPrice;
+        this.fillCount++;
+
+        if (fillLog != null) {
+            fillLog.add(filledQuantity, filledPrice);
+        }
     }
 }
@@ -7,4 +7,11 @@ public class OrderState{
     public static final int CANCELLED = 3;
     public static final int FILLED = 4;
 
-}
\ No newline at end of file
+    /**
+     * A terminal child can't trade any more, it's no longer one of the algo's active orders.
+     */
+    public static boolean isTerminal(int state){
+        return state == CANCELLED || state == FILLED;
+    }
+
+}
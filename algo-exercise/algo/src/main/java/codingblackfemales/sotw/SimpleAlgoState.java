@@ -3,6 +3,8 @@ package codingblackfemales.sotw;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
 
+import messages.order.Venue;
+
 import java.util.List;
 
 public interface SimpleAlgoState {
@@ -12,12 +14,35 @@ public interface SimpleAlgoState {
     public int getBidLevels();
     public int getAskLevels();
 
+    /**
+     * Levels are reused flyweights, read them straight away or copy them if you need to keep them between ticks.
+     */
     public BidLevel getBidAt(int index);
     public AskLevel getAskAt(int index);
 
+    /**
+     * Children, active children and terminal children are read only views that are kept up to date as orders
+     * change state, they are cheap to call as often as you like but don't hang onto them expecting a snapshot.
+     */
     public List<ChildOrder> getChildOrders();
 
     public List<ChildOrder> getActiveChildOrders();
 
+    public List<ChildOrder> getTerminalChildOrders();
+
+    public int getChildOrderCount();
+
+    public int getActiveChildOrderCount();
+
+    /**
+     * @return quantity still to be filled across the active children.
+     */
+    public long getOpenQuantity();
+
     public long getInstrumentId();
+
+    /**
+     * @return the venue of the last market data update, NULL_VAL before there's been one.
+     */
+    public Venue getVenue();
 }
@@ -4,9 +4,9 @@ import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
+import messages.order.Venue;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class SimpleAlgoStateImpl implements SimpleAlgoState {
 
@@ -23,6 +23,15 @@ public class SimpleAlgoStateImpl implements SimpleAlgoState {
         return marketDataService.getInstrumentId();
     }
 
+    @Override
+    public Venue getVenue() {
+        try {
+            return Venue.get(marketDataService.getVenueValue());
+        } catch (IllegalArgumentException e) {
+            return Venue.NULL_VAL;
+        }
+    }
+
     @Override
     public String getSymbol() {
         return null;
@@ -55,6 +64,26 @@ public class SimpleAlgoStateImpl implements SimpleAlgoState {
 
     @Override
     public List<ChildOrder> getActiveChildOrders() {
-        return orderService.children().stream().filter(order -> order.getState() != OrderState.CANCELLED).collect(Collectors.toList());
+        return orderService.activeChildren();
+    }
+
+    @Override
+    public List<ChildOrder> getTerminalChildOrders() {
+        return orderService.terminalChildren();
+    }
+
+    @Override
+    public int getChildOrderCount() {
+        return orderService.childCount();
+    }
+
+    @Override
+    public int getActiveChildOrderCount() {
+        return orderService.activeChildCount();
+    }
+
+    @Override
+    public long getOpenQuantity() {
+        return orderService.openQuantity();
     }
 }
@@ -0,0 +1,129 @@
+package codingblackfemales.marketdata.api;
+
+import codingblackfemales.marketdata.impl.AskBookUpdateImpl;
+import codingblackfemales.marketdata.impl.BidBookUpdateImpl;
+import codingblackfemales.marketdata.impl.BookUpdateImpl;
+import codingblackfemales.marketdata.impl.MarketDataFrame;
+import codingblackfemales.sequencer.util.FrameLengthDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateEncoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.Venue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MarketDataEncoderTest {
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+    private final FrameLengthDecoder frameLengthDecoder = new FrameLengthDecoder();
+
+    private static List<BookEntry> book(final int levels, final long bestPrice, final long step) {
+        final List<BookEntry> entries = new ArrayList<>();
+        for (int i = 0; i < levels; i++) {
+            entries.add(new BookEntry().setPrice(bestPrice + i * step).setSize(i + 1));
+        }
+        return entries;
+    }
+
+    private static byte[] bytes(final UnsafeBuffer buffer, final int offset, final int length) {
+        final byte[] bytes = new byte[length];
+        buffer.getBytes(offset, bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testEncodesIntoTheCallersBufferAtAnOffset() {
+        final MarketDataMessage message = new BookUpdateImpl(1234L, Venue.XLON, InstrumentStatus.CONTINUOUS, book(3, 100L, -1L), book(2, 101L, 1L));
+        final UnsafeBuffer expected = encoder.encode(message);
+        final int expectedLength = frameLengthDecoder.frameLength(expected, 0);
+
+        //a slot that's been used before
+        final UnsafeBuffer slot = new UnsafeBuffer(new byte[512]);
+        slot.setMemory(0, slot.capacity(), (byte) -1);
+        assertEquals(expectedLength, encoder.encode(message, slot, 100));
+        assertEquals(expectedLength, encoder.encodedLength(message));
+        assertEquals(expectedLength, frameLengthDecoder.frameLength(slot, 100));
+        assertArrayEquals(bytes(expected, 0, expectedLength), bytes(slot, 100, expectedLength));
+    }
+
+    @Test
+    public void testRejectsABufferTooSmallForTheBook() {
+        final MarketDataMessage message = new AskBookUpdateImpl(1234L, Venue.XLON, book(10, 101L, 1L));
+        final int length = encoder.encodedLength(message);
+        final UnsafeBuffer slot = new UnsafeBuffer(new byte[length + 8]);
+
+        assertEquals(length, encoder.encode(message, slot, 8));
+        try {
+            encoder.encode(message, slot, 9);
+            fail("Expected the buffer to be too small");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("too small"));
+        }
+    }
+
+    @Test
+    public void testDeepBookGetsABigEnoughBuffer() {
+        final MarketDataMessage message = new BookUpdateImpl(1234L, Venue.XLON, InstrumentStatus.CONTINUOUS, book(500, 1000L, -1L), book(500, 1001L, 1L));
+        assertTrue(encoder.encodedLength(message) > 1024);
+
+        final UnsafeBuffer encoded = encoder.encode(message);
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(encoded, 0);
+        final BookUpdateDecoder decoder = new BookUpdateDecoder().wrap(encoded, header.encodedLength(), header.blockLength(), header.version());
+        //groups are read in order, once each
+        long lastBid = 0L;
+        final BookUpdateDecoder.BidBookDecoder bids = decoder.bidBook();
+        assertEquals(500, bids.count());
+        for (BookUpdateDecoder.BidBookDecoder bid : bids) {
+            lastBid = bid.price();
+        }
+        assertEquals(501L, lastBid);
+        assertEquals(500, decoder.askBook().count());
+        assertEquals(encoder.encodedLength(message), encoded.capacity());
+    }
+
+    @Test
+    public void testFrameIsCopied() {
+        final UnsafeBuffer source = encoder.encode(new AskBookUpdateImpl(7L, Venue.XPAR, book(2, 50L, 1L)));
+        final int length = frameLengthDecoder.frameLength(source, 0);
+        final MarketDataFrame frame = new MarketDataFrame().wrap(source, 0, length);
+
+        final UnsafeBuffer slot = new UnsafeBuffer(new byte[256]);
+        assertEquals(length, encoder.encode(frame, slot, 16));
+        assertArrayEquals(bytes(source, 0, length), bytes(slot, 16, length));
+    }
+
+    @Test
+    public void testSideUpdatesFromBeforeTheSourceFieldStillDecode() {
+        final UnsafeBuffer current = encoder.encode(new BidBookUpdateImpl(7L, Venue.XPAR, book(2, 50L, -1L)));
+        final int length = frameLengthDecoder.frameLength(current, 0);
+
+        //the same update as version 0 wrote it, the block ends where source starts
+        final int sourceOffset = MessageHeaderEncoder.ENCODED_LENGTH + BidBookUpdateEncoder.sourceEncodingOffset();
+        final int sourceLength = BidBookUpdateEncoder.sourceEncodingLength();
+        assertEquals(BidBookUpdateEncoder.BLOCK_LENGTH, BidBookUpdateEncoder.sourceEncodingOffset() + sourceLength);
+        final UnsafeBuffer old = new UnsafeBuffer(new byte[length - sourceLength]);
+        old.putBytes(0, current, 0, sourceOffset);
+        old.putBytes(sourceOffset, current, sourceOffset + sourceLength, length - sourceOffset - sourceLength);
+        new MessageHeaderEncoder().wrap(old, 0).blockLength(sourceOffset - MessageHeaderEncoder.ENCODED_LENGTH).version(0);
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(old, 0);
+        final BidBookUpdateDecoder decoder = new BidBookUpdateDecoder().wrap(old, header.encodedLength(), header.blockLength(), header.version());
+        assertEquals(7L, decoder.instrumentId());
+        assertEquals(Venue.XPAR, decoder.venue());
+        assertEquals(Source.NULL_VAL, decoder.source());
+        final BidBookUpdateDecoder.BidBookDecoder bids = decoder.bidBook();
+        assertEquals(2, bids.count());
+        assertEquals(50L, bids.next().price());
+        assertEquals(49L, bids.next().price());
+    }
+}
@@ -0,0 +1,106 @@
+package codingblackfemales.marketdata.gen;
+
+import codingblackfemales.marketdata.api.BookEntry;
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.impl.MarketDataRecord;
+import codingblackfemales.marketdata.impl.SimpleFileMarketDataProvider;
+import messages.marketdata.Venue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SeededMarketDataGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+
+    private static SeededMarketDataGenerator generator(final long seed) {
+        return new SeededMarketDataGenerator(1234L, Venue.XLON, 1_000L, 100L, 15, seed);
+    }
+
+    private byte[] encoded(final MarketDataMessage message) {
+        final byte[] bytes = new byte[encoder.encodedLength(message)];
+        encoder.encode(message, new UnsafeBuffer(bytes), 0);
+        return bytes;
+    }
+
+    @Test
+    public void testSameSeedSameTicks() {
+        final SeededMarketDataGenerator first = generator(42L);
+        final SeededMarketDataGenerator second = generator(42L);
+        final SeededMarketDataGenerator other = generator(43L);
+
+        boolean differs = false;
+        for (int i = 0; i < 10_000; i++) {
+            final byte[] tick = encoded(first.next());
+            assertArrayEquals(tick, encoded(second.next()));
+            differs |= !Arrays.equals(tick, encoded(other.next()));
+        }
+        assertTrue(differs);
+    }
+
+    private static void assertInPriceOrder(final List<BookEntry> side, final boolean descending) {
+        for (int i = 1; i < side.size(); i++) {
+            final long previous = side.get(i - 1).price();
+            final long price = side.get(i).price();
+            assertTrue(descending ? previous >= price : previous <= price);
+        }
+    }
+
+    @Test
+    public void testBookStaysSortedAndUncrossed() {
+        for (long seed = 0; seed < 20; seed++) {
+            final SeededMarketDataGenerator generator = generator(seed);
+            long bestBid = Long.MIN_VALUE;
+            long bestAsk = Long.MAX_VALUE;
+            MarketDataRecord previous = null;
+            for (int i = 0; i < 20_000; i++) {
+                final MarketDataRecord tick = (MarketDataRecord) generator.next();
+                assertTrue(previous == null || previous == tick);
+                previous = tick;
+
+                assertTrue(tick.bidBook().size() <= 15 && tick.askBook().size() <= 15);
+                assertInPriceOrder(tick.bidBook(), true);
+                assertInPriceOrder(tick.askBook(), false);
+
+                //a side that's published whole is the whole side, otherwise what was last seen stands
+                if (!tick.bidBook().isEmpty() || generator.getBuyCount() == 0) {
+                    bestBid = tick.bidBook().isEmpty() ? Long.MIN_VALUE : tick.bidBook().get(0).price();
+                }
+                if (!tick.askBook().isEmpty() || generator.getSellCount() == 0) {
+                    bestAsk = tick.askBook().isEmpty() ? Long.MAX_VALUE : tick.askBook().get(0).price();
+                }
+                if (bestBid >= bestAsk) {
+                    fail("Crossed seed=" + seed + " tick=" + i + " " + generator);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWritesTheSimpleFileFormat() throws Exception {
+        final String fileName = folder.newFile("marketdata.json").getPath();
+        final SimpleFileMarketDataGenerator fileGenerator = new SimpleFileMarketDataGenerator(fileName, generator(7L));
+        fileGenerator.generate(1_000);
+        fileGenerator.close();
+
+        final SeededMarketDataGenerator expected = generator(7L);
+        final SimpleFileMarketDataProvider provider = new SimpleFileMarketDataProvider(fileName);
+        for (int i = 0; i < 1_000; i++) {
+            final MarketDataMessage tick = expected.next();
+            final MarketDataMessage read = provider.poll();
+            assertEquals(tick.updateType(), read.updateType());
+            assertArrayEquals(encoded(tick), encoded(read));
+        }
+        assertNull(provider.poll());
+    }
+}
@@ -0,0 +1,189 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.marketdata.api.BookEntry;
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.UpdateType;
+import codingblackfemales.marketdata.gen.MarketDataFileConverter;
+import codingblackfemales.marketdata.gen.MarketDataFileWriter;
+import codingblackfemales.sequencer.util.FrameLengthDecoder;
+import codingblackfemales.service.MarketDataService;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.Venue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinaryFileMarketDataProviderTest {
+
+    private static final String JSON_FILE = "src/test/resources/marketdata.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FrameLengthDecoder frameLengthDecoder = new FrameLengthDecoder();
+
+    private static byte[] bytes(final UnsafeBuffer buffer, final int length) {
+        final byte[] bytes = new byte[length];
+        buffer.getBytes(0, bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testConvertedFileReplaysTheSameFrames() throws Exception {
+        final String binaryFile = folder.newFile("marketdata.bin").getPath();
+        assertEquals(1000L, MarketDataFileConverter.convert(JSON_FILE, binaryFile));
+
+        final SimpleFileMarketDataProvider json = new SimpleFileMarketDataProvider(JSON_FILE);
+        final MarketDataEncoder encoder = new MarketDataEncoder();
+
+        int count = 0;
+        try (BinaryFileMarketDataProvider binary = new BinaryFileMarketDataProvider(binaryFile)) {
+            MarketDataMessage expected;
+            while ((expected = json.poll()) != null) {
+                final MarketDataMessage actual = binary.poll();
+                assertNotNull(actual);
+                assertEquals(expected.updateType(), actual.updateType());
+                assertEquals(expected.instrumentId(), actual.instrumentId());
+                assertEquals(expected.venue(), actual.venue());
+
+                final UnsafeBuffer expectedFrame = encoder.encode(expected);
+                final int length = frameLengthDecoder.frameLength(expectedFrame, 0);
+                final UnsafeBuffer actualFrame = encoder.encode(actual);
+                assertEquals(length, actualFrame.capacity());
+                assertArrayEquals(bytes(expectedFrame, length), bytes(actualFrame, length));
+                count++;
+            }
+            assertNull(binary.poll());
+        }
+        assertEquals(1000, count);
+    }
+
+    @Test
+    public void testFramesGoStraightToTheMarketDataService() throws Exception {
+        final String binaryFile = folder.newFile("marketdata.bin").getPath();
+        MarketDataFileConverter.convert(JSON_FILE, binaryFile);
+
+        final MarketDataEncoder encoder = new MarketDataEncoder();
+        final MarketDataService marketDataService = new MarketDataService(new RunTrigger());
+
+        try (BinaryFileMarketDataProvider provider = new BinaryFileMarketDataProvider(binaryFile)) {
+            MarketDataMessage message;
+            while ((message = provider.poll()) != null) {
+                final UnsafeBuffer encoded = encoder.encode(message);
+                assertSame(((MarketDataFrame) message).buffer(), encoded);
+                marketDataService.onMessage(encoded);
+            }
+        }
+        assertEquals(1234L, marketDataService.getInstrumentId());
+    }
+
+    /**
+     * Deeper than the writer's and provider's buffers, as a frame captured off the network could be.
+     */
+    private static UnsafeBuffer deepBook(final int levels) {
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(256 * 1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.instrumentId(2L);
+        encoder.venue(Venue.XPAR);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        final BookUpdateEncoder.BidBookEncoder bids = encoder.bidBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            bids.next().price(10_000 - i).size(i + 1);
+        }
+        final BookUpdateEncoder.AskBookEncoder asks = encoder.askBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            asks.next().price(10_001 + i).size(i + 1);
+        }
+        return buffer;
+    }
+
+    @Test
+    public void testFramesBiggerThanTheBuffers() throws Exception {
+        final String binaryFile = folder.newFile("deep.bin").getPath();
+
+        final List<BookEntry> top = List.of(new BookEntry().setPrice(100L).setSize(10L), new BookEntry().setPrice(101L).setSize(20L));
+        final UnsafeBuffer deep = deepBook(3000);
+        final int deepLength = frameLengthDecoder.frameLength(deep, 0);
+        assertTrue(deepLength > 64 * 1024);
+
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(binaryFile)) {
+            writer.write(new AskBookUpdateImpl(1L, Venue.XLON, top));
+            writer.write(deep, 0, deepLength);
+            writer.write(new BidBookUpdateImpl(3L, Venue.XAMS, top));
+        }
+
+        try (BinaryFileMarketDataProvider provider = new BinaryFileMarketDataProvider(binaryFile)) {
+            assertEquals(UpdateType.AskUpdate, provider.poll().updateType());
+
+            final MarketDataFrame frame = (MarketDataFrame) provider.poll();
+            assertEquals(UpdateType.BookUpdate, frame.updateType());
+            assertEquals(2L, frame.instrumentId());
+            assertEquals(Venue.XPAR, frame.venue());
+            assertEquals(deepLength, frame.length());
+            assertArrayEquals(bytes(deep, deepLength), bytes(frame.buffer(), deepLength));
+
+            assertEquals(3L, provider.poll().instrumentId());
+            assertNull(provider.poll());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsAFileThatIsntACapture() {
+        new BinaryFileMarketDataProvider(JSON_FILE);
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        final File binaryFile = folder.newFile("truncated.bin");
+        MarketDataFileConverter.convert(JSON_FILE, binaryFile.getPath());
+        try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        try (BinaryFileMarketDataProvider provider = new BinaryFileMarketDataProvider(binaryFile.getPath())) {
+            for (int i = 0; i < 999; i++) {
+                assertNotNull(provider.poll());
+            }
+            provider.poll();
+            fail("Expected the truncated frame to be reported");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("Truncated"));
+        }
+    }
+
+    @Test
+    public void testCorruptLengthPrefix() throws Exception {
+        for (int length : new int[]{-1, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE - 2}) {
+            final File binaryFile = folder.newFile("corrupt" + length + ".bin");
+            MarketDataFileConverter.convert(JSON_FILE, binaryFile.getPath());
+            try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+                //the first frame's prefix, little endian
+                file.seek(MarketDataFile.HEADER_LENGTH);
+                file.writeInt(Integer.reverseBytes(length));
+            }
+
+            try (BinaryFileMarketDataProvider provider = new BinaryFileMarketDataProvider(binaryFile.getPath())) {
+                provider.poll();
+                fail("Expected the corrupt prefix to be reported length=" + length);
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().contains("Truncated"));
+            }
+        }
+    }
+}
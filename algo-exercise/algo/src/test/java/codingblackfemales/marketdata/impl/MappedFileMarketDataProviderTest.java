@@ -0,0 +1,136 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.gen.MarketDataFileConverter;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.util.SequencedBufferRing;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MappedFileMarketDataProviderTest {
+
+    private static final String JSON_FILE = "src/test/resources/marketdata.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(final DirectBuffer buffer) {
+        final byte[] bytes = new byte[buffer.capacity()];
+        buffer.getBytes(0, bytes);
+        return bytes;
+    }
+
+    private String capture() throws Exception {
+        final String binaryFile = folder.newFile("marketdata.bin").getPath();
+        MarketDataFileConverter.convert(JSON_FILE, binaryFile);
+        return binaryFile;
+    }
+
+    @Test
+    public void testSameFramesAsReadingTheFile() throws Exception {
+        final String binaryFile = capture();
+
+        //regions a few frames long, so plenty of frames run off the end of one
+        for (int regionSize : new int[]{MappedFileMarketDataProvider.DEFAULT_REGION_SIZE, 1000, 8}) {
+            int count = 0;
+            try (BinaryFileMarketDataProvider read = new BinaryFileMarketDataProvider(binaryFile);
+                 MappedFileMarketDataProvider mapped = new MappedFileMarketDataProvider(binaryFile, regionSize)) {
+                DirectBuffer expected;
+                while ((expected = read.pollFrame()) != null) {
+                    final DirectBuffer actual = mapped.pollFrame();
+                    assertNotNull(actual);
+                    assertArrayEquals(bytes(expected), bytes(actual));
+                    count++;
+                }
+                assertNull(mapped.pollFrame());
+            }
+            assertEquals(1000, count);
+        }
+    }
+
+    @Test
+    public void testPollIsAFrameOverTheMapping() throws Exception {
+        final String binaryFile = capture();
+
+        try (BinaryFileMarketDataProvider read = new BinaryFileMarketDataProvider(binaryFile);
+             MappedFileMarketDataProvider mapped = new MappedFileMarketDataProvider(binaryFile, 4096)) {
+            for (int i = 0; i < 1000; i++) {
+                final MarketDataFrame expected = (MarketDataFrame) read.poll();
+                final MarketDataFrame actual = (MarketDataFrame) mapped.poll();
+                assertEquals(expected.updateType(), actual.updateType());
+                assertEquals(expected.instrumentId(), actual.instrumentId());
+                assertEquals(expected.venue(), actual.venue());
+                assertEquals(expected.length(), actual.length());
+            }
+            assertNull(mapped.poll());
+        }
+    }
+
+    @Test
+    public void testReplayLeavesTheFileAlone() throws Exception {
+        final String binaryFile = capture();
+        //a capture that's been archived read only can still be replayed
+        assertTrue(new File(binaryFile).setWritable(false));
+        final byte[] before = Files.readAllBytes(new File(binaryFile).toPath());
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final List<Long> sequenced = new ArrayList<>();
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(buffer -> sequenced.add(header.wrap(buffer, 0).sequencerNumber()));
+
+        //the default sequencer stamps the frame it's given, replay gives it a copy
+        try (MappedFileMarketDataProvider provider = new MappedFileMarketDataProvider(binaryFile, 4096)) {
+            assertEquals(1000L, provider.replay(new DefaultSequencer(network)));
+            assertNull(provider.pollFrame());
+        }
+        assertEquals(1000, sequenced.size());
+        assertEquals(Long.valueOf(1L), sequenced.get(0));
+        assertEquals(Long.valueOf(1000L), sequenced.get(999));
+        assertArrayEquals(before, Files.readAllBytes(new File(binaryFile).toPath()));
+
+        //and one that copies into its ring sees the same
+        sequenced.clear();
+        try (MappedFileMarketDataProvider provider = new MappedFileMarketDataProvider(binaryFile)) {
+            provider.replay(new DefaultSequencer(network, new SequencedBufferRing(DefaultSequencer.DEFAULT_RING_SIZE, DefaultSequencer.DEFAULT_SLOT_CAPACITY)));
+        }
+        assertEquals(1000, sequenced.size());
+        assertEquals(Long.valueOf(1000L), sequenced.get(999));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsAFileThatIsntACapture() throws Exception {
+        final File notACapture = folder.newFile("marketdata.json");
+        Files.copy(new File(JSON_FILE).toPath(), notACapture.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        new MappedFileMarketDataProvider(notACapture.getPath());
+    }
+
+    @Test
+    public void testTruncatedFile() throws Exception {
+        final File binaryFile = new File(capture());
+        try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        try (MappedFileMarketDataProvider provider = new MappedFileMarketDataProvider(binaryFile.getPath(), 4096)) {
+            for (int i = 0; i < 999; i++) {
+                assertNotNull(provider.pollFrame());
+            }
+            provider.pollFrame();
+            fail("Expected the truncated frame to be reported");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("Truncated"));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.BookUpdate;
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.UpdateType;
+import codingblackfemales.sequencer.util.FrameLengthDecoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class StreamingFileMarketDataProviderTest {
+
+    private static final String JSON_FILE = "src/test/resources/marketdata.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+    private final FrameLengthDecoder frameLengthDecoder = new FrameLengthDecoder();
+
+    private byte[] encoded(final MarketDataMessage message) {
+        final UnsafeBuffer buffer = encoder.encode(message);
+        final byte[] bytes = new byte[frameLengthDecoder.frameLength(buffer, 0)];
+        buffer.getBytes(0, bytes);
+        return bytes;
+    }
+
+    private void assertSameAsGson(final String fileName) {
+        final SimpleFileMarketDataProvider gson = new SimpleFileMarketDataProvider(JSON_FILE);
+        int count = 0;
+        try (StreamingFileMarketDataProvider streaming = new StreamingFileMarketDataProvider(fileName)) {
+            MarketDataMessage expected;
+            MarketDataMessage previous = null;
+            while ((expected = gson.poll()) != null) {
+                final MarketDataMessage actual = streaming.poll();
+                assertEquals(expected.updateType(), actual.updateType());
+                assertArrayEquals(encoded(expected), encoded(actual));
+                //one record, filled in again each time
+                assertTrue(previous == null || previous == actual);
+                previous = actual;
+                count++;
+            }
+            assertNull(streaming.poll());
+
+            assertEquals(1000L, streaming.getMessagesParsed());
+            assertTrue(streaming.getCharactersParsed() > 0);
+            assertTrue(streaming.getParseNanos() > 0);
+            assertTrue(streaming.getMessagesPerSecond() > 0);
+        }
+        assertEquals(1000, count);
+    }
+
+    @Test
+    public void testSameMessagesAsGson() {
+        assertSameAsGson(JSON_FILE);
+    }
+
+    @Test
+    public void testGzippedFile() throws Exception {
+        final File gzipped = folder.newFile("marketdata.json.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(gzipped))) {
+            Files.copy(new File(JSON_FILE).toPath(), out);
+        }
+        assertSameAsGson(gzipped.getPath());
+    }
+
+    @Test
+    public void testUnknownFieldsBlankLinesAndLongLines() throws Exception {
+        final StringBuilder deep = new StringBuilder("1,{\"venue\":\"XPAR\",\"askBook\":[");
+        for (int i = 0; i < 10_000; i++) {
+            deep.append(i == 0 ? "" : ",").append("{\"price\":").append(100 + i).append(",\"size\":").append(i + 1).append('}');
+        }
+        deep.append("],\"instrumentId\":7}");
+
+        final File file = folder.newFile("marketdata.json");
+        Files.write(file.toPath(), String.join("\r\n",
+                "0,{ \"instrumentId\" : 12, \"venue\" : \"XLON\", \"note\" : \"a \\\"quoted\\\" [note]\", \"extra\" : {\"a\":[1,{\"b\":2}]},"
+                        + " \"instrumentStatus\" : \"CONTINUOUS\", \"bidBook\" : [ {\"price\":-5,\"size\":1,\"orders\":3} ], \"askBook\" : [] }",
+                "",
+                deep.toString(),
+                "2,{\"instrumentId\":13,\"venue\":\"XAMS\",\"bidBook\":[]}").getBytes(StandardCharsets.UTF_8));
+
+        try (StreamingFileMarketDataProvider provider = new StreamingFileMarketDataProvider(file.getPath())) {
+            final BookUpdate book = (BookUpdate) provider.poll();
+            assertEquals(UpdateType.BookUpdate, book.updateType());
+            assertEquals(12L, book.instrumentId());
+            assertEquals(Venue.XLON, book.venue());
+            assertEquals(InstrumentStatus.CONTINUOUS, book.instrumentStatus());
+            assertEquals(1, book.bidBook().size());
+            assertEquals(-5L, book.bidBook().get(0).price());
+            assertEquals(1L, book.bidBook().get(0).size());
+            assertTrue(book.askBook().isEmpty());
+
+            final MarketDataRecord ask = (MarketDataRecord) provider.poll();
+            assertEquals(UpdateType.AskUpdate, ask.updateType());
+            assertEquals(7L, ask.instrumentId());
+            assertEquals(Venue.XPAR, ask.venue());
+            assertEquals(10_000, ask.askBook().size());
+            assertEquals(10_099L, ask.askBook().get(9_999).price());
+            assertTrue(ask.bidBook().isEmpty());
+
+            final MarketDataMessage bid = provider.poll();
+            assertEquals(UpdateType.BidUpdate, bid.updateType());
+            assertEquals(13L, bid.instrumentId());
+
+            assertNull(provider.poll());
+            assertEquals(3L, provider.getMessagesParsed());
+        }
+    }
+
+    @Test
+    public void testReportsTheLineItCouldntParse() throws Exception {
+        final File file = folder.newFile("marketdata.json");
+        Files.write(file.toPath(), "2,{\"instrumentId\":1,\"venue\":\"XLON\",\"bidBook\":[]}\n2,{\"instrumentId\":1,\"venue\":\"XNYS\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        try (StreamingFileMarketDataProvider provider = new StreamingFileMarketDataProvider(file.getPath())) {
+            assertNotNull(provider.poll());
+            provider.poll();
+            fail("Expected the unknown venue to be reported");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("line 2"));
+            assertTrue(e.getCause().getMessage().contains("XNYS"));
+        }
+    }
+}
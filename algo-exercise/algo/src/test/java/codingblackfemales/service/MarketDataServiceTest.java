@@ -0,0 +1,104 @@
+package codingblackfemales.service;
+
+import ch.qos.logback.classic.Level;
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.marketdata.BidLevel;
+import messages.marketdata.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MarketDataServiceTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+    private UnsafeBuffer createTick(final int bidLevels, final int askLevels, final long bestBid) {
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(2048));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        final BookUpdateEncoder.BidBookEncoder bids = encoder.bidBookCount(bidLevels);
+        for (int i = 0; i < bidLevels; i++) {
+            bids.next().price(bestBid - i).size(100L + i);
+        }
+
+        final BookUpdateEncoder.AskBookEncoder asks = encoder.askBookCount(askLevels);
+        for (int i = 0; i < askLevels; i++) {
+            asks.next().price(bestBid + 1 + i).size(200L + i);
+        }
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testBookDeeperThanMaxDepthIsTruncated() {
+        final MarketDataService service = new MarketDataService(new RunTrigger(), 5);
+
+        service.onMessage(createTick(20, 3, 100));
+
+        assertEquals(5, service.getBidLength());
+        assertEquals(3, service.getAskLength());
+        assertEquals(96, service.getBidPrice(4));
+        assertEquals(202, service.getAskQuantity(2));
+        assertEquals(101, service.getAskLevel(0).getPrice());
+        assertNull(service.getBidLevel(5));
+        assertNull(service.getAskLevel(3));
+    }
+
+    @Test
+    public void testLevelsAreReusedAndRefreshed() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+
+        service.onMessage(createTick(2, 2, 100));
+        final BidLevel touch = service.getBidLevel(0);
+        assertEquals(100, touch.price);
+
+        service.onMessage(createTick(1, 2, 90));
+        assertSame(touch, service.getBidLevel(0));
+        assertEquals(90, touch.price);
+        assertEquals(1, service.getBidLength());
+        assertNull(service.getBidLevel(1));
+    }
+
+    @Test
+    public void testIngestDoesNotAllocate() {
+        final ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(MarketDataService.class);
+        final Level level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+
+        try {
+            final MarketDataService service = new MarketDataService(new RunTrigger());
+            final UnsafeBuffer tick = createTick(10, 10, 100);
+
+            for (int i = 0; i < 20_000; i++) {
+                service.onMessage(tick);
+                service.getBidLevel(i % 10);
+            }
+
+            final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            final long threadId = Thread.currentThread().getId();
+            final long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < 100_000; i++) {
+                service.onMessage(tick);
+                service.getBidLevel(i % 10);
+            }
+
+            final long bytesAllocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+            assertTrue("allocated " + bytesAllocated + " bytes", bytesAllocated < 1024);
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+}
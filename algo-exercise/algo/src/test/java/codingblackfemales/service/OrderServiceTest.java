@@ -0,0 +1,140 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import messages.order.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class OrderServiceTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+
+    private final RunTrigger runTrigger = new RunTrigger();
+    private final OrderService orderService = new OrderService(runTrigger);
+
+    private DirectBuffer create(final long orderId, final long quantity, final long price) {
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .orderId(orderId).side(Side.BUY).price(price).quantity(quantity);
+        return buffer;
+    }
+
+    private DirectBuffer ack(final long orderId) {
+        new AckedOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+        return buffer;
+    }
+
+    private DirectBuffer cancelAck(final long orderId) {
+        new CancelAckedOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+        return buffer;
+    }
+
+    private DirectBuffer partialFill(final long orderId, final long quantity, final long price) {
+        new PartialFillOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId).quantity(quantity).price(price);
+        return buffer;
+    }
+
+    private DirectBuffer fill(final long orderId, final long quantity, final long price) {
+        new FillOrderEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId).quantity(quantity).price(price);
+        return buffer;
+    }
+
+    @Test
+    public void testExecutionReportsFindTheirChildById() {
+        for (long orderId = 1; orderId <= 5_000; orderId++) {
+            orderService.onMessage(create(orderId, 100, 10));
+        }
+
+        orderService.onMessage(ack(4_000));
+        orderService.onMessage(partialFill(4_000, 60, 10));
+        orderService.onMessage(cancelAck(17));
+
+        assertEquals(5_000, orderService.children().size());
+        assertEquals(1L, orderService.children().get(0).getOrderId());
+
+        final ChildOrder filled = orderService.find(4_000);
+        assertEquals(OrderState.ACKED, filled.getState());
+        assertEquals(60, filled.getFilledQuantity());
+        assertEquals(OrderState.CANCELLED, orderService.find(17).getState());
+        assertEquals(OrderState.PENDING, orderService.find(18).getState());
+    }
+
+    @Test
+    public void testUnknownOrderIdsAreIgnored() {
+        orderService.onMessage(create(1, 100, 10));
+
+        orderService.onMessage(ack(99));
+        orderService.onMessage(fill(99, 10, 10));
+        orderService.onMessage(cancelAck(99));
+
+        assertNull(orderService.find(99));
+        assertEquals(1, orderService.children().size());
+        assertEquals(OrderState.PENDING, orderService.find(1).getState());
+    }
+
+    @Test
+    public void testActiveAndTerminalChildrenFollowStateChanges() {
+        orderService.onMessage(create(1, 100, 10));
+        orderService.onMessage(create(2, 200, 10));
+        orderService.onMessage(create(3, 300, 10));
+
+        assertEquals(3, orderService.activeChildCount());
+        assertEquals(600, orderService.openQuantity());
+
+        orderService.onMessage(ack(2));
+        orderService.onMessage(partialFill(2, 50, 10));
+        assertEquals(550, orderService.openQuantity());
+
+        orderService.onMessage(cancelAck(1));
+        orderService.onMessage(cancelAck(2));
+
+        assertEquals(3, orderService.childCount());
+        assertEquals(1, orderService.activeChildCount());
+        assertEquals(3L, orderService.activeChildren().get(0).getOrderId());
+        assertEquals(2, orderService.terminalChildren().size());
+        assertEquals(300, orderService.openQuantity());
+
+        //fills on a cancelled child don't count towards the open quantity
+        orderService.onMessage(fill(1, 100, 10));
+        assertEquals(300, orderService.openQuantity());
+
+        //the views are live
+        final java.util.List<ChildOrder> active = orderService.activeChildren();
+        orderService.onMessage(cancelAck(3));
+        assertTrue(active.isEmpty());
+        assertEquals(0, orderService.openQuantity());
+    }
+
+    @Test
+    public void testFinalFillMakesTheChildFilled() {
+        orderService.onMessage(create(1, 100, 10));
+        orderService.onMessage(create(2, 200, 10));
+        orderService.onMessage(ack(1));
+
+        orderService.onMessage(partialFill(1, 40, 10));
+        assertEquals(OrderState.ACKED, orderService.find(1).getState());
+        assertEquals(260, orderService.openQuantity());
+
+        orderService.onMessage(fill(1, 60, 10));
+        final ChildOrder filled = orderService.find(1);
+        assertEquals(OrderState.FILLED, filled.getState());
+        assertEquals(100, filled.getFilledQuantity());
+        assertEquals(1, orderService.activeChildCount());
+        assertEquals(2L, orderService.activeChildren().get(0).getOrderId());
+        assertSame(filled, orderService.terminalChildren().get(0));
+        assertEquals(200, orderService.openQuantity());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewsAreReadOnly() {
+        orderService.onMessage(create(1, 100, 10));
+        orderService.activeChildren().clear();
+    }
+}
@@ -0,0 +1,48 @@
+package codingblackfemales.sotw;
+
+import messages.order.Side;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChildOrderTest {
+
+    @Test
+    public void testRunningFillTotals() {
+        final ChildOrder child = new ChildOrder(Side.BUY, 1, 300, 100, OrderState.ACKED);
+
+        assertEquals(0, child.getFilledQuantity());
+        assertEquals(0, child.getAverageFillPrice(), 0);
+        assertNull(child.getFillLog());
+
+        child.addFill(100, 100);
+        child.addFill(50, 97);
+
+        assertEquals(150, child.getFilledQuantity());
+        assertEquals(150, child.getRemainingQuantity());
+        assertEquals(100 * 100 + 50 * 97, child.getFilledNotional());
+        assertEquals(99.0, child.getAverageFillPrice(), 1e-9);
+        assertEquals(2, child.getFillCount());
+
+        child.addFill(200, 101);
+        assertEquals(0, child.getRemainingQuantity());
+    }
+
+    @Test
+    public void testFillLogKeepsEveryFill() {
+        final ChildOrder child = new ChildOrder(Side.SELL, 1, 1_000, 100, OrderState.ACKED, true);
+
+        for (int i = 1; i <= 10; i++) {
+            child.addFill(i, 100 + i);
+        }
+
+        final ChildFillLog log = child.getFillLog();
+        assertEquals(10, log.size());
+        assertEquals(1, log.getQuantity(0));
+        assertEquals(110, log.getPrice(9));
+
+        final long[] total = new long[1];
+        log.forEach((quantity, price) -> total[0] += quantity);
+        assertEquals(child.getFilledQuantity(), total[0]);
+    }
+}
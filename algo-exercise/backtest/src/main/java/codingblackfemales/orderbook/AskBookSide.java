@@ -8,7 +8,15 @@ public class AskBookSide extends OrderBookSide {
 
     private static final Logger logger = LoggerFactory.getLogger(AskBookSide.class);
 
-    private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor();
+    private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor(getPools());
+
+    public AskBookSide() {
+        super();
+    }
+
+    public AskBookSide(final OrderBookPools pools) {
+        super(pools);
+    }
 
 //    public void onBookUpdate(BookUpdateDecoder bookUpdate){
 //        removeMarketDataOrders();
@@ -25,12 +33,10 @@ public class AskBookSide extends OrderBookSide {
         return addOrderVisitor;
     }
 
-    boolean isBetweenLevels(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next != null && previous.getPrice() < price && next.getPrice() > price;
-    }
-
-    boolean isNewDeepestLevel(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next == null && previous.getPrice() < price;
+    @Override
+    long sortKey(long price){
+        //lowest price is the best ask
+        return price;
     }
 //
 //    public void addAskMarketDataOrders(AskBookUpdateDecoder askDecoder){
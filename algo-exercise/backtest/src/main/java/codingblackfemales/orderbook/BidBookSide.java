@@ -8,7 +8,15 @@ public class BidBookSide extends OrderBookSide{
 
     private static final Logger logger = LoggerFactory.getLogger(BidBookSide.class);
 
-    private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor();
+    private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor(getPools());
+
+    public BidBookSide() {
+        super();
+    }
+
+    public BidBookSide(final OrderBookPools pools) {
+        super(pools);
+    }
 
 //    public void onBidBook(BidBookUpdateDecoder bidBook) {
 //        removeMarketDataOrders();
@@ -25,12 +33,10 @@ public class BidBookSide extends OrderBookSide{
         return addOrderVisitor;
     }
 
-    boolean isBetweenLevels(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next != null && previous.getPrice() > price && next.getPrice() < price;
-    }
-
-    boolean isNewDeepestLevel(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next == null && previous.getPrice() > price;
+    @Override
+    long sortKey(long price){
+        //highest price is the best bid
+        return -price;
     }
 //
 //    void AddBidMarketDataOrders(BidBookUpdateDecoder bidDecoder){
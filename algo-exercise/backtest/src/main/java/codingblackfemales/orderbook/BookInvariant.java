@@ -0,0 +1,27 @@
+package codingblackfemales.orderbook;
+
+/**
+ * Something that should always be true of an {@link OrderBook} once it's done handling an event.
+ */
+public enum BookInvariant {
+
+    /**
+     * The best bid is at or above the best ask, the book would have matched them.
+     */
+    CROSSED_BOOK,
+
+    /**
+     * A level's quantity has gone below zero.
+     */
+    NEGATIVE_LEVEL_QUANTITY,
+
+    /**
+     * A level's quantity isn't the sum of the orders queued at it.
+     */
+    LEVEL_QUANTITY_MISMATCH,
+
+    /**
+     * One of our orders matched another of ours.
+     */
+    SELF_TRADE
+}
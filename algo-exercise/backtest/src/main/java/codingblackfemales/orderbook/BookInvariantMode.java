@@ -0,0 +1,22 @@
+package codingblackfemales.orderbook;
+
+/**
+ * What an {@link OrderBook} does about its {@link BookInvariant invariants}.
+ */
+public enum BookInvariantMode {
+
+    /**
+     * Nothing is tracked or checked, the default for replays that trust the book.
+     */
+    OFF,
+
+    /**
+     * Violations are counted (and the first of each kind logged), the book carries on.
+     */
+    COUNT,
+
+    /**
+     * The first violation throws an {@link IllegalStateException}.
+     */
+    FAIL_FAST
+}
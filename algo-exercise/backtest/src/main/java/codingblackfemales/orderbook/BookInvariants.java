@@ -0,0 +1,160 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * Checks the book's {@link BookInvariant invariants} as it changes, rather than scanning the whole book.
+ *
+ * While it's on the sides tell it about every level they change, which only marks the level. Once the outermost
+ * event on the book is done the marked levels are checked, along with the top of the book. Checking in between
+ * would catch the book half way through an update (e.g. bids moved up, asks not yet), and events nest because
+ * fills re-enter the book. When it's off the sides have nothing to tell and nothing is checked.
+ */
+final class BookInvariants {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookInvariants.class);
+
+    private static final BookInvariant[] INVARIANTS = BookInvariant.values();
+    private static final int INITIAL_CHANGED_LEVELS = 16;
+
+    private final OrderBookSide bidSide;
+    private final OrderBookSide askSide;
+
+    private BookInvariantMode mode = BookInvariantMode.OFF;
+
+    private final long[] violations = new long[INVARIANTS.length];
+
+    private OrderBookLevel[] changedLevels = new OrderBookLevel[INITIAL_CHANGED_LEVELS];
+    private int changedLevelCount = 0;
+
+    private int depth = 0;
+
+    BookInvariants(final OrderBookSide bidSide, final OrderBookSide askSide) {
+        this.bidSide = bidSide;
+        this.askSide = askSide;
+    }
+
+    BookInvariantMode getMode() {
+        return mode;
+    }
+
+    void setMode(final BookInvariantMode mode) {
+        this.mode = mode;
+        clearChangedLevels();
+        bidSide.setInvariants(mode == BookInvariantMode.OFF ? null : this);
+        askSide.setInvariants(mode == BookInvariantMode.OFF ? null : this);
+    }
+
+    long getViolations(final BookInvariant invariant) {
+        return violations[invariant.ordinal()];
+    }
+
+    long getViolations() {
+        long total = 0;
+        for (long count : violations) {
+            total += count;
+        }
+        return total;
+    }
+
+    void levelChanged(final OrderBookLevel level) {
+        if (level.isInvariantCheckPending()) {
+            return;
+        }
+        level.setInvariantCheckPending(true);
+        if (changedLevelCount == changedLevels.length) {
+            changedLevels = Arrays.copyOf(changedLevels, changedLevelCount * 2);
+        }
+        changedLevels[changedLevelCount++] = level;
+    }
+
+    void selfTrade(final LimitOrderFlyweight aggressor, final LimitOrderFlyweight resting) {
+        if (mode != BookInvariantMode.OFF) {
+            violation(BookInvariant.SELF_TRADE, aggressor + " matched " + resting);
+        }
+    }
+
+    void beginEvent() {
+        depth++;
+    }
+
+    void endEvent() {
+        if (--depth == 0 && mode != BookInvariantMode.OFF) {
+            checkChangedLevels();
+            checkTopOfBook();
+        }
+    }
+
+    /**
+     * Checks every level on the book, not just the ones that changed.
+     */
+    void checkAll() {
+        clearChangedLevels();
+        for (OrderBookLevel level = bidSide.getFirstLevel(); level != null; level = level.next()) {
+            checkLevel(level);
+        }
+        for (OrderBookLevel level = askSide.getFirstLevel(); level != null; level = level.next()) {
+            checkLevel(level);
+        }
+        checkTopOfBook();
+    }
+
+    private void checkChangedLevels() {
+        try {
+            for (int i = 0; i < changedLevelCount; i++) {
+                final OrderBookLevel level = changedLevels[i];
+                //a level that's been taken out of its side since it changed is back in the pool
+                if (level.getSide() != null) {
+                    checkLevel(level);
+                }
+            }
+        } finally {
+            //even after a fail fast violation, the levels are checked again when they next change
+            clearChangedLevels();
+        }
+    }
+
+    private void clearChangedLevels() {
+        for (int i = 0; i < changedLevelCount; i++) {
+            changedLevels[i].setInvariantCheckPending(false);
+            changedLevels[i] = null;
+        }
+        changedLevelCount = 0;
+    }
+
+    private void checkLevel(final OrderBookLevel level) {
+        if (level.getQuantity() < 0) {
+            violation(BookInvariant.NEGATIVE_LEVEL_QUANTITY, level);
+        }
+
+        long sum = 0;
+        for (DefaultOrderFlyweight order = level.getFirstOrder(); order != null; order = order.next()) {
+            sum += order.getQuantity();
+        }
+        if (sum != level.getQuantity()) {
+            violation(BookInvariant.LEVEL_QUANTITY_MISMATCH, level + " has orders for " + sum);
+        }
+    }
+
+    private void checkTopOfBook() {
+        final OrderBookLevel bestBid = bidSide.getFirstLevel();
+        final OrderBookLevel bestAsk = askSide.getFirstLevel();
+        if (bestBid != null && bestAsk != null && bestBid.getPrice() >= bestAsk.getPrice()) {
+            violation(BookInvariant.CROSSED_BOOK, "bid " + bestBid + " ask " + bestAsk);
+        }
+    }
+
+    private void violation(final BookInvariant invariant, final Object detail) {
+        if (violations[invariant.ordinal()]++ == 0 && mode == BookInvariantMode.COUNT) {
+            logger.warn("[ORDERBOOK] " + invariant + ": " + detail + " (further violations are only counted)");
+        }
+        if (mode == BookInvariantMode.FAIL_FAST) {
+            throw new IllegalStateException("[ORDERBOOK] " + invariant + ": " + detail);
+        }
+    }
+}
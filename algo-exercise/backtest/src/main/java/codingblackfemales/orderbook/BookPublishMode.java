@@ -0,0 +1,17 @@
+package codingblackfemales.orderbook;
+
+/**
+ * What an {@link OrderBook} publishes to the market data channel when our orders change it.
+ */
+public enum BookPublishMode {
+
+    /**
+     * Both sides as one book update, whichever side changed.
+     */
+    FULL_BOOK,
+
+    /**
+     * A bid or ask book update for each side that changed, the other side isn't encoded or sent.
+     */
+    CHANGED_SIDES
+}
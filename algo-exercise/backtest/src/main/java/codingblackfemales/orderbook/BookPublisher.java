@@ -0,0 +1,171 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.visitor.ReadOnlyMarketDataChannelPublishVisitor;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Publishes the book's sides to the market data channel once a cycle of changes to them is done.
+ *
+ * A cycle is a book event (an order, a cancel, a market data update) or anything wider the owner brackets with
+ * {@link #beginCycle()} and {@link #endCycle()}, cycles nest. Without conflation every cycle that changed a side
+ * publishes as it ends, with conflation only the outermost one does, so one snapshot covers every change made
+ * while it ran.
+ *
+ * Updates are encoded into preallocated buffers. Publishing dispatches synchronously and consumers can change the
+ * book (and publish) before it returns, so there's a buffer per level of nesting. A buffer grows when a book is
+ * deeper than it's seen before, the depth is only capped if the owner sets a max depth.
+ */
+final class BookPublisher {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final int INITIAL_DEPTH = 4;
+
+    private final MarketDataChannel marketDataChannel;
+    private final OrderBook book;
+    private final OrderBookSide bidSide;
+    private final OrderBookSide askSide;
+
+    private final ReadOnlyMarketDataChannelPublishVisitor visitor = new ReadOnlyMarketDataChannelPublishVisitor();
+
+    private UnsafeBuffer[] buffers = new UnsafeBuffer[INITIAL_DEPTH];
+    private int publishDepth = 0;
+
+    private BookPublishMode mode = BookPublishMode.FULL_BOOK;
+    private boolean conflate = false;
+
+    private int cycleDepth = 0;
+    private boolean bidChanged = false;
+    private boolean askChanged = false;
+
+    private long published = 0;
+
+    BookPublisher(final MarketDataChannel marketDataChannel, final OrderBook book) {
+        this.marketDataChannel = marketDataChannel;
+        this.book = book;
+        this.bidSide = book.getBidBookSide();
+        this.askSide = book.getAskBookSide();
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new UnsafeBuffer(ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE));
+        }
+    }
+
+    BookPublishMode getMode() {
+        return mode;
+    }
+
+    void setMode(final BookPublishMode mode) {
+        this.mode = mode;
+    }
+
+    boolean isConflating() {
+        return conflate;
+    }
+
+    void setConflate(final boolean conflate) {
+        this.conflate = conflate;
+    }
+
+    int getMaxDepth() {
+        return visitor.getMaxDepth();
+    }
+
+    void setMaxDepth(final int maxDepth) {
+        visitor.setMaxDepth(maxDepth);
+    }
+
+    /**
+     * @return how many updates have gone to the market data channel.
+     */
+    long getPublished() {
+        return published;
+    }
+
+    void changed(final OrderBookSide side) {
+        if (side == bidSide) {
+            bidChanged = true;
+        } else if (side == askSide) {
+            askChanged = true;
+        }
+    }
+
+    void beginCycle() {
+        cycleDepth++;
+    }
+
+    void endCycle() {
+        cycleDepth--;
+        if (conflate && cycleDepth > 0) {
+            return;
+        }
+        if (!bidChanged && !askChanged) {
+            return;
+        }
+
+        //clear first, whoever gets the update can change the book again
+        final boolean bid = bidChanged;
+        final boolean ask = askChanged;
+        bidChanged = false;
+        askChanged = false;
+
+        if (mode == BookPublishMode.CHANGED_SIDES) {
+            if (bid) {
+                publishSide(bidSide);
+            }
+            if (ask) {
+                publishSide(askSide);
+            }
+        } else {
+            publishBook();
+        }
+    }
+
+    MutableDirectBuffer encodeBook() {
+        visitor.start(buffer(visitor.bookLength(bidSide, askSide)), book.getInstrumentId(), book.getVenue());
+        visitor.visitSide(bidSide);
+        visitor.visitSide(askSide);
+        return visitor.end();
+    }
+
+    void publishBook() {
+        publish(encodeBook());
+    }
+
+    private void publishSide(final OrderBookSide side) {
+        visitor.startSide(buffer(visitor.sideLength(side)), side, book.getInstrumentId(), book.getVenue());
+        visitor.visitSide(side);
+        publish(visitor.end());
+    }
+
+    /**
+     * @return this nesting depth's buffer, at least length bytes long.
+     */
+    private UnsafeBuffer buffer(final int length) {
+        if (publishDepth == buffers.length) {
+            buffers = Arrays.copyOf(buffers, publishDepth * 2);
+            for (int i = publishDepth; i < buffers.length; i++) {
+                buffers[i] = new UnsafeBuffer(ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE));
+            }
+        }
+        UnsafeBuffer buffer = buffers[publishDepth];
+        if (buffer.capacity() < length) {
+            //only this depth's buffer is replaced, the shallower ones may still be being published
+            buffer = buffers[publishDepth] = new UnsafeBuffer(ByteBuffer.allocateDirect(Math.max(length, buffer.capacity() * 2)));
+        }
+        return buffer;
+    }
+
+    private void publish(final MutableDirectBuffer buffer) {
+        published++;
+        publishDepth++;
+        try {
+            marketDataChannel.publish(buffer);
+        } finally {
+            publishDepth--;
+        }
+    }
+}
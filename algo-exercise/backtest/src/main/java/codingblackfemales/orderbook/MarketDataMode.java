@@ -0,0 +1,20 @@
+package codingblackfemales.orderbook;
+
+/**
+ * How an {@link OrderBook} applies a market data update to the market data orders it already has on a side.
+ */
+public enum MarketDataMode {
+
+    /**
+     * Remove every market data order on the side and add the update's levels again, any of our orders at a
+     * level end up ahead of the market's volume there. The default.
+     */
+    REPLACE,
+
+    /**
+     * Diff the update against the market data orders on the side, only levels that are new, gone or have
+     * changed size are touched. Market data orders keep their place in the queue, and so do ours. Opt in with
+     * {@link OrderBook#setMarketDataMode(MarketDataMode)}.
+     */
+    RECONCILE
+}
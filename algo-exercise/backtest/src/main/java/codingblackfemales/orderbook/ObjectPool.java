@@ -0,0 +1,100 @@
+package codingblackfemales.orderbook;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A free list of reusable objects, topped up from a factory when it runs dry.
+ *
+ * Objects can go back straight away with {@link #release(Object)}, or with {@link #releaseLater(Object)} when
+ * something further up the stack may still be looking at them, those only become free again on {@link #recycle()}.
+ * Either way the reset hook runs before an object can be handed out again. Not thread safe.
+ */
+final class ObjectPool<T> {
+
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+
+    private Object[] free;
+    private int freeCount;
+
+    private Object[] released;
+    private int releasedCount;
+
+    private long created;
+
+    ObjectPool(final Supplier<T> factory, final Consumer<T> reset, final int initialSize) {
+        this.factory = factory;
+        this.reset = reset;
+        this.free = new Object[Math.max(initialSize, 1)];
+        this.released = new Object[Math.max(initialSize, 1)];
+
+        for (int i = 0; i < initialSize; i++) {
+            free[freeCount++] = newObject();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T acquire() {
+        if (freeCount == 0) {
+            return newObject();
+        }
+        final T item = (T) free[--freeCount];
+        free[freeCount] = null;
+        return item;
+    }
+
+    void release(final T item) {
+        reset.accept(item);
+        free = push(free, freeCount++, item);
+    }
+
+    void releaseLater(final T item) {
+        released = push(released, releasedCount++, item);
+    }
+
+    @SuppressWarnings("unchecked")
+    void recycle() {
+        for (int i = 0; i < releasedCount; i++) {
+            release((T) released[i]);
+            released[i] = null;
+        }
+        releasedCount = 0;
+    }
+
+    /**
+     * @return objects ready to be handed out.
+     */
+    int available() {
+        return freeCount;
+    }
+
+    /**
+     * @return objects released but waiting for {@link #recycle()}.
+     */
+    int pending() {
+        return releasedCount;
+    }
+
+    /**
+     * @return how many objects the factory has made, a count that keeps going up means the pool is too small
+     * or something isn't being released.
+     */
+    long created() {
+        return created;
+    }
+
+    private T newObject() {
+        created++;
+        return factory.get();
+    }
+
+    private static Object[] push(Object[] array, final int index, final Object item) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = item;
+        return array;
+    }
+}
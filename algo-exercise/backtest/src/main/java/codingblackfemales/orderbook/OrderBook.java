@@ -2,18 +2,18 @@ package codingblackfemales.orderbook;
 
 import codingblackfemales.orderbook.channel.MarketDataChannel;
 import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
-import codingblackfemales.orderbook.visitor.CancelOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingMatchOneMarketDataOrderVisitor;
-import codingblackfemales.orderbook.visitor.MutatingMatchOneOrderVisitor;
-import codingblackfemales.orderbook.visitor.ReadOnlyMarketDataChannelPublishVisitor;
 import codingblackfemales.sequencer.event.MarketDataEventListener;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
 import messages.marketdata.BookUpdateDecoder;
 import messages.marketdata.Source;
+import messages.marketdata.Venue;
 import messages.order.Side;
+import messages.order.TimeInForce;
 import org.agrona.MutableDirectBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,18 +22,187 @@ public class OrderBook extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderBook.class);
 
-    private final MarketDataChannel marketDataChannel;
     private final OrderChannel orderChannel;
 
+    private final OrderBookPools pools;
+
+    //venue is NULL_VAL until the book's given one, or takes it from its first market data update
+    private long instrumentId;
+    private Venue venue;
+
+    //matching can re-enter the book (fill -> algo -> new order), so there can be more than one visitor in use
+    private final ObjectPool<MutatingMatchOneMarketDataOrderVisitor> matchMarketDataOrderVisitors;
+
+    private final AskBookSide askBookSide;
+    private final BidBookSide bidBookSide;
+
+    private MarketDataMode marketDataMode = MarketDataMode.REPLACE;
+    private long marketDataUpdateId = 0;
+
+    private final PassiveFills passiveFills = new PassiveFills();
+    private boolean simulatePassiveFills = false;
+
+    private final BookPublisher publisher;
+    private final BookInvariants invariants;
+
     public OrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel) {
-        this.marketDataChannel = marketDataChannel;
+        this(marketDataChannel, orderChannel, new OrderBookPools());
+    }
+
+    public OrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel, final OrderBookPools pools) {
+        this(marketDataChannel, orderChannel, pools, 0L, Venue.NULL_VAL);
+    }
+
+    /**
+     * A book for one instrument on one venue, the updates it publishes are stamped with them.
+     */
+    public OrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel, final OrderBookPools pools,
+                     final long instrumentId, final Venue venue) {
+        this.instrumentId = instrumentId;
+        this.venue = venue;
         this.orderChannel = orderChannel;
+        this.pools = pools;
+        this.matchMarketDataOrderVisitors = new ObjectPool<>(() -> new MutatingMatchOneMarketDataOrderVisitor(orderChannel), visitor -> {}, 2);
+        this.askBookSide = new AskBookSide(pools);
+        this.bidBookSide = new BidBookSide(pools);
+        this.publisher = new BookPublisher(marketDataChannel, this);
+        this.invariants = new BookInvariants(bidBookSide, askBookSide);
+    }
+
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
+    public Venue getVenue() {
+        return venue;
     }
 
-    private ReadOnlyMarketDataChannelPublishVisitor mktDataVisitor = new ReadOnlyMarketDataChannelPublishVisitor();
+    /**
+     * A book that wasn't given an instrument takes the first one it sees market data for.
+     */
+    private void onInstrument(final long instrumentId, final Venue venue){
+        if(this.venue == Venue.NULL_VAL){
+            this.instrumentId = instrumentId;
+            this.venue = venue;
+        }
+    }
+
+    public OrderBookPools getPools() {
+        return pools;
+    }
+
+    public MarketDataMode getMarketDataMode() {
+        return marketDataMode;
+    }
+
+    public void setMarketDataMode(final MarketDataMode marketDataMode) {
+        this.marketDataMode = marketDataMode;
+    }
+
+    public boolean isSimulatingPassiveFills() {
+        return simulatePassiveFills;
+    }
+
+    /**
+     * When on our resting orders are filled as the market's volume ahead of them trades away, not just when an
+     * order crosses them. Off by default, as it counts the market's cancels ahead of us as trades. Needs {@link
+     * MarketDataMode#RECONCILE}, replacing the market data orders every update loses our place in the queue.
+     */
+    public void setSimulatePassiveFills(final boolean simulatePassiveFills) {
+        this.simulatePassiveFills = simulatePassiveFills;
+        this.askBookSide.setPassiveFills(simulatePassiveFills ? passiveFills : null);
+        this.bidBookSide.setPassiveFills(simulatePassiveFills ? passiveFills : null);
+    }
+
+    public BookPublishMode getBookPublishMode() {
+        return publisher.getMode();
+    }
 
-    private AskBookSide askBookSide = new AskBookSide();
-    private BidBookSide bidBookSide = new BidBookSide();
+    public void setBookPublishMode(final BookPublishMode bookPublishMode) {
+        publisher.setMode(bookPublishMode);
+    }
+
+    public boolean isConflatingBookUpdates() {
+        return publisher.isConflating();
+    }
+
+    /**
+     * When on, changes made while a cycle is running (see {@link #beginCycle()}) are published once, as the
+     * outermost cycle ends, rather than after every order and cancel. Off by default.
+     */
+    public void setConflateBookUpdates(final boolean conflateBookUpdates) {
+        publisher.setConflate(conflateBookUpdates);
+    }
+
+    public int getMaxPublishedDepth() {
+        return publisher.getMaxDepth();
+    }
+
+    /**
+     * Caps the levels published per side, the book itself keeps every level.
+     */
+    public void setMaxPublishedDepth(final int maxPublishedDepth) {
+        publisher.setMaxDepth(maxPublishedDepth);
+    }
+
+    /**
+     * @return how many book updates have been published.
+     */
+    public long getBookUpdatesPublished() {
+        return publisher.getPublished();
+    }
+
+    public BookInvariantMode getInvariantMode() {
+        return invariants.getMode();
+    }
+
+    /**
+     * Off by default. When on, the levels each event changes and the top of the book are checked once the event
+     * is done (see {@link BookInvariant}), which costs a little per change rather than a scan of the book.
+     */
+    public void setInvariantMode(final BookInvariantMode invariantMode) {
+        invariants.setMode(invariantMode);
+    }
+
+    /**
+     * @return how many times this invariant has been found broken since the book was created.
+     */
+    public long getInvariantViolations(final BookInvariant invariant) {
+        return invariants.getViolations(invariant);
+    }
+
+    public long getInvariantViolations() {
+        return invariants.getViolations();
+    }
+
+    /**
+     * Checks every level on the book now, whatever the invariant mode (other than off) and whatever has changed.
+     */
+    public void checkInvariants() {
+        if (invariants.getMode() != BookInvariantMode.OFF) {
+            invariants.checkAll();
+        }
+    }
+
+    /**
+     * Brackets a cycle wider than one book event, e.g. the whole dispatch of a sequenced message, so conflated
+     * book updates go out once it's done. Every event on the book is a cycle of its own too, and cycles nest.
+     */
+    public void beginCycle() {
+        publisher.beginCycle();
+    }
+
+    public void endCycle() {
+        publisher.endCycle();
+    }
+
+    /**
+     * @return a limit order from the book's pool, it goes back to the pool when it's filled, cancelled or
+     * doesn't rest.
+     */
+    public LimitOrderFlyweight newLimitOrder(final Side side, final long price, final long quantity, final long orderId) {
+        return pools.limitOrder(side, price, quantity, orderId);
+    }
 
     public AskBookSide getAskBookSide() {
         return askBookSide;
@@ -55,29 +224,94 @@ public class OrderBook extends MarketDataEventListener {
         return canMatch;
     }
 
+    private void beginEvent(){
+        pools.beginEvent();
+        invariants.beginEvent();
+        publisher.beginCycle();
+    }
+
+    /**
+     * Checks the book before what's changed is published, released objects are only reused once both are done.
+     */
+    private void endEvent(){
+        try {
+            invariants.endEvent();
+        } finally {
+            publisher.endCycle();
+            pools.endEvent();
+        }
+    }
+
     @Override
     public void onBookUpdate(BookUpdateDecoder bookUpdate) {
         //don't process updates from ourself.
         if(!bookUpdate.source().equals(Source.ORDERBOOK)){
-            logger.info("[ORDERBOOK] Processing Mkt Data Update");
-            getBidBookSide().removeMarketDataOrders();
-            addOrMatchBidMarketDataOrders(bookUpdate);
+            if(logger.isDebugEnabled()){
+                logger.debug("[ORDERBOOK] Processing Mkt Data Update");
+            }
+            onInstrument(bookUpdate.instrumentId(), bookUpdate.venue());
+            beginEvent();
+            try {
+                startMarketDataUpdate(getBidBookSide());
+                addOrMatchBidMarketDataOrders(bookUpdate);
+                endMarketDataUpdate(getBidBookSide());
 
-            getAskBookSide().removeMarketDataOrders();
-            addOrMatchAskMarketDataOrders(bookUpdate);
+                startMarketDataUpdate(getAskBookSide());
+                addOrMatchAskMarketDataOrders(bookUpdate);
+                endMarketDataUpdate(getAskBookSide());
+            } finally {
+                endEvent();
+            }
         }
     }
 
+    private void startMarketDataUpdate(final OrderBookSide bookSide){
+        if(marketDataMode == MarketDataMode.REPLACE){
+            bookSide.removeMarketDataOrders();
+        }else{
+            marketDataUpdateId++;
+            bookSide.startMarketDataUpdate();
+        }
+    }
+
+    private void endMarketDataUpdate(final OrderBookSide bookSide){
+        if(marketDataMode == MarketDataMode.RECONCILE){
+            bookSide.removeStaleMarketDataOrders(marketDataUpdateId);
+            publishPassiveFills();
+        }
+    }
+
+    private void publishPassiveFills(){
+        for(int i = 0; i < passiveFills.size(); i++){
+            final LimitOrderFlyweight limit = passiveFills.order(i);
+            if(logger.isDebugEnabled()){
+                logger.debug("[ORDERBOOK] Passive fill {}@{} for order: {}", passiveFills.quantity(i), passiveFills.price(i), limit);
+            }
+            orderChannel.publishFill(passiveFills.quantity(i), passiveFills.price(i), limit);
+        }
+        passiveFills.clear();
+    }
+
+    private void addMarketDataOrder(final OrderBookSide bookSide, final Side side, final long price, final long quantity){
+        if(marketDataMode == MarketDataMode.RECONCILE && bookSide.updateMarketDataOrder(price, quantity, marketDataUpdateId)){
+            return;
+        }
+        final MarketDataOrderFlyweight marketOrder = pools.marketDataOrder(side, price, quantity);
+        marketOrder.setUpdateId(marketDataUpdateId);
+        logger.debug("[ORDERBOOK] Adding order {}", marketOrder);
+        bookSide.addMarketDataOrder(marketOrder);
+    }
+
     private void addOrMatchAskMarketDataOrders(BookUpdateDecoder bookUpdateDecoder){
         for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.SELL, price)){
+                var marketOrder = pools.marketDataOrder(Side.SELL, price, quantity);
                 matchMarketDataOrder(marketOrder);
+                pools.release(marketOrder);
             }else{
-                getAskBookSide().addMarketDataOrder(marketOrder);
+                addMarketDataOrder(getAskBookSide(), Side.SELL, price, quantity);
             }
         }
     }
@@ -86,71 +320,143 @@ public class OrderBook extends MarketDataEventListener {
         for(AskBookUpdateDecoder.AskBookDecoder decoder : askBookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.SELL, price)){
+                var marketOrder = pools.marketDataOrder(Side.SELL, price, quantity);
                 matchMarketDataOrder(marketOrder);
+                pools.release(marketOrder);
             }else{
-                getAskBookSide().addMarketDataOrder(marketOrder);
+                addMarketDataOrder(getAskBookSide(), Side.SELL, price, quantity);
             }
         }
     }
 
-    private void addOrMatchBidMarketDataOrders(BidBookUpdateDecoder askBookUpdateDecoder){
-        for(BidBookUpdateDecoder.BidBookDecoder decoder : askBookUpdateDecoder.bidBook()) {
+    private void addOrMatchBidMarketDataOrders(BidBookUpdateDecoder bidBookUpdateDecoder){
+        for(BidBookUpdateDecoder.BidBookDecoder decoder : bidBookUpdateDecoder.bidBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.BUY, price)){
+                var marketOrder = pools.marketDataOrder(Side.BUY, price, quantity);
                 matchMarketDataOrder(marketOrder);
+                pools.release(marketOrder);
             }else{
-                getBidBookSide().addMarketDataOrder(marketOrder);
+                addMarketDataOrder(getBidBookSide(), Side.BUY, price, quantity);
             }
         }
     }
 
     private void addOrMatchBidMarketDataOrders(BookUpdateDecoder bookUpdateDecoder){
-        for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdateDecoder.askBook()) {
+        for(BookUpdateDecoder.BidBookDecoder decoder : bookUpdateDecoder.bidBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
             if(canMatch(Side.BUY, price)){
+                var marketOrder = pools.marketDataOrder(Side.BUY, price, quantity);
                 matchMarketDataOrder(marketOrder);
+                pools.release(marketOrder);
             }else{
-                getBidBookSide().addMarketDataOrder(marketOrder);
+                addMarketDataOrder(getBidBookSide(), Side.BUY, price, quantity);
             }
         }
     }
 
     @Override
     public void onAskBook(AskBookUpdateDecoder askBook) {
-        getAskBookSide().removeMarketDataOrders();
-        addOrMatchAskMarketDataOrders(askBook);
+        //don't process updates from ourself.
+        if(askBook.sourceRaw() == Source.ORDERBOOK.value()){
+            return;
+        }
+        onInstrument(askBook.instrumentId(), askBook.venue());
+        beginEvent();
+        try {
+            startMarketDataUpdate(getAskBookSide());
+            addOrMatchAskMarketDataOrders(askBook);
+            endMarketDataUpdate(getAskBookSide());
+        } finally {
+            endEvent();
+        }
     }
 
     @Override
     public void onBidBook(BidBookUpdateDecoder bidBook) {
-        getBidBookSide().removeMarketDataOrders();
-        addOrMatchBidMarketDataOrders(bidBook);
+        //don't process updates from ourself.
+        if(bidBook.sourceRaw() == Source.ORDERBOOK.value()){
+            return;
+        }
+        onInstrument(bidBook.instrumentId(), bidBook.venue());
+        beginEvent();
+        try {
+            startMarketDataUpdate(getBidBookSide());
+            addOrMatchBidMarketDataOrders(bidBook);
+            endMarketDataUpdate(getBidBookSide());
+        } finally {
+            endEvent();
+        }
     }
 
-    public void matchOrder(final LimitOrderFlyweight limit) {
-        final MutatingMatchOneOrderVisitor visitor = new MutatingMatchOneOrderVisitor(limit, orderChannel);
-        if(limit.getSide().equals(Side.BUY)){
-            getAskBookSide().accept(visitor);
-        }else if(limit.getSide().equals(Side.SELL)){
-            getBidBookSide().accept(visitor);
+    /**
+     * Fills an order against the opposite side, for as long as it's at or better than the order's limit.
+     *
+     * @return the quantity left unfilled, the order's quantity is updated as it fills.
+     */
+    public long matchOrder(final LimitOrderFlyweight limit) {
+        return sweep(limit, limit.getSide().equals(Side.BUY) ? getAskBookSide() : getBidBookSide());
+    }
+
+    /**
+     * One pass over the side's levels, best first, filling the order from each level's queue in turn. Fills go out
+     * as each resting order is hit and whoever gets them can change the book before we carry on, so the next order
+     * to hit is always taken from the front of the side rather than remembered.
+     */
+    private long sweep(final LimitOrderFlyweight limit, final OrderBookSide side){
+        long remaining = limit.getQuantity();
+        OrderBookLevel level = side.getFirstLevel();
+
+        while(remaining > 0 && level != null && (limit.isMarket() || side.isAtOrBetter(level.getPrice(), limit.getPrice()))){
+            final DefaultOrderFlyweight resting = level.getFirstOrder();
+            final long price = level.getPrice();
+            final long fillQuantity = resting == null ? 0 : Math.min(remaining, resting.getQuantity());
+
+            if(resting instanceof LimitOrderFlyweight){
+                invariants.selfTrade(limit, (LimitOrderFlyweight) resting);
+            }
+            if(resting != null){
+                if(fillQuantity == resting.getQuantity()){
+                    level.removeOrder(resting);
+                    resting.setQuantity(0);
+                }else{
+                    resting.setQuantity(resting.getQuantity() - fillQuantity);
+                }
+                level.setQuantity(level.getQuantity() - fillQuantity);
+            }
+            if(level.getFirstOrder() == null){
+                side.removeLevel(level);
+            }
+
+            if(fillQuantity > 0){
+                remaining -= fillQuantity;
+                limit.setQuantity(remaining);
+                if(logger.isDebugEnabled()){
+                    logger.debug("[ORDERBOOK] Filled {}@{} for order: {} against {}", fillQuantity, price, limit, resting);
+                }
+                orderChannel.publishFill(fillQuantity, price, limit);
+                if(resting instanceof LimitOrderFlyweight){
+                    orderChannel.publishFill(fillQuantity, price, (LimitOrderFlyweight) resting);
+                }
+            }
+            level = side.getFirstLevel();
         }
+        return remaining;
     }
 
     public void matchMarketDataOrder(final MarketDataOrderFlyweight market) {
-        final MutatingMatchOneMarketDataOrderVisitor visitor = new MutatingMatchOneMarketDataOrderVisitor(market, orderChannel);
-        if(market.getSide().equals(Side.BUY)){
-            getAskBookSide().accept(visitor);
-        }else if(market.getSide().equals(Side.SELL)){
-            getBidBookSide().accept(visitor);
+        final MutatingMatchOneMarketDataOrderVisitor visitor = matchMarketDataOrderVisitors.acquire().reset(market);
+        try {
+            if(market.getSide().equals(Side.BUY)){
+                getAskBookSide().accept(visitor);
+            }else if(market.getSide().equals(Side.SELL)){
+                getBidBookSide().accept(visitor);
+            }
+        } finally {
+            matchMarketDataOrderVisitors.release(visitor);
         }
     }
 
@@ -164,34 +470,105 @@ public class OrderBook extends MarketDataEventListener {
         }
     }
 
+    /**
+     * Matches, rests or cancels an order by its type and time in force:
+     * a day limit order matches what it can and rests the rest, IOC and market orders match what they can and
+     * the rest is cancelled, a FOK order matches in full or not at all, and a post-only order that would match
+     * is cancelled instead. Every order is acked, what's cancelled is cancel acked after any fills.
+     */
     public void onLimitOrder(final LimitOrderFlyweight limit) {
-        if(canMatch(limit.getSide(), limit.getPrice())){
-            matchOrder(limit);
-        }else{
-            addLiquidity(limit);
+        beginEvent();
+        try {
+            final boolean isBuy = limit.getSide().equals(Side.BUY);
+            final OrderBookSide ownSide = isBuy ? getBidBookSide() : getAskBookSide();
+            final OrderBookSide oppositeSide = isBuy ? getAskBookSide() : getBidBookSide();
+            final boolean crosses = limit.isMarket() ? oppositeSide.getFirstLevel() != null : canMatch(limit.getSide(), limit.getPrice());
+
+            //acks go out before fills, but after a passive order is on the book so a cancel sent on the ack finds it
+            if(!crosses && limit.canRest()){
+                addLiquidity(limit);
+                publisher.changed(ownSide);
+                orderChannel.publishAck(limit.getOrderId());
+                return;
+            }
+
+            orderChannel.publishAck(limit.getOrderId());
+
+            if(!crosses){
+                logger.info("[ORDERBOOK] Nothing to match order:" + limit);
+            }else if(limit.isPostOnly()){
+                logger.info("[ORDERBOOK] Post only order would take liquidity:" + limit);
+            }else if(limit.getTimeInForce() == TimeInForce.FOK
+                    && oppositeSide.fillableQuantity(limit.getQuantity(), limit.getPrice(), limit.isMarket()) < limit.getQuantity()){
+                logger.info("[ORDERBOOK] Can't fill FOK order in full:" + limit);
+            }else{
+                sweep(limit, oppositeSide);
+                publisher.changed(oppositeSide);
+            }
+
+            if(limit.getQuantity() == 0){
+                pools.release(limit);
+            }else if(limit.canRest() && !limit.isPostOnly() && !canMatch(limit.getSide(), limit.getPrice())){
+                //what's left of a day order rests, unless whoever got the fills put something it'd match in the way
+                addLiquidity(limit);
+                publisher.changed(ownSide);
+            }else{
+                logger.info("[ORDERBOOK] Cancelling unfilled " + limit.getQuantity() + " of order:" + limit);
+                orderChannel.publishCancelAck(limit.getOrderId());
+                pools.release(limit);
+            }
+        } finally {
+            endEvent();
         }
+    }
 
-        publishBook();
+    /**
+     * @return our limit order with this id if it's resting on either side of the book, or null.
+     */
+    public LimitOrderFlyweight getRestingOrder(final long orderId){
+        final LimitOrderFlyweight ask = getAskBookSide().getLimitOrder(orderId);
+        return ask != null ? ask : getBidBookSide().getLimitOrder(orderId);
     }
 
     public void onCancelOrder(final long orderIdToCancel){
-        logger.info("[ORDERBOOK] Cancelling order (id=:" + orderIdToCancel + ")");
-        var cancelVisitor = new CancelOrderVisitor(orderIdToCancel);
-        getAskBookSide().accept(cancelVisitor);
-        getBidBookSide().accept(cancelVisitor);
-        publishBook();
+        beginEvent();
+        try {
+            final LimitOrderFlyweight limit = getRestingOrder(orderIdToCancel);
+
+            if(limit == null){
+                logger.info("[ORDERBOOK] Can't cancel order (id=" + orderIdToCancel + "), it's not resting on the book");
+            }else{
+                logger.info("[ORDERBOOK] Cancelling order: " + limit);
+                publisher.changed(limit.getLevel().getSide());
+                removeRestingOrder(limit);
+                orderChannel.publishCancelAck(orderIdToCancel);
+            }
+        } finally {
+            endEvent();
+        }
+    }
+
+    private void removeRestingOrder(final LimitOrderFlyweight limit){
+        final OrderBookLevel level = limit.getLevel();
+        level.removeOrder(limit);
+        level.setQuantity(level.getQuantity() - limit.getQuantity());
+        if(level.getFirstOrder() == null){
+            level.remove();
+        }
     }
 
 
+    /**
+     * Publishes both sides now, whatever the publish mode and whether or not anything has changed.
+     */
     public void publishBook(){
-        final var messageBuffer = getBookUpdateMessage();
-        marketDataChannel.publish(messageBuffer);
+        publisher.publishBook();
     }
 
+    /**
+     * @return both sides encoded as a book update, in a buffer that's reused by the next update.
+     */
     public MutableDirectBuffer getBookUpdateMessage(){
-        mktDataVisitor.start();
-        getBidBookSide().accept(mktDataVisitor);
-        getAskBookSide().accept(mktDataVisitor);
-        return mktDataVisitor.end();
+        return publisher.encodeBook();
     }
 }
@@ -2,9 +2,21 @@ package codingblackfemales.orderbook;
 
 import codingblackfemales.collection.intrusive.IntrusiveLinkedListNode;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
 import codingblackfemales.orderbook.visitor.OrderBookVisitor;
 
+/**
+ * A price level, and a node in its side's list of levels.
+ *
+ * The level also models where our limit orders are in its queue. An order joins behind the market's volume
+ * that's already here, and size reductions in the market data at this price are taken as volume trading away
+ * from the front of the queue (see {@link #onMarketVolumeReduced(long, PassiveFills)}).
+ *
+ * Once a level is in an {@link OrderBookSide} the side's price index owns the list: first, last, size, add and
+ * remove go through the side so they don't have to walk (or re-point) every level. A level on its own behaves as
+ * a plain {@link IntrusiveLinkedListNode}.
+ */
 public class OrderBookLevel extends IntrusiveLinkedListNode<OrderBookLevel> {
 
     private long price;
@@ -12,6 +24,13 @@ public class OrderBookLevel extends IntrusiveLinkedListNode<OrderBookLevel> {
 
     private DefaultOrderFlyweight firstOrder;
 
+    //the market's volume at this level, the feed only ever gives us one order per price
+    private MarketDataOrderFlyweight marketDataOrder;
+
+    private OrderBookSide side;
+
+    //changed since the book's invariants were last checked
+    private boolean invariantCheckPending;
 
     public OrderBookLevel() {
         super();
@@ -31,6 +50,21 @@ public class OrderBookLevel extends IntrusiveLinkedListNode<OrderBookLevel> {
 
     public void setQuantity(long quantity) {
         this.quantity = quantity;
+        changed();
+    }
+
+    private void changed() {
+        if (side != null) {
+            side.onLevelChanged(this);
+        }
+    }
+
+    boolean isInvariantCheckPending() {
+        return invariantCheckPending;
+    }
+
+    void setInvariantCheckPending(final boolean invariantCheckPending) {
+        this.invariantCheckPending = invariantCheckPending;
     }
 
     public void setFirstOrder(final DefaultOrderFlyweight order){
@@ -41,14 +75,174 @@ public class OrderBookLevel extends IntrusiveLinkedListNode<OrderBookLevel> {
         return this.firstOrder;
     }
 
+    /**
+     * @return the market data order queued at this level, or null if there's only our own orders.
+     */
+    public MarketDataOrderFlyweight getMarketDataOrder(){
+        return this.marketDataOrder;
+    }
+
+    /**
+     * Adds an order to the back of the queue at this level.
+     */
+    public void addOrder(final DefaultOrderFlyweight order){
+        if (firstOrder == null) {
+            firstOrder = order;
+        } else {
+            firstOrder.add(order);
+        }
+        if (order instanceof LimitOrderFlyweight) {
+            ((LimitOrderFlyweight) order).setVolumeAhead(marketDataOrder != null ? marketDataOrder.getQuantity() : 0);
+        }
+        quantity += order.getQuantity();
+        changed();
+        order.setLevel(this);
+        if (marketDataOrder == null && order instanceof MarketDataOrderFlyweight) {
+            marketDataOrder = (MarketDataOrderFlyweight) order;
+        }
+        if (side != null) {
+            side.onOrderAdded(order);
+        }
+    }
+
+    /**
+     * Unlinks an order from the queue at this level, without walking the queue. Adjusting the level's quantity
+     * is left to the caller, fills and cancels take different amounts off.
+     */
+    public void removeOrder(final DefaultOrderFlyweight order){
+        this.firstOrder = order.remove();
+        order.setLevel(null);
+        if (order == marketDataOrder) {
+            marketDataOrder = null;
+        }
+        if (side != null) {
+            side.onOrderRemoved(order);
+        }
+    }
+
+    /**
+     * The market's volume at this level has gone down. The reduction comes off the volume ahead of each of our
+     * orders first, whatever is left over has traded through our place in the queue and fills us. The feed can't
+     * tell a trade from a cancel so this is optimistic, cancels ahead of us are counted as trades.
+     *
+     * Filled orders are taken off the level and added to the fills, the caller publishes them.
+     */
+    void onMarketVolumeReduced(final long reduction, final PassiveFills fills) {
+        DefaultOrderFlyweight order = firstOrder;
+        while (order != null) {
+            final DefaultOrderFlyweight next = order.next();
+            if (order instanceof LimitOrderFlyweight) {
+                final LimitOrderFlyweight limit = (LimitOrderFlyweight) order;
+                final long ahead = limit.getVolumeAhead();
+                final long fillQuantity = Math.min(limit.getQuantity(), Math.max(0, reduction - ahead));
+
+                limit.setVolumeAhead(Math.max(0, ahead - reduction));
+
+                if (fillQuantity > 0) {
+                    fills.add(limit, fillQuantity, price);
+                    quantity -= fillQuantity;
+                    changed();
+                    if (fillQuantity == limit.getQuantity()) {
+                        removeOrder(limit);
+                        limit.setQuantity(0);
+                    } else {
+                        limit.setQuantity(limit.getQuantity() - fillQuantity);
+                    }
+                }
+            }
+            order = next;
+        }
+    }
+
+    /**
+     * @return the side this level is in, or null if it's not in one.
+     */
+    public OrderBookSide getSide() {
+        return side;
+    }
+
+    void linkInto(final OrderBookSide side, final OrderBookLevel previous, final OrderBookLevel next) {
+        this.side = side;
+        this.previous = previous;
+        this.next = next;
+        if (previous != null) {
+            previous.next = this;
+        }
+        if (next != null) {
+            next.previous = this;
+        }
+    }
+
+    /**
+     * Clears the level so it can be re-used from a pool.
+     */
+    void reset() {
+        unlink();
+        this.price = 0;
+        this.quantity = 0;
+        this.firstOrder = null;
+        this.marketDataOrder = null;
+        this.invariantCheckPending = false;
+    }
+
+    void unlink() {
+        if (previous != null) {
+            previous.next = next;
+        }
+        if (next != null) {
+            next.previous = previous;
+        }
+        this.side = null;
+        this.previous = null;
+        this.next = null;
+        this.first = this;
+        this.last = this;
+        this.size = 1;
+    }
+
+    @Override
+    public OrderBookLevel first() {
+        return side != null ? side.getFirstLevel() : super.first();
+    }
+
+    @Override
+    public OrderBookLevel last() {
+        return side != null ? side.getLastLevel() : super.last();
+    }
+
+    @Override
+    public int size() {
+        return side != null ? side.getLevelCount() : super.size();
+    }
+
+    @Override
+    public IntrusiveLinkedListNode<OrderBookLevel> add(final OrderBookLevel item) {
+        if (side != null) {
+            side.addLevel(item);
+            return side.getFirstLevel();
+        }
+        return super.add(item);
+    }
+
+    /**
+     * @return the new first level of the side (or list) this level was in.
+     */
+    @Override
+    public OrderBookLevel remove() {
+        if (side != null) {
+            return side.removeLevel(this);
+        }
+        return super.remove();
+    }
+
     public void removeMarketDataOrder(){
         var order = this.firstOrder;
         while(order != null){
+            final DefaultOrderFlyweight next = order.next();
             if(order instanceof MarketDataOrderFlyweight){
-                var marketDataOrder = (MarketDataOrderFlyweight) order;
-                this.firstOrder = marketDataOrder.remove();
+                removeOrder(order);
             }
-            order = order.next();
+            order = next;
         }
     }
 
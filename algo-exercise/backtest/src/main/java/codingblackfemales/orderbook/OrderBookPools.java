@@ -0,0 +1,100 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import messages.order.Side;
+
+/**
+ * The pools an {@link OrderBook} takes its order flyweights and levels from, so a long backtest re-uses the same
+ * few objects tick after tick rather than allocating new ones.
+ *
+ * Orders and levels that leave the book are released here, but they're only handed out again once the outermost
+ * book event has finished (see {@link #beginEvent()} and {@link #endEvent()}). Fills are published to the
+ * sequencer while the book is mid-match and the book can be re-entered from there, so an order that's just been
+ * removed may still be on someone's stack.
+ */
+public class OrderBookPools {
+
+    public static final int DEFAULT_ORDERS = 256;
+    public static final int DEFAULT_LEVELS = 64;
+
+    private final ObjectPool<MarketDataOrderFlyweight> marketDataOrders;
+    private final ObjectPool<LimitOrderFlyweight> limitOrders;
+    private final ObjectPool<OrderBookLevel> levels;
+
+    private int depth = 0;
+
+    public OrderBookPools() {
+        this(DEFAULT_ORDERS, DEFAULT_LEVELS);
+    }
+
+    public OrderBookPools(final int orders, final int levels) {
+        this.marketDataOrders = new ObjectPool<>(MarketDataOrderFlyweight::new, DefaultOrderFlyweight::reset, orders);
+        this.limitOrders = new ObjectPool<>(LimitOrderFlyweight::new, DefaultOrderFlyweight::reset, orders);
+        this.levels = new ObjectPool<>(OrderBookLevel::new, OrderBookLevel::reset, levels);
+    }
+
+    public MarketDataOrderFlyweight marketDataOrder(final Side side, final long price, final long quantity) {
+        return marketDataOrders.acquire().init(side, price, quantity);
+    }
+
+    public LimitOrderFlyweight limitOrder(final Side side, final long price, final long quantity, final long orderId) {
+        return limitOrders.acquire().init(side, price, quantity, orderId);
+    }
+
+    public OrderBookLevel level(final long price) {
+        final OrderBookLevel level = levels.acquire();
+        level.setPrice(price);
+        return level;
+    }
+
+    /**
+     * Hands back an order that has been removed from the book, filled, or was never going to rest.
+     */
+    public void release(final DefaultOrderFlyweight order) {
+        if (order instanceof LimitOrderFlyweight) {
+            limitOrders.releaseLater((LimitOrderFlyweight) order);
+        } else if (order instanceof MarketDataOrderFlyweight) {
+            marketDataOrders.releaseLater((MarketDataOrderFlyweight) order);
+        }
+    }
+
+    public void release(final OrderBookLevel level) {
+        levels.releaseLater(level);
+    }
+
+    public void beginEvent() {
+        depth++;
+    }
+
+    /**
+     * Once the outermost event is done nothing can still be looking at a released object, so they can be reused.
+     */
+    public void endEvent() {
+        if (--depth == 0) {
+            recycle();
+        }
+    }
+
+    public void recycle() {
+        marketDataOrders.recycle();
+        limitOrders.recycle();
+        levels.recycle();
+    }
+
+    public long getOrdersCreated() {
+        return marketDataOrders.created() + limitOrders.created();
+    }
+
+    public long getLevelsCreated() {
+        return levels.created();
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBookPools(marketDataOrders=" + marketDataOrders.available() + "/" + marketDataOrders.created() +
+                ",limitOrders=" + limitOrders.available() + "/" + limitOrders.created() +
+                ",levels=" + levels.available() + "/" + levels.created() + ")";
+    }
+}
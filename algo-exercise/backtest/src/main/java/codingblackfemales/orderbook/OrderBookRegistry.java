@@ -0,0 +1,288 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.Map;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.event.EventListener;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.Venue;
+import messages.order.CancelAckedOrderDecoder;
+import messages.order.CancelOrderDecoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.ExecInst;
+import messages.order.FillOrderDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Routes market data and orders to an {@link OrderBook} per (instrument, venue), so one backtest can trade a
+ * basket of instruments. Books are created the first time market data or an order for them turns up.
+ *
+ * A registry can own every instrument, or be one shard of several that split the instruments between them by
+ * {@link #shardOf(long, int)}. Each shard only touches the books it owns and keeps its own channels, so shards
+ * can run on threads of their own, e.g. a consumer each on an {@link codingblackfemales.sequencer.net.AsyncNetwork}
+ * with a {@link codingblackfemales.sequencer.ConcurrentSequencer} taking what the books publish. Every shard
+ * sees every message and ignores the instruments it doesn't own.
+ *
+ * Cancels only carry an order id, so the registry remembers which book each of its resting orders is on.
+ */
+public class OrderBookRegistry extends EventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBookRegistry.class);
+
+    private static final Venue[] VENUES = Venue.values();
+    private static final int EXPECTED_BOOKS = 64;
+    private static final int EXPECTED_ORDERS = 1024;
+
+    private final int shard;
+    private final int shardCount;
+
+    private final MarketDataChannel marketDataChannel;
+    private final OrderChannel orderChannel;
+
+    //books by instrument id, one map per venue indexed by the venue's value
+    private final LongToObjMap<OrderBook>[] booksByVenue;
+    private final List<OrderBook> books = new ArrayList<>();
+    private final List<OrderBook> booksView = Collections.unmodifiableList(books);
+
+    private final LongToObjMap<OrderBook> booksByOrderId = Map.longToObjMap(EXPECTED_ORDERS);
+
+    private Consumer<OrderBook> bookConfigurer = book -> {};
+
+    //messages for our instruments that had no venue we know
+    private long unroutedMessageCount = 0;
+
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdate = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdate = new BidBookUpdateDecoder();
+    private final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+    private final CancelOrderDecoder cancelOrder = new CancelOrderDecoder();
+    private final CancelAckedOrderDecoder cancelAckedOrder = new CancelAckedOrderDecoder();
+    private final FillOrderDecoder fillOrder = new FillOrderDecoder();
+
+    public OrderBookRegistry(final Sequencer sequencer) {
+        this(sequencer, 0, 1);
+    }
+
+    /**
+     * @param shard which of the shardCount shards this is, it owns the instruments {@link #shardOf(long, int)} maps to it.
+     */
+    @SuppressWarnings("unchecked")
+    public OrderBookRegistry(final Sequencer sequencer, final int shard, final int shardCount) {
+        if (shardCount <= 0 || shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Shard " + shard + " of " + shardCount + " is out of range");
+        }
+
+        this.shard = shard;
+        this.shardCount = shardCount;
+        this.marketDataChannel = new MarketDataChannel(sequencer);
+        this.orderChannel = new OrderChannel(sequencer);
+
+        int maxVenue = 0;
+        for (Venue venue : VENUES) {
+            maxVenue = Math.max(maxVenue, venue.value());
+        }
+        this.booksByVenue = new LongToObjMap[maxVenue + 1];
+
+        on(BookUpdateDecoder.SCHEMA_ID, BookUpdateDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            bookUpdate.wrap(buffer, offset, actingBlockLength, actingVersion);
+            final OrderBook book = ownedBook(bookUpdate.instrumentId(), bookUpdate.venueRaw());
+            if (book != null) {
+                book.onBookUpdate(bookUpdate);
+            }
+        });
+        on(AskBookUpdateDecoder.SCHEMA_ID, AskBookUpdateDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            askBookUpdate.wrap(buffer, offset, actingBlockLength, actingVersion);
+            final OrderBook book = ownedBook(askBookUpdate.instrumentId(), askBookUpdate.venueRaw());
+            if (book != null) {
+                book.onAskBook(askBookUpdate);
+            }
+        });
+        on(BidBookUpdateDecoder.SCHEMA_ID, BidBookUpdateDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            bidBookUpdate.wrap(buffer, offset, actingBlockLength, actingVersion);
+            final OrderBook book = ownedBook(bidBookUpdate.instrumentId(), bidBookUpdate.venueRaw());
+            if (book != null) {
+                book.onBidBook(bidBookUpdate);
+            }
+        });
+        on(CreateOrderDecoder.SCHEMA_ID, CreateOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            createOrder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onCreateOrder(createOrder);
+        });
+        on(CancelOrderDecoder.SCHEMA_ID, CancelOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            cancelOrder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onCancelOrder(cancelOrder.orderId());
+        });
+        //once an order's done there's nothing left to cancel
+        on(CancelAckedOrderDecoder.SCHEMA_ID, CancelAckedOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            cancelAckedOrder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            booksByOrderId.remove(cancelAckedOrder.orderId());
+        });
+        on(FillOrderDecoder.SCHEMA_ID, FillOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            fillOrder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            booksByOrderId.remove(fillOrder.orderId());
+        });
+    }
+
+    /**
+     * @return the shard, of shardCount, that owns this instrument.
+     */
+    public static int shardOf(final long instrumentId, final int shardCount) {
+        return (int) Long.remainderUnsigned(instrumentId, shardCount);
+    }
+
+    /**
+     * @return shardCount registries that between them own every instrument, each one ready to run on its own thread.
+     */
+    public static OrderBookRegistry[] shards(final Sequencer sequencer, final int shardCount) {
+        final OrderBookRegistry[] shards = new OrderBookRegistry[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new OrderBookRegistry(sequencer, i, shardCount);
+        }
+        return shards;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean owns(final long instrumentId) {
+        return shardOf(instrumentId, shardCount) == shard;
+    }
+
+    /**
+     * Runs on every book as it's created, before it sees any market data or orders (e.g. to set its publish mode).
+     */
+    public void setBookConfigurer(final Consumer<OrderBook> bookConfigurer) {
+        this.bookConfigurer = bookConfigurer;
+    }
+
+    /**
+     * @return the book for this instrument on this venue, or null if there isn't one (yet).
+     */
+    public OrderBook getBook(final long instrumentId, final Venue venue) {
+        final LongToObjMap<OrderBook> books = venue == Venue.NULL_VAL ? null : booksByVenue[venue.value()];
+        return books == null ? null : books.get(instrumentId);
+    }
+
+    /**
+     * @return every book this registry has created, in the order they were created.
+     */
+    public List<OrderBook> getBooks() {
+        return booksView;
+    }
+
+    public int getBookCount() {
+        return books.size();
+    }
+
+    /**
+     * @return how many messages for this registry's instruments were dropped for having no known venue.
+     */
+    public long getUnroutedMessageCount() {
+        return unroutedMessageCount;
+    }
+
+    private OrderBook ownedBook(final long instrumentId, final int venueValue) {
+        if (!owns(instrumentId)) {
+            return null;
+        }
+
+        final Venue venue = venue(venueValue);
+        if (venue == Venue.NULL_VAL) {
+            //warn about the first one, a feed that doesn't set the venue would otherwise log every message
+            if (unroutedMessageCount++ == 0) {
+                logger.warn("[ORDERBOOK] Ignoring message for instrument {} with no known venue ({}), further ones are logged at debug", instrumentId, venueValue);
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("[ORDERBOOK] Ignoring message for instrument {} with no known venue ({})", instrumentId, venueValue);
+            }
+            return null;
+        }
+
+        LongToObjMap<OrderBook> books = booksByVenue[venue.value()];
+        if (books == null) {
+            books = Map.longToObjMap(EXPECTED_BOOKS);
+            booksByVenue[venue.value()] = books;
+        }
+
+        OrderBook book = books.get(instrumentId);
+        if (book == null) {
+            book = new OrderBook(marketDataChannel, orderChannel, new OrderBookPools(), instrumentId, venue);
+            bookConfigurer.accept(book);
+            books.put(instrumentId, book);
+            this.books.add(book);
+            logger.info("[ORDERBOOK] Created book for instrument " + instrumentId + " on " + venue);
+        }
+        return book;
+    }
+
+    /**
+     * @return the venue with this value, or NULL_VAL for a message that didn't set one or set one we don't know.
+     */
+    private static Venue venue(final int value) {
+        try {
+            return Venue.get(value);
+        } catch (IllegalArgumentException e) {
+            return Venue.NULL_VAL;
+        }
+    }
+
+    private void onCreateOrder(final CreateOrderDecoder create) {
+        final OrderBook book = ownedBook(create.instrumentId(), create.venueRaw());
+        if (book == null) {
+            return;
+        }
+
+        final long orderId = create.orderId();
+        final LimitOrderFlyweight limit = book.newLimitOrder(create.side(), create.price(), create.quantity(), orderId)
+                .instructions(create.ordType(), create.timeInForce(), create.execInst() == ExecInst.POST_ONLY);
+
+        //known before the book sees it, a cancel sent on the ack has to find it
+        booksByOrderId.put(orderId, book);
+        book.onLimitOrder(limit);
+
+        if (book.getRestingOrder(orderId) == null) {
+            booksByOrderId.remove(orderId);
+        }
+    }
+
+    private void onCancelOrder(final long orderId) {
+        //not one of ours, or already done
+        final OrderBook book = booksByOrderId.get(orderId);
+        if (book == null) {
+            return;
+        }
+
+        book.onCancelOrder(orderId);
+
+        if (book.getRestingOrder(orderId) == null) {
+            booksByOrderId.remove(orderId);
+        }
+    }
+
+    /**
+     * @return how many orders are resting across this registry's books.
+     */
+    public int getRestingOrderCount() {
+        return booksByOrderId.size();
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBookRegistry(shard=" + shard + "/" + shardCount + ",books=" + books.size() + ",restingOrders=" + booksByOrderId.size() + ")";
+    }
+}
@@ -1,5 +1,8 @@
 package codingblackfemales.orderbook;
 
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.collection.extrusive.Map;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
 import codingblackfemales.orderbook.visitor.FilteringOrderBookVisitor;
@@ -7,8 +10,51 @@ import codingblackfemales.orderbook.visitor.MutatingAddOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingRemoveAllMarketDataOrdersVisitor;
 import codingblackfemales.orderbook.visitor.OrderBookVisitor;
 
+/**
+ * One side of the book. Levels are kept in a {@link PriceLevelIndex} (sorted best first) and linked together in
+ * the same order, so visitors can still walk them with {@link OrderBookLevel#next()}.
+ *
+ * A {@link FilteringOrderBookVisitor} only ever visits the level at its price, which is found by binary search
+ * rather than by walking every level from the top of the book. Every other visitor walks every level, best first.
+ *
+ * Limit orders resting on the side are also indexed by order id, and each order knows its level, so a cancel
+ * goes straight to the order rather than visiting the book.
+ *
+ * Levels come from, and go back to, the side's {@link OrderBookPools}, as do orders once they leave the side.
+ */
 public abstract class OrderBookSide {
-    private OrderBookLevel firstLevel;
+
+    private static final int EXPECTED_LIMIT_ORDERS = 1024;
+
+    private final PriceLevelIndex levels = new PriceLevelIndex();
+
+    private final LongToObjMap<LimitOrderFlyweight> limitOrders = Map.longToObjMap(EXPECTED_LIMIT_ORDERS);
+
+    private final OrderBookPools pools;
+
+    private int marketDataOrderCount = 0;
+    //market data orders the current update hasn't seen yet, if it sees them all there's nothing stale to look for
+    private int marketDataOrdersUnseen = 0;
+    //the worst price (as a sort key) in the current update, levels past it are beyond the feed's depth
+    private long worstUpdateKey = Long.MIN_VALUE;
+
+    //null if we're not simulating passive fills
+    private PassiveFills passiveFills;
+
+    //null if the book isn't checking its invariants
+    private BookInvariants invariants;
+
+    protected OrderBookSide() {
+        this(new OrderBookPools());
+    }
+
+    protected OrderBookSide(final OrderBookPools pools) {
+        this.pools = pools;
+    }
+
+    public OrderBookPools getPools() {
+        return pools;
+    }
 
     private final MutatingRemoveAllMarketDataOrdersVisitor removeMarketDataOrderVisitor = new MutatingRemoveAllMarketDataOrdersVisitor();
 
@@ -17,75 +63,309 @@ public abstract class OrderBookSide {
     }
 
     public OrderBookLevel getFirstLevel() {
-        return firstLevel;
+        return levels.levelAt(0);
+    }
+
+    public OrderBookLevel getLastLevel() {
+        return levels.levelAt(levels.size() - 1);
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * @return the level at exactly this price, or null.
+     */
+    public OrderBookLevel getLevel(final long price) {
+        return levels.levelAt(levels.search(sortKey(price)));
+    }
+
+    /**
+     * @return the limit order with this id resting on this side, or null.
+     */
+    public LimitOrderFlyweight getLimitOrder(final long orderId) {
+        return limitOrders.get(orderId);
     }
 
+    public int getLimitOrderCount() {
+        return limitOrders.size();
+    }
+
+    void setInvariants(final BookInvariants invariants) {
+        this.invariants = invariants;
+    }
+
+    void onLevelChanged(final OrderBookLevel level) {
+        if (invariants != null) {
+            invariants.levelChanged(level);
+        }
+    }
+
+    void onOrderAdded(final DefaultOrderFlyweight order) {
+        if (order instanceof LimitOrderFlyweight) {
+            final LimitOrderFlyweight limit = (LimitOrderFlyweight) order;
+            limitOrders.put(limit.getOrderId(), limit);
+        } else if (order instanceof MarketDataOrderFlyweight) {
+            marketDataOrderCount++;
+        }
+    }
+
+    void onOrderRemoved(final DefaultOrderFlyweight order) {
+        if (order instanceof LimitOrderFlyweight) {
+            final LimitOrderFlyweight limit = (LimitOrderFlyweight) order;
+            //don't drop a different order that was added with the same id
+            if (limitOrders.get(limit.getOrderId()) == limit) {
+                limitOrders.remove(limit.getOrderId());
+            }
+        } else if (order instanceof MarketDataOrderFlyweight) {
+            marketDataOrderCount--;
+        }
+        pools.release(order);
+    }
+
+    /**
+     * Kept for visitors that hand back the new first level after a remove, the index already knows it so only
+     * a level that isn't in the side yet (or null, to empty the side) changes anything.
+     */
     public void setFirstLevel(OrderBookLevel level) {
-        firstLevel = level;
+        if (level == null) {
+            clearLevels();
+        } else if (level.getSide() != this) {
+            addLevel(level);
+        }
+    }
+
+    /**
+     * Adds a level in price order.
+     */
+    public void addLevel(final OrderBookLevel level) {
+        if (level.getSide() != null) {
+            throw new IllegalStateException(level + " is already in a side");
+        }
+
+        final long key = sortKey(level.getPrice());
+        final int found = levels.search(key);
+
+        if (found >= 0) {
+            throw new IllegalStateException("Already have a level at price " + level.getPrice());
+        }
+
+        final int index = -(found + 1);
+        level.linkInto(this, levels.levelAt(index - 1), levels.levelAt(index));
+        levels.insert(index, key, level);
+        onLevelChanged(level);
+    }
+
+    /**
+     * @return the new first level.
+     */
+    public OrderBookLevel removeLevel(final OrderBookLevel level) {
+        if (level.getSide() == this) {
+            final int index = levels.search(sortKey(level.getPrice()));
+            levels.remove(index);
+            level.unlink();
+            removeOrders(level);
+            pools.release(level);
+        }
+        return getFirstLevel();
+    }
+
+    private void clearLevels() {
+        while (levels.size() > 0) {
+            final OrderBookLevel level = levels.levelAt(levels.size() - 1);
+            levels.remove(levels.size() - 1);
+            level.unlink();
+            removeOrders(level);
+            pools.release(level);
+        }
+    }
+
+    /**
+     * Orders still queued at a level that's been taken out of the side are no longer on the book.
+     */
+    private void removeOrders(final OrderBookLevel level) {
+        DefaultOrderFlyweight order = level.getFirstOrder();
+        while (order != null) {
+            onOrderRemoved(order);
+            order.setLevel(null);
+            order = order.next();
+        }
     }
 
     public void accept(final OrderBookVisitor visitor){
 
         visitor.visitSide(this);
 
-        var levelToVisit = getFirstLevel();
+        if (visitor instanceof FilteringOrderBookVisitor) {
+            visitLevelAtPrice(visitor, ((FilteringOrderBookVisitor) visitor).getPrice());
+            return;
+        }
 
-        //are we the first level...
-        if(levelToVisit == null){
+        if(getFirstLevel() == null){
             OrderBookLevel level = visitor.onNoFirstLevel();
             if(level != null) {
-                setFirstLevel(level);
+                addLevel(level);
                 level.accept(visitor, this);
             }
             return;
-        }else{
-            visitOneLevel(visitor, levelToVisit, levelToVisit.next());
         }
 
-        levelToVisit = levelToVisit.next();
-
+        //take next before visiting, the visitor may remove the level it's on
+        OrderBookLevel levelToVisit = getFirstLevel();
         while(levelToVisit != null){
-            visitOneLevel(visitor, levelToVisit, levelToVisit.next());
-            levelToVisit = levelToVisit.next();
+            final OrderBookLevel next = levelToVisit.next();
+            levelToVisit.accept(visitor, this);
+            levelToVisit = next;
         }
     }
 
-    private void visitOneLevel(final OrderBookVisitor visitor, OrderBookLevel levelToVisit, OrderBookLevel nextLevel) {
-        if (visitor instanceof FilteringOrderBookVisitor) {
+    private void visitLevelAtPrice(final OrderBookVisitor visitor, final long price) {
+        final int found = levels.search(sortKey(price));
+
+        if (found >= 0) {
+            levels.levelAt(found).accept(visitor, this);
+            return;
+        }
 
-            long priceToFind = ((FilteringOrderBookVisitor) visitor).getPrice();
+        final OrderBookLevel level;
+        if (levels.size() == 0) {
+            level = visitor.onNoFirstLevel();
+        } else {
+            final int index = -(found + 1);
+            level = visitor.missingBookLevel(levels.levelAt(index - 1), levels.levelAt(index), price);
+        }
 
-            if (priceToFind == levelToVisit.getPrice()) {
-                levelToVisit.accept(visitor, this);
-            } else if (isBetweenLevels(levelToVisit, nextLevel, priceToFind)) {
-                visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
-            } else if (isNewDeepestLevel(levelToVisit, nextLevel, priceToFind)) {
-                OrderBookLevel level = visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
-                levelToVisit.last().add(level);
-            }
-        }else{
-            levelToVisit.accept(visitor, this);
+        if (level != null) {
+            addLevel(level);
+            level.accept(visitor, this);
         }
     }
 
+    /**
+     * @return true if a level at this price is at or better than the limit price for an order trading against
+     * this side.
+     */
+    boolean isAtOrBetter(final long levelPrice, final long limitPrice) {
+        return sortKey(levelPrice) <= sortKey(limitPrice);
+    }
 
+    /**
+     * @return how much of the quantity this side can fill at or better than the limit price (at any price for a
+     * market order), walking the levels best first and stopping as soon as there's enough.
+     */
+    long fillableQuantity(final long quantity, final long limitPrice, final boolean market) {
+        long fillable = 0;
+        OrderBookLevel level = getFirstLevel();
+        while (level != null && fillable < quantity && (market || isAtOrBetter(level.getPrice(), limitPrice))) {
+            fillable += level.getQuantity();
+            level = level.next();
+        }
+        return Math.min(fillable, quantity);
+    }
 
-    abstract boolean isBetweenLevels(OrderBookLevel previous, OrderBookLevel next, long price);
-
-    abstract boolean isNewDeepestLevel(OrderBookLevel previous, OrderBookLevel next, long price);
+    /**
+     * @return a key for a price that sorts this side's levels best first in ascending order.
+     */
+    abstract long sortKey(long price);
 
     void removeMarketDataOrders(){
         this.accept(removeMarketDataOrderVisitor);
     }
 
+    public int getMarketDataOrderCount() {
+        return marketDataOrderCount;
+    }
+
+    void setPassiveFills(final PassiveFills passiveFills) {
+        this.passiveFills = passiveFills;
+    }
+
+    void startMarketDataUpdate() {
+        marketDataOrdersUnseen = marketDataOrderCount;
+        worstUpdateKey = Long.MIN_VALUE;
+    }
+
+    private boolean isSimulatingPassiveFills() {
+        return passiveFills != null && limitOrders.size() > 0;
+    }
+
+    /**
+     * Applies an update's size to the market data order already at this price, keeping its place in the queue.
+     *
+     * @return false if there isn't one, and the caller needs to add a new market data order.
+     */
+    boolean updateMarketDataOrder(final long price, final long quantity, final long updateId) {
+        worstUpdateKey = Math.max(worstUpdateKey, sortKey(price));
+
+        final OrderBookLevel level = getLevel(price);
+        if (level == null || level.getMarketDataOrder() == null) {
+            return false;
+        }
+
+        final MarketDataOrderFlyweight order = level.getMarketDataOrder();
+        if (order.getUpdateId() != updateId) {
+            marketDataOrdersUnseen--;
+        }
+        final long reduction = order.getQuantity() - quantity;
+        level.setQuantity(level.getQuantity() - reduction);
+        order.setQuantity(quantity);
+        order.setUpdateId(updateId);
+
+        if (reduction > 0 && isSimulatingPassiveFills()) {
+            level.onMarketVolumeReduced(reduction, passiveFills);
+        }
+        return true;
+    }
+
+    /**
+     * Removes market data orders the update with this id didn't mention, and any level that leaves empty. A level
+     * that's gone from inside the update's prices has traded (or been cancelled) away, one past the worst price
+     * has just dropped out of the feed's depth and tells us nothing about our place in its queue.
+     */
+    void removeStaleMarketDataOrders(final long updateId) {
+        if (marketDataOrdersUnseen <= 0) {
+            return;
+        }
+
+        OrderBookLevel level = getFirstLevel();
+        while (level != null) {
+            final OrderBookLevel next = level.next();
+            final MarketDataOrderFlyweight order = level.getMarketDataOrder();
+            if (order != null && order.getUpdateId() != updateId) {
+                if (sortKey(level.getPrice()) < worstUpdateKey && isSimulatingPassiveFills()) {
+                    level.onMarketVolumeReduced(order.getQuantity(), passiveFills);
+                }
+                level.removeOrder(order);
+                level.setQuantity(level.getQuantity() - order.getQuantity());
+                if (level.getFirstOrder() == null) {
+                    removeLevel(level);
+                }
+            }
+            level = next;
+        }
+        marketDataOrdersUnseen = 0;
+    }
+
     void addMarketDataOrder(MarketDataOrderFlyweight order){
-        this.getAddOrderVisitor().setOrderToAdd(order);
-        this.accept(this.getAddOrderVisitor());
+        addOrder(order);
     }
 
     void addLimitOrder(LimitOrderFlyweight order){
-        this.getAddOrderVisitor().setOrderToAdd(order);
-        this.accept(this.getAddOrderVisitor());
+        addOrder(order);
+    }
+
+    /**
+     * Same result as visiting with {@link #getAddOrderVisitor()}, but goes straight to the level by price and to
+     * the back of its queue rather than visiting every order at the level.
+     */
+    private void addOrder(final DefaultOrderFlyweight order){
+        OrderBookLevel level = getLevel(order.getPrice());
+        if (level == null) {
+            level = pools.level(order.getPrice());
+            addLevel(level);
+        }
+        level.addOrder(order);
     }
 
     abstract MutatingAddOrderVisitor getAddOrderVisitor();
@@ -0,0 +1,50 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+
+import java.util.Arrays;
+
+/**
+ * Fills for our resting orders worked out while a market data update is applied, the book publishes them once
+ * the update is done rather than calling out to the sequencer half way through changing a side.
+ */
+final class PassiveFills {
+
+    private LimitOrderFlyweight[] orders = new LimitOrderFlyweight[16];
+    private long[] quantities = new long[16];
+    private long[] prices = new long[16];
+    private int size = 0;
+
+    void add(final LimitOrderFlyweight order, final long quantity, final long price) {
+        if (size == orders.length) {
+            orders = Arrays.copyOf(orders, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        orders[size] = order;
+        quantities[size] = quantity;
+        prices[size] = price;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    LimitOrderFlyweight order(final int index) {
+        return orders[index];
+    }
+
+    long quantity(final int index) {
+        return quantities[index];
+    }
+
+    long price(final int index) {
+        return prices[index];
+    }
+
+    void clear() {
+        Arrays.fill(orders, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,72 @@
+package codingblackfemales.orderbook;
+
+import java.util.Arrays;
+
+/**
+ * The levels of one side sorted best first, in flat arrays so finding a level by price is a binary search rather
+ * than a walk of the level list. Keys are the side's sort key for a price (see {@link OrderBookSide#sortKey(long)}),
+ * so ascending key order is best to worst for both sides.
+ */
+class PriceLevelIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private OrderBookLevel[] levels = new OrderBookLevel[INITIAL_CAPACITY];
+    private int size = 0;
+
+    int size() {
+        return size;
+    }
+
+    OrderBookLevel levelAt(final int index) {
+        return index >= 0 && index < size ? levels[index] : null;
+    }
+
+    /**
+     * @return the index of key, or -(insertion point) - 1 if it isn't there.
+     */
+    int search(final long key) {
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midKey = keys[mid];
+
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    void insert(final int index, final long key, final OrderBookLevel level) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(levels, index, levels, index + 1, size - index);
+
+        keys[index] = key;
+        levels[index] = level;
+        size++;
+    }
+
+    void remove(final int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        levels[--size] = null;
+    }
+
+    void clear() {
+        Arrays.fill(levels, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,34 @@
+package codingblackfemales.orderbook.channel;
+
+import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.sequencer.Sequencer;
+import org.agrona.DirectBuffer;
+
+/**
+ * Brackets the dispatch of every command with {@link OrderBook#beginCycle()} and {@link OrderBook#endCycle()}, so
+ * with {@link OrderBook#setConflateBookUpdates(boolean) conflation} on the book publishes once per sequenced
+ * command, after every consumer (and every order they sent in response) has run, rather than once per order.
+ *
+ * Only the outermost command needs to come through here, anything sent while it's being dispatched can go
+ * straight to the wrapped sequencer.
+ */
+public class OrderBookCycleSequencer implements Sequencer {
+
+    private final Sequencer sequencer;
+    private final OrderBook book;
+
+    public OrderBookCycleSequencer(final Sequencer sequencer, final OrderBook book) {
+        this.sequencer = sequencer;
+        this.book = book;
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        book.beginCycle();
+        try {
+            sequencer.onCommand(buffer);
+        } finally {
+            book.endCycle();
+        }
+    }
+}
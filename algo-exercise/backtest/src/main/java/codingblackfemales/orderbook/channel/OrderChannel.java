@@ -2,42 +2,119 @@ package codingblackfemales.orderbook.channel;
 
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.sequencer.Sequencer;
+import messages.order.AckedOrderEncoder;
+import messages.order.CancelAckedOrderEncoder;
 import messages.order.FillOrderEncoder;
 import messages.order.MessageHeaderEncoder;
+import messages.order.PartialFillOrderEncoder;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+/**
+ * Sends the book's execution reports (acks, cancel acks, partial and final fills) to the sequencer.
+ *
+ * Reports are encoded with the same encoders into preallocated buffers. Publishing can re-enter the book (fill ->
+ * algo -> new order) and the book can publish again before the first report has reached every consumer, so
+ * there's a buffer per level of nesting rather than one shared buffer.
+ */
 public class OrderChannel {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderChannel.class);
 
+    private static final int BUFFER_SIZE = 128;
+    private static final int INITIAL_DEPTH = 4;
+
     private final Sequencer sequencer;
 
+    private UnsafeBuffer[] buffers = new UnsafeBuffer[INITIAL_DEPTH];
+    private int depth = 0;
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final AckedOrderEncoder ackedEncoder = new AckedOrderEncoder();
+    private final CancelAckedOrderEncoder cancelAckedEncoder = new CancelAckedOrderEncoder();
+    private final PartialFillOrderEncoder partialFillEncoder = new PartialFillOrderEncoder();
+    private final FillOrderEncoder fillEncoder = new FillOrderEncoder();
+
     public OrderChannel(Sequencer sequencer) {
         this.sequencer = sequencer;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
     }
 
-    public void publishFill(final long fillQuantity, final long price, final LimitOrderFlyweight limit){
+    private UnsafeBuffer buffer(){
+        if(depth == buffers.length){
+            buffers = Arrays.copyOf(buffers, depth * 2);
+            for (int i = depth; i < buffers.length; i++) {
+                buffers[i] = new UnsafeBuffer(ByteBuffer.allocateDirect(BUFFER_SIZE));
+            }
+        }
+        return buffers[depth];
+    }
+
+    private void send(final UnsafeBuffer buffer){
+        depth++;
+        try {
+            this.sequencer.onCommand(buffer);
+        } finally {
+            depth--;
+        }
+    }
+
+    public void publishAck(final long orderId){
+        final UnsafeBuffer buffer = buffer();
+        ackedEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
 
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        if(logger.isDebugEnabled()){
+            logger.debug("[ORDERBOOK] publishing ack for order: {}", orderId);
+        }
 
-        final FillOrderEncoder fillEncoder = new FillOrderEncoder();
-        //write the encoded output to the direct buffer
-        fillEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        send(buffer);
+    }
+
+    public void publishCancelAck(final long orderId){
+        final UnsafeBuffer buffer = buffer();
+        cancelAckedEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+
+        if(logger.isDebugEnabled()){
+            logger.debug("[ORDERBOOK] publishing cancel ack for order: {}", orderId);
+        }
+
+        send(buffer);
+    }
+
+    /**
+     * The limit's quantity must already be what's left open after this fill, when nothing is left the fill is
+     * sent as a final {@link FillOrderEncoder fill}, otherwise as a {@link PartialFillOrderEncoder partial fill}.
+     */
+    public void publishFill(final long fillQuantity, final long price, final LimitOrderFlyweight limit){
+        publishFill(limit.getOrderId(), fillQuantity, price, limit.getQuantity() == 0);
+    }
 
+    public void publishFill(final long orderId, final long fillQuantity, final long price, final boolean isFinal){
+        final UnsafeBuffer buffer = buffer();
 
-        fillEncoder.orderId(limit.getOrderId());
-        fillEncoder.quantity(fillQuantity);
-        fillEncoder.price(price);
+        if(isFinal){
+            fillEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder)
+                    .orderId(orderId)
+                    .quantity(fillQuantity)
+                    .price(price);
+        }else{
+            partialFillEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder)
+                    .orderId(orderId)
+                    .quantity(fillQuantity)
+                    .price(price);
+        }
 
-        logger.info("[ORDERBOOK] publishing fill to stream: " + fillEncoder);
+        if(logger.isDebugEnabled()){
+            logger.debug("[ORDERBOOK] publishing {} to stream: {}@{} for order: {}", isFinal ? "fill" : "partial fill", fillQuantity, price, orderId);
+        }
 
-        this.sequencer.onCommand(directBuffer);
+        send(buffer);
     }
 
 }
@@ -19,7 +19,8 @@ public class OrderBookInboundOrderConsumer extends OrderEventListener {
 
     @Override
     public void onCreateOrder(CreateOrderDecoder create) {
-        final var limit = new LimitOrderFlyweight(create.side(), create.price(), create.quantity(), create.orderId());
+        final LimitOrderFlyweight limit = book.newLimitOrder(create.side(), create.price(), create.quantity(), create.orderId())
+                .instructions(create.ordType(), create.timeInForce(), create.execInst() == ExecInst.POST_ONLY);
         //logger.info("Adding limit Order:" + limit + " to book");
         book.onLimitOrder(limit);
     }
@@ -7,6 +7,31 @@ import messages.order.Side;
 
 public class DefaultOrderFlyweight extends ParentOrderFlyweight<DefaultOrderFlyweight>{
 
+    private OrderBookLevel level;
+
+    /**
+     * @return the level this order is resting at, or null if it's not on the book.
+     */
+    public OrderBookLevel getLevel() {
+        return level;
+    }
+
+    public void setLevel(final OrderBookLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Unhooks this order from any list it was in so it can be re-used from a pool.
+     */
+    public void reset() {
+        this.next = null;
+        this.previous = null;
+        this.first = this;
+        this.last = this;
+        this.size = 1;
+        this.level = null;
+    }
+
     @Override
     public void accept(OrderBookVisitor visitor, OrderBookSide side, OrderBookLevel level, boolean isLast) {
         visitor.visitOrder(this, side, level, isLast);
@@ -1,6 +1,8 @@
 package codingblackfemales.orderbook.order;
 
+import messages.order.OrdType;
 import messages.order.Side;
+import messages.order.TimeInForce;
 
 public class LimitOrderFlyweight extends DefaultOrderFlyweight {
 
@@ -9,11 +11,40 @@ public class LimitOrderFlyweight extends DefaultOrderFlyweight {
     private long quantity;
     private long orderId;
 
+    //market volume queued in front of us at our level
+    private long volumeAhead;
+
+    private OrdType ordType = OrdType.LIMIT;
+    private TimeInForce timeInForce = TimeInForce.DAY;
+    private boolean postOnly = false;
+
+    public LimitOrderFlyweight() {
+    }
+
     public LimitOrderFlyweight(Side side, long price, long quantity, long orderId) {
+        init(side, price, quantity, orderId);
+    }
+
+    public LimitOrderFlyweight init(Side side, long price, long quantity, long orderId) {
         this.side = side;
         this.price = price;
         this.quantity = quantity;
         this.orderId = orderId;
+        this.volumeAhead = 0;
+        this.ordType = OrdType.LIMIT;
+        this.timeInForce = TimeInForce.DAY;
+        this.postOnly = false;
+        return this;
+    }
+
+    /**
+     * Sets how the order trades, a create that didn't set its type or time in force is a day limit order.
+     */
+    public LimitOrderFlyweight instructions(OrdType ordType, TimeInForce timeInForce, boolean postOnly) {
+        this.ordType = ordType == OrdType.NULL_VAL ? OrdType.LIMIT : ordType;
+        this.timeInForce = timeInForce == TimeInForce.NULL_VAL ? TimeInForce.DAY : timeInForce;
+        this.postOnly = postOnly;
+        return this;
     }
 
     public Side getSide() {
@@ -38,8 +69,42 @@ public class LimitOrderFlyweight extends DefaultOrderFlyweight {
         return orderId;
     }
 
+    public OrdType getOrdType() {
+        return ordType;
+    }
+
+    public boolean isMarket() {
+        return ordType == OrdType.MARKET;
+    }
+
+    public TimeInForce getTimeInForce() {
+        return timeInForce;
+    }
+
+    /**
+     * @return true if the order must only add liquidity, it's cancelled rather than matched if it would cross.
+     */
+    public boolean isPostOnly() {
+        return postOnly;
+    }
+
+    /**
+     * @return true if whatever's left after matching rests on the book, only a day limit order does.
+     */
+    public boolean canRest() {
+        return ordType == OrdType.LIMIT && timeInForce == TimeInForce.DAY;
+    }
+
+    public long getVolumeAhead() {
+        return volumeAhead;
+    }
+
+    public void setVolumeAhead(long volumeAhead) {
+        this.volumeAhead = volumeAhead;
+    }
+
     @Override
     public String toString() {
-        return "Limit(side="+side+",orderId="+orderId+",price="+price+",quantity="+quantity+")";
+        return "Limit(side="+side+",orderId="+orderId+",price="+price+",quantity="+quantity+",volumeAhead="+volumeAhead+",ordType="+ordType+",timeInForce="+timeInForce+",postOnly="+postOnly+")";
     }
 }
@@ -8,10 +8,21 @@ public class MarketDataOrderFlyweight extends DefaultOrderFlyweight {
 
     private Side side;
 
+    //the book's market data update that last set this order's size
+    private long updateId;
+
+    public MarketDataOrderFlyweight() {
+    }
+
     public MarketDataOrderFlyweight(Side side, long price, long quantity) {
+        init(side, price, quantity);
+    }
+
+    public MarketDataOrderFlyweight init(Side side, long price, long quantity) {
         this.side = side;
         this.price = price;
         this.quantity = quantity;
+        return this;
     }
 
     @Override
@@ -32,6 +43,14 @@ public class MarketDataOrderFlyweight extends DefaultOrderFlyweight {
         this.quantity = quantity;
     }
 
+    public long getUpdateId() {
+        return updateId;
+    }
+
+    public void setUpdateId(long updateId) {
+        this.updateId = updateId;
+    }
+
     @Override
     public String toString() {
         return "MktData(price="+price+",quantity="+quantity+")";
@@ -1,6 +1,7 @@
 package codingblackfemales.orderbook.visitor;
 
 import codingblackfemales.orderbook.OrderBookLevel;
+import codingblackfemales.orderbook.OrderBookPools;
 import codingblackfemales.orderbook.OrderBookSide;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.Order;
@@ -11,8 +12,14 @@ public class MutatingAddOrderVisitor implements OrderBookVisitor,FilteringOrderB
 
     private static final Logger logger = LoggerFactory.getLogger(MutatingAddOrderVisitor.class);
 
+    private final OrderBookPools pools;
+
     private DefaultOrderFlyweight orderToAdd;
 
+    public MutatingAddOrderVisitor(final OrderBookPools pools) {
+        this.pools = pools;
+    }
+
     public Order getOrderToAdd() {
         return orderToAdd;
     }
@@ -44,17 +51,12 @@ public class MutatingAddOrderVisitor implements OrderBookVisitor,FilteringOrderB
 
     @Override
     public OrderBookLevel missingBookLevel(OrderBookLevel previous, OrderBookLevel next, long price) {
-        OrderBookLevel level = new OrderBookLevel();
-        level.setPrice(price);
-        return level;
+        return pools.level(price);
     }
 
     @Override
     public OrderBookLevel onNoFirstLevel() {
-        OrderBookLevel level = new OrderBookLevel();
-        level.setPrice(orderToAdd.getPrice());
-        level.setQuantity(0);
-        return level;
+        return pools.level(orderToAdd.getPrice());
     }
 
     @Override
@@ -14,7 +14,7 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
 
     private static final Logger logger = LoggerFactory.getLogger(MutatingMatchOneMarketDataOrderVisitor.class);
 
-    private final MarketDataOrderFlyweight orderToMatch;
+    private MarketDataOrderFlyweight orderToMatch;
     private long filledQuantity;
     private long remainingQuantity;
     private boolean isFullyFilled = false;
@@ -22,10 +22,22 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
     private final OrderChannel orderChannel;
 
     public MutatingMatchOneMarketDataOrderVisitor(final MarketDataOrderFlyweight orderToMatch, final OrderChannel orderChannel) {
+        this(orderChannel);
+        reset(orderToMatch);
+    }
+
+    public MutatingMatchOneMarketDataOrderVisitor(final OrderChannel orderChannel) {
+        this.orderChannel = orderChannel;
+    }
+
+    /**
+     * Points a pooled visitor at the next order to match.
+     */
+    public MutatingMatchOneMarketDataOrderVisitor reset(final MarketDataOrderFlyweight orderToMatch) {
         this.filledQuantity = 0;
         this.orderToMatch = orderToMatch;
         this.remainingQuantity = orderToMatch.getQuantity();
-        this.orderChannel = orderChannel;
+        return this;
     }
 
     @Override
@@ -38,6 +50,9 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
 
     @Override
     public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
+        if(remainingQuantity == 0){
+            return;
+        }
         if(canMatchOrder(order)){
             logger.info("[ORDERBOOK] Have found order we can match:" + order + "(" + orderToMatch + ")");
             //if we can take all the order...
@@ -45,7 +60,12 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
                 long fillQuantity = order.getQuantity();
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
-                level.setFirstOrder(order.remove());
+                level.removeOrder(order);
+                level.setQuantity(level.getQuantity() - fillQuantity);
+                if(level.getFirstOrder() == null){
+                    side.setFirstLevel(level.remove());
+                }
+                order.setQuantity(0);
                 if(order instanceof LimitOrderFlyweight){
                     logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
                     publishFill(fillQuantity, orderToMatch.getPrice(),(LimitOrderFlyweight) order);
@@ -57,6 +77,7 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
                 order.setQuantity(remainingQty);
+                level.setQuantity(level.getQuantity() - fillQuantity);
                 if(order instanceof LimitOrderFlyweight){
                     logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
                     publishFill(fillQuantity, orderToMatch.getPrice(), (LimitOrderFlyweight) order);
@@ -17,10 +17,10 @@ public class MutatingRemoveAllMarketDataOrdersVisitor implements OrderBookVisito
     @Override
     public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
         if(order instanceof MarketDataOrderFlyweight){
-            DefaultOrderFlyweight newFirst = order.remove();
-            level.setFirstOrder(newFirst);
+            level.removeOrder(order);
+            level.setQuantity(level.getQuantity() - order.getQuantity());
             logger.info("[ORDERBOOK] Removing market data order:" + order);
-            if(level.getQuantity() - order.getQuantity() == 0){
+            if(level.getFirstOrder() == null){
                 logger.info("[ORDERBOOK] Removing level:" + level.getPrice());
                 OrderBookLevel newFirstLevel = level.remove();
                 side.setFirstLevel(newFirstLevel);
@@ -7,34 +7,98 @@ import codingblackfemales.orderbook.OrderBookSide;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import messages.marketdata.*;
 import org.agrona.MutableDirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
-
+/**
+ * Encodes the sides it visits into the buffer it was started with, either both sides as a {@link BookUpdateEncoder
+ * book update} ({@link #start(MutableDirectBuffer, long, Venue)}, visit the bid side then the ask side) or one
+ * side as a {@link BidBookUpdateEncoder bid} or {@link AskBookUpdateEncoder ask} update
+ * ({@link #startSide(MutableDirectBuffer, OrderBookSide, long, Venue)}, visit just that side).
+ *
+ * At most {@link #setMaxDepth(int) max depth} levels are encoded per side.
+ */
 public class ReadOnlyMarketDataChannelPublishVisitor implements OrderBookVisitor {
 
     private static final Logger logger = LoggerFactory.getLogger(ReadOnlyMarketDataChannelPublishVisitor.class);
 
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private final BookUpdateEncoder encoder = new BookUpdateEncoder();
+    private final BidBookUpdateEncoder bidEncoder = new BidBookUpdateEncoder();
+    private final AskBookUpdateEncoder askEncoder = new AskBookUpdateEncoder();
+
+    private MutableDirectBuffer directBuffer;
+    private boolean sideOnly = false;
+
+    private int maxDepth = Integer.MAX_VALUE;
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(final int maxDepth) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("Max depth must be positive: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @return how many bytes {@link #start(MutableDirectBuffer, long, Venue) start} and visiting these sides
+     * encode, header included.
+     */
+    public int bookLength(final OrderBookSide bidSide, final OrderBookSide askSide){
+        return MessageHeaderEncoder.ENCODED_LENGTH + BookUpdateEncoder.BLOCK_LENGTH
+                + BookUpdateEncoder.BidBookEncoder.sbeHeaderSize() + levels(bidSide) * BookUpdateEncoder.BidBookEncoder.sbeBlockLength()
+                + BookUpdateEncoder.AskBookEncoder.sbeHeaderSize() + levels(askSide) * BookUpdateEncoder.AskBookEncoder.sbeBlockLength();
+    }
+
+    /**
+     * @return how many bytes {@link #startSide(MutableDirectBuffer, OrderBookSide, long, Venue) startSide} and
+     * visiting the side encode, header included.
+     */
+    public int sideLength(final OrderBookSide side){
+        if(side instanceof BidBookSide){
+            return MessageHeaderEncoder.ENCODED_LENGTH + BidBookUpdateEncoder.BLOCK_LENGTH
+                    + BidBookUpdateEncoder.BidBookEncoder.sbeHeaderSize() + levels(side) * BidBookUpdateEncoder.BidBookEncoder.sbeBlockLength();
+        }
+        return MessageHeaderEncoder.ENCODED_LENGTH + AskBookUpdateEncoder.BLOCK_LENGTH
+                + AskBookUpdateEncoder.AskBookEncoder.sbeHeaderSize() + levels(side) * AskBookUpdateEncoder.AskBookEncoder.sbeBlockLength();
+    }
 
-    private ByteBuffer byteBuffer; //= ByteBuffer.allocateDirect(1024);
-    private UnsafeBuffer directBuffer; //= new UnsafeBuffer(byteBuffer);
+    private int levels(final OrderBookSide side){
+        return Math.min(side.getLevelCount(), maxDepth);
+    }
 
-    public void start(){
-        byteBuffer = ByteBuffer.allocateDirect(1024);
-        directBuffer = new UnsafeBuffer(byteBuffer);
+    public void start(final MutableDirectBuffer buffer, final long instrumentId, final Venue venue){
+        directBuffer = buffer;
+        sideOnly = false;
 
         encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
         //set the fields to desired valus
-        encoder.venue(Venue.XLON);
-        encoder.instrumentId(123L);
+        encoder.venue(venue);
+        encoder.instrumentId(instrumentId);
         encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
         encoder.source(Source.ORDERBOOK);
     }
 
+    public void startSide(final MutableDirectBuffer buffer, final OrderBookSide side, final long instrumentId, final Venue venue){
+        directBuffer = buffer;
+        sideOnly = true;
+
+        if(side instanceof BidBookSide){
+            bidEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+            bidEncoder.venue(venue);
+            bidEncoder.instrumentId(instrumentId);
+            bidEncoder.source(Source.ORDERBOOK);
+        }else{
+            askEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+            askEncoder.venue(venue);
+            askEncoder.instrumentId(instrumentId);
+            askEncoder.source(Source.ORDERBOOK);
+        }
+    }
+
     public MutableDirectBuffer end(){
         return directBuffer;
     }
@@ -45,33 +109,39 @@ public class ReadOnlyMarketDataChannelPublishVisitor implements OrderBookVisitor
 
     @Override
     public void visitSide(OrderBookSide side) {
-        if(side instanceof BidBookSide){
-            if(side.getFirstLevel() == null){
-                return;
-            }
+        //an empty side still needs its (empty) group, or the next group is read from the wrong place
+        final int size = levels(side);
+        OrderBookLevel level = side.getFirstLevel();
 
-            final var size = side.getFirstLevel().size();
-            logger.debug("Bid Side Size: " + size);
-            var bidBookEncoder = encoder.bidBookCount(size);
-            OrderBookLevel level = side.getFirstLevel();
-            for(int i=0; i< size; i++){
-                logger.debug("Adding Mkt Data Msg BID: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
-                bidBookEncoder.next().size(level.getQuantity()).price(level.getPrice()) ;
-                level = level.next();
+        if(side instanceof BidBookSide){
+            logger.debug("Bid Side Size: {}", size);
+            if(sideOnly){
+                final var bidBookEncoder = bidEncoder.bidBookCount(size);
+                for(int i=0; i< size; i++){
+                    bidBookEncoder.next().size(level.getQuantity()).price(level.getPrice());
+                    level = level.next();
+                }
+            }else{
+                final var bidBookEncoder = encoder.bidBookCount(size);
+                for(int i=0; i< size; i++){
+                    bidBookEncoder.next().size(level.getQuantity()).price(level.getPrice());
+                    level = level.next();
+                }
             }
         }else if(side instanceof AskBookSide){
-            if(side.getFirstLevel() == null){
-                return;
-            }
-            final var size = side.getFirstLevel().size();
-            logger.debug("Ask Side Size: " + size);
-            var askBookEncoder = encoder.askBookCount(size);
-            OrderBookLevel level = side.getFirstLevel();
-
-            for(int i=0; i< size; i++){
-                logger.debug("Adding Mkt Data Msg ASK: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
-                askBookEncoder.next().size(level.getQuantity()).price(level.getPrice()) ;
-                level = level.next();
+            logger.debug("Ask Side Size: {}", size);
+            if(sideOnly){
+                final var askBookEncoder = askEncoder.askBookCount(size);
+                for(int i=0; i< size; i++){
+                    askBookEncoder.next().size(level.getQuantity()).price(level.getPrice());
+                    level = level.next();
+                }
+            }else{
+                final var askBookEncoder = encoder.askBookCount(size);
+                for(int i=0; i< size; i++){
+                    askBookEncoder.next().size(level.getQuantity()).price(level.getPrice());
+                    level = level.next();
+                }
             }
         }
     }
@@ -0,0 +1,134 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+public class BookInvariantTest {
+
+    private final OrderChannel orderChannel = Mockito.mock(OrderChannel.class);
+    private final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), orderChannel);
+
+    private UnsafeBuffer tick(final long bestBid, final long bestAsk){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(bestBid).size(100L)
+                .next().price(bestBid - 4).size(200L);
+
+        encoder.askBookCount(2)
+                .next().price(bestAsk).size(100L)
+                .next().price(bestAsk + 10).size(200L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testOffByDefault() {
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 105L)));
+        book.getBidBookSide().getFirstLevel().setQuantity(-1);
+
+        book.onCancelOrder(1);
+
+        assertEquals(BookInvariantMode.OFF, book.getInvariantMode());
+        assertEquals(0L, book.getInvariantViolations());
+    }
+
+    @Test
+    public void testCountsALevelThatDoesntAddUp() {
+        book.setInvariantMode(BookInvariantMode.COUNT);
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 105L)));
+        assertEquals(0L, book.getInvariantViolations());
+
+        final OrderBookLevel level = book.getAskBookSide().getFirstLevel();
+        level.setQuantity(level.getQuantity() + 5);
+
+        //counted once the next event is done, and the book carries on
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 99L, 50L, 1));
+        assertEquals(1L, book.getInvariantViolations(BookInvariant.LEVEL_QUANTITY_MISMATCH));
+        assertNotNull(book.getRestingOrder(1));
+
+        //only changed levels are checked, the whole book on request
+        book.onCancelOrder(1);
+        assertEquals(1L, book.getInvariantViolations());
+        book.checkInvariants();
+        assertEquals(2L, book.getInvariantViolations(BookInvariant.LEVEL_QUANTITY_MISMATCH));
+    }
+
+    @Test
+    public void testFailsFastOnANegativeLevel() {
+        book.setInvariantMode(BookInvariantMode.FAIL_FAST);
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 105L)));
+
+        book.getBidBookSide().getFirstLevel().setQuantity(-1);
+
+        try {
+            book.onCancelOrder(1);
+            fail("Expected the negative level to be caught");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains(BookInvariant.NEGATIVE_LEVEL_QUANTITY.name()));
+        }
+        assertEquals(1L, book.getInvariantViolations(BookInvariant.NEGATIVE_LEVEL_QUANTITY));
+    }
+
+    @Test
+    public void testCountsACrossedBook() {
+        book.setInvariantMode(BookInvariantMode.COUNT);
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 105L)));
+
+        //straight onto the side, matching would never leave it there
+        book.getBidBookSide().addLimitOrder(new LimitOrderFlyweight(Side.BUY, 106L, 10L, 1));
+        book.onCancelOrder(2);
+
+        assertEquals(1L, book.getInvariantViolations(BookInvariant.CROSSED_BOOK));
+    }
+
+    @Test
+    public void testCountsSelfTrades() {
+        book.setInvariantMode(BookInvariantMode.COUNT);
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 105L)));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 103L, 50L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 103L, 50L, 2));
+
+        assertEquals(1L, book.getInvariantViolations(BookInvariant.SELF_TRADE));
+        assertEquals(1L, book.getInvariantViolations());
+    }
+
+    @Test
+    public void testMarketDataBidsAreBuysAndFillOurAsks() {
+        book.setInvariantMode(BookInvariantMode.FAIL_FAST);
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 105L)));
+        assertEquals(Side.BUY, book.getBidBookSide().getFirstLevel().getMarketDataOrder().getSide());
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 102L, 50L, 1));
+
+        //the market bids through our offer, we're filled and the book isn't left crossed
+        book.onBookUpdate(wrapBufferInDecoder(tick(103L, 105L)));
+
+        verify(orderChannel).publishFill(eq(50L), eq(103L), any());
+        assertNull(book.getRestingOrder(1));
+        assertEquals(0L, book.getInvariantViolations());
+    }
+}
@@ -0,0 +1,232 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderBookCycleSequencer;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.*;
+
+public class BookPublishingTest {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookDecoder = new BookUpdateDecoder();
+    private final BidBookUpdateDecoder bidDecoder = new BidBookUpdateDecoder();
+    private final AskBookUpdateDecoder askDecoder = new AskBookUpdateDecoder();
+
+    //template ids of what the book published, and the levels per side of the last one
+    private final List<Integer> published = new ArrayList<>();
+    private int lastBidLevels = -1;
+    private int lastAskLevels = -1;
+    private DirectBuffer lastBuffer;
+
+    private final OrderBook book = new OrderBook(new MarketDataChannel(this::onPublished), Mockito.mock(OrderChannel.class));
+
+    private void onPublished(final DirectBuffer buffer){
+        header.wrap(buffer, 0);
+        published.add(header.templateId());
+        lastBuffer = buffer;
+        lastBidLevels = -1;
+        lastAskLevels = -1;
+
+        switch (header.templateId()){
+            case BookUpdateDecoder.TEMPLATE_ID:
+                bookDecoder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                final BookUpdateDecoder.BidBookDecoder bids = bookDecoder.bidBook();
+                lastBidLevels = bids.count();
+                //groups are read in order, the asks come after every bid
+                while (bids.hasNext()) {
+                    bids.next();
+                }
+                lastAskLevels = bookDecoder.askBook().count();
+                break;
+            case BidBookUpdateDecoder.TEMPLATE_ID:
+                bidDecoder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                assertEquals(Source.ORDERBOOK, bidDecoder.source());
+                lastBidLevels = bidDecoder.bidBook().count();
+                break;
+            case AskBookUpdateDecoder.TEMPLATE_ID:
+                askDecoder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                assertEquals(Source.ORDERBOOK, askDecoder.source());
+                lastAskLevels = askDecoder.askBook().count();
+                break;
+            default:
+                fail("Unexpected template " + header.templateId());
+        }
+    }
+
+    private UnsafeBuffer tick(){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(3)
+                .next().price(100L).size(100L)
+                .next().price(96L).size(200L)
+                .next().price(93L).size(300L);
+
+        encoder.askBookCount(2)
+                .next().price(101L).size(100L)
+                .next().price(115L).size(200L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testFullBookAfterEachChange() {
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+        assertTrue(published.isEmpty());
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 98L, 50L, 1));
+        assertEquals(List.of(BookUpdateDecoder.TEMPLATE_ID), published);
+        assertEquals(4, lastBidLevels);
+        assertEquals(2, lastAskLevels);
+
+        //nothing to cancel, nothing changed
+        book.onCancelOrder(2);
+        assertEquals(1, published.size());
+
+        book.onCancelOrder(1);
+        assertEquals(2, published.size());
+        assertEquals(3, lastBidLevels);
+    }
+
+    /**
+     * @param levels per side, bids from 1000 down and asks from 1001 up
+     */
+    private UnsafeBuffer deepTick(final int levels){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(64 + 2 * levels * 16));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        final var bidBook = encoder.bidBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            bidBook.next().price(1000L - i).size(100L);
+        }
+        final var askBook = encoder.askBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            askBook.next().price(1001L + i).size(100L);
+        }
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testDeepBookIsPublishedWhole() {
+        //well past what fits in the publisher's first buffer
+        book.onBookUpdate(wrapBufferInDecoder(deepTick(400)));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 500L, 50L, 1));
+        assertEquals(List.of(BookUpdateDecoder.TEMPLATE_ID), published);
+        assertEquals(401, lastBidLevels);
+        assertEquals(400, lastAskLevels);
+
+        book.setBookPublishMode(BookPublishMode.CHANGED_SIDES);
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 2000L, 50L, 2));
+        assertEquals(AskBookUpdateDecoder.TEMPLATE_ID, (int) published.get(1));
+        assertEquals(401, lastAskLevels);
+    }
+
+    @Test
+    public void testOnlyTheSideThatChanged() {
+        book.setBookPublishMode(BookPublishMode.CHANGED_SIDES);
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 98L, 50L, 1));
+        assertEquals(List.of(BidBookUpdateDecoder.TEMPLATE_ID), published);
+        assertEquals(4, lastBidLevels);
+
+        //takes all of 101
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 100L, 2));
+        assertEquals(List.of(BidBookUpdateDecoder.TEMPLATE_ID, AskBookUpdateDecoder.TEMPLATE_ID), published);
+        assertEquals(1, lastAskLevels);
+    }
+
+    @Test
+    public void testBookIgnoresItsOwnSideUpdates() {
+        book.setBookPublishMode(BookPublishMode.CHANGED_SIDES);
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 50L, 1));
+
+        header.wrap(lastBuffer, 0);
+        bidDecoder.wrap(lastBuffer, header.encodedLength(), header.blockLength(), header.version());
+        book.onBidBook(bidDecoder);
+
+        assertEquals(250L, book.getBidBookSide().getLevel(96L).getQuantity());
+        assertEquals(3, book.getBidBookSide().getMarketDataOrderCount());
+    }
+
+    @Test
+    public void testDepthIsCapped() {
+        book.setMaxPublishedDepth(2);
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 120L, 50L, 1));
+
+        assertEquals(2, lastBidLevels);
+        assertEquals(2, lastAskLevels);
+        assertEquals(3, book.getAskBookSide().getLevelCount());
+    }
+
+    @Test
+    public void testConflatedIntoOneUpdatePerCycle() {
+        book.setConflateBookUpdates(true);
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+
+        book.beginCycle();
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 98L, 50L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 97L, 50L, 2));
+        book.onCancelOrder(1);
+        assertTrue(published.isEmpty());
+        book.endCycle();
+
+        assertEquals(List.of(BookUpdateDecoder.TEMPLATE_ID), published);
+        assertEquals(4, lastBidLevels);
+
+        //an event on its own is still a cycle
+        book.onCancelOrder(2);
+        assertEquals(2, published.size());
+        assertEquals(2L, book.getBookUpdatesPublished());
+    }
+
+    @Test
+    public void testCycleSequencerConflatesEverythingSentWhileACommandIsDispatched() {
+        book.setConflateBookUpdates(true);
+        book.setBookPublishMode(BookPublishMode.CHANGED_SIDES);
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+
+        //stands in for the algo reacting to a tick with a few orders
+        final OrderBookCycleSequencer sequencer = new OrderBookCycleSequencer(buffer -> {
+            book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 98L, 50L, 1));
+            book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 110L, 50L, 2));
+            book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 97L, 50L, 3));
+        }, book);
+
+        sequencer.onCommand(new UnsafeBuffer(new byte[0]));
+
+        assertEquals(List.of(BidBookUpdateDecoder.TEMPLATE_ID, AskBookUpdateDecoder.TEMPLATE_ID), published);
+    }
+}
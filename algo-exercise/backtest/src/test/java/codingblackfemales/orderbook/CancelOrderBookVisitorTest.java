@@ -96,6 +96,91 @@ public class CancelOrderBookVisitorTest {
         Assert.assertEquals( 5_000L, book.getAskBookSide().getFirstLevel().next().next().getQuantity());
     }
 
+    @Test
+    public void testCancelLastOrderAtLevelRemovesLevel(){
+
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick1()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 98L, 500L, 1));
+
+        Assert.assertEquals(4, book.getBidBookSide().getLevelCount());
+        Assert.assertEquals(98L, book.getRestingOrder(1).getLevel().getPrice());
+
+        book.onCancelOrder(1);
+
+        Assert.assertEquals(3, book.getBidBookSide().getLevelCount());
+        Assert.assertNull(book.getBidBookSide().getLevel(98L));
+        Assert.assertNull(book.getRestingOrder(1));
+    }
+
+    @Test
+    public void testCancelUnknownOrderLeavesBookAlone(){
+
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
 
+        book.onBookUpdate(wrapBufferInDecoder(tick1()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 500L, 1));
+
+        book.onCancelOrder(2);
+
+        Assert.assertEquals( 700L, book.getBidBookSide().getFirstLevel().next().getQuantity());
+        Assert.assertEquals(1, book.getBidBookSide().getLimitOrderCount());
+
+        book.onCancelOrder(1);
+        book.onCancelOrder(1);
+
+        Assert.assertEquals( 200L, book.getBidBookSide().getFirstLevel().next().getQuantity());
+        Assert.assertEquals(0, book.getBidBookSide().getLimitOrderCount());
+    }
+
+    @Test
+    public void testFilledOrderCanNoLongerBeCancelled(){
+
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick1()));
+
+        //joins the back of the queue at the best bid
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 100L, 50L, 1));
+        Assert.assertNotNull(book.getRestingOrder(1));
+
+        //takes out the whole best bid, including our order
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, 150L, 2));
+
+        Assert.assertNull(book.getRestingOrder(1));
+        Assert.assertNull(book.getBidBookSide().getLevel(100L));
+
+        book.onCancelOrder(1);
+
+        Assert.assertEquals(2, book.getBidBookSide().getLevelCount());
+    }
+
+    @Test
+    public void testCancelFromTheMiddleOfTheQueue(){
+
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick1()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 10L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 20L, 2));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 30L, 3));
+
+        book.onCancelOrder(2);
+
+        final OrderBookLevel level = book.getBidBookSide().getLevel(96L);
+        Assert.assertEquals(240L, level.getQuantity());
+        Assert.assertEquals(1L, ((LimitOrderFlyweight) level.getFirstOrder().next()).getOrderId());
+        Assert.assertEquals(3L, ((LimitOrderFlyweight) level.getFirstOrder().next().next()).getOrderId());
+
+        book.onCancelOrder(3);
+        book.onCancelOrder(1);
+
+        Assert.assertEquals(200L, level.getQuantity());
+        Assert.assertNull(level.getFirstOrder().next());
+    }
 
 }
@@ -0,0 +1,135 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.*;
+
+public class MarketDataReconciliationTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
+
+    /**
+     * @param bids price, size pairs
+     */
+    private UnsafeBuffer tick(final long... bids){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        bookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        bookUpdateEncoder.venue(Venue.XLON);
+        bookUpdateEncoder.instrumentId(123L);
+        bookUpdateEncoder.source(Source.STREAM);
+
+        final var bidBook = bookUpdateEncoder.bidBookCount(bids.length / 2);
+        for (int i = 0; i < bids.length; i += 2) {
+            bidBook.next().price(bids[i]).size(bids[i + 1]);
+        }
+
+        bookUpdateEncoder.askBookCount(2)
+                .next().price(101L).size(101L)
+                .next().price(115L).size(200L);
+
+        bookUpdateEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    private OrderBook book(final MarketDataMode mode){
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+        book.setMarketDataMode(mode);
+        return book;
+    }
+
+    @Test
+    public void testOurOrderKeepsItsPlaceWhenTheMarketChangesSize(){
+        final OrderBook book = book(MarketDataMode.RECONCILE);
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 500L, 1));
+
+        final OrderBookLevel level = book.getBidBookSide().getLevel(96L);
+        final MarketDataOrderFlyweight marketDataOrder = level.getMarketDataOrder();
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 150L, 93L, 300L)));
+
+        assertSame(level, book.getBidBookSide().getLevel(96L));
+        assertEquals(650L, level.getQuantity());
+        assertSame(marketDataOrder, level.getFirstOrder());
+        assertEquals(150L, level.getFirstOrder().getQuantity());
+        assertEquals(1L, ((LimitOrderFlyweight) level.getFirstOrder().next()).getOrderId());
+    }
+
+    @Test
+    public void testReplaceModePutsOurOrderAtTheFront(){
+        final OrderBook book = book(MarketDataMode.REPLACE);
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 500L, 1));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 150L, 93L, 300L)));
+
+        final OrderBookLevel level = book.getBidBookSide().getLevel(96L);
+        assertEquals(650L, level.getQuantity());
+        assertEquals(1L, ((LimitOrderFlyweight) level.getFirstOrder()).getOrderId());
+    }
+
+    @Test
+    public void testLevelsTheUpdateDoesNotMentionAreRemoved(){
+        final OrderBook book = book(MarketDataMode.RECONCILE);
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 500L, 1));
+
+        //93 goes, 96 only has our order left and 95 is new
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 95L, 50L)));
+
+        final OrderBookSide bids = book.getBidBookSide();
+        assertEquals(3, bids.getLevelCount());
+        assertNull(bids.getLevel(93L));
+        assertEquals(500L, bids.getLevel(96L).getQuantity());
+        assertNull(bids.getLevel(96L).getMarketDataOrder());
+        assertEquals(50L, bids.getLevel(95L).getQuantity());
+        assertEquals(2, bids.getMarketDataOrderCount());
+
+        //the market comes back to 96, behind us
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 70L)));
+
+        final OrderBookLevel level = bids.getLevel(96L);
+        assertEquals(570L, level.getQuantity());
+        assertEquals(1L, ((LimitOrderFlyweight) level.getFirstOrder()).getOrderId());
+        assertSame(level.getMarketDataOrder(), level.getFirstOrder().next());
+        assertNull(bids.getLevel(95L));
+    }
+
+    @Test
+    public void testUnchangedUpdateLeavesTheBookAlone(){
+        final OrderBook book = book(MarketDataMode.RECONCILE);
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+
+        final OrderBookLevel first = book.getBidBookSide().getFirstLevel();
+        final MarketDataOrderFlyweight order = first.getMarketDataOrder();
+        final long levelsCreated = book.getPools().getLevelsCreated();
+
+        for (int i = 0; i < 10; i++) {
+            book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        }
+
+        assertSame(first, book.getBidBookSide().getFirstLevel());
+        assertSame(order, first.getMarketDataOrder());
+        assertEquals(100L, first.getQuantity());
+        assertEquals(3, book.getBidBookSide().getLevelCount());
+        assertEquals(levelsCreated, book.getPools().getLevelsCreated());
+    }
+}
@@ -0,0 +1,93 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.*;
+
+public class OrderBookPoolsTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
+    private final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private UnsafeBuffer tick(final long bestBid){
+        bookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        bookUpdateEncoder.venue(Venue.XLON);
+        bookUpdateEncoder.instrumentId(123L);
+        bookUpdateEncoder.source(Source.STREAM);
+
+        bookUpdateEncoder.bidBookCount(3)
+                .next().price(bestBid).size(100L)
+                .next().price(bestBid - 1).size(200L)
+                .next().price(bestBid - 2).size(300L);
+
+        bookUpdateEncoder.askBookCount(3)
+                .next().price(bestBid + 2).size(100L)
+                .next().price(bestBid + 3).size(200L)
+                .next().price(bestBid + 4).size(300L);
+
+        bookUpdateEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testReleasedObjectsAreOnlyReusedOnceTheEventIsDone() {
+        final ObjectPool<LimitOrderFlyweight> pool = new ObjectPool<>(LimitOrderFlyweight::new, LimitOrderFlyweight::reset, 1);
+
+        final LimitOrderFlyweight first = pool.acquire();
+        first.init(Side.BUY, 100L, 10L, 1L);
+
+        pool.releaseLater(first);
+        assertEquals(1, pool.pending());
+
+        final LimitOrderFlyweight second = pool.acquire();
+        assertNotSame(first, second);
+        assertEquals(2, pool.created());
+
+        pool.recycle();
+        assertSame(first, pool.acquire());
+        assertNull(first.getLevel());
+        assertEquals(0, pool.pending());
+    }
+
+    @Test
+    public void testLongRunningBookStopsAllocating() {
+        final OrderBookPools pools = new OrderBookPools(16, 16);
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class), pools);
+
+        long orderId = 1;
+        long ordersCreated = 0;
+        long levelsCreated = 0;
+
+        for (int i = 0; i < 500; i++) {
+            final long bestBid = 100 + (i % 7);
+            book.onBookUpdate(wrapBufferInDecoder(tick(bestBid)));
+
+            //rest a passive order, trade one aggressively and cancel the passive one
+            book.onLimitOrder(book.newLimitOrder(Side.BUY, bestBid - 1, 50L, orderId));
+            book.onLimitOrder(book.newLimitOrder(Side.BUY, bestBid + 2, 10L, orderId + 1));
+            book.onCancelOrder(orderId);
+            orderId += 2;
+
+            if (i == 100) {
+                ordersCreated = pools.getOrdersCreated();
+                levelsCreated = pools.getLevelsCreated();
+            }
+        }
+
+        assertEquals(ordersCreated, pools.getOrdersCreated());
+        assertEquals(levelsCreated, pools.getLevelsCreated());
+        assertEquals(0, book.getBidBookSide().getLimitOrderCount());
+    }
+}
@@ -0,0 +1,179 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.action.CancelChildOrder;
+import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import messages.marketdata.*;
+import messages.order.AckedOrderDecoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrderBookRegistryTest {
+
+    private final TestNetwork network = new TestNetwork();
+    private final DefaultSequencer sequencer = new DefaultSequencer(network);
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+    private final AckedOrderDecoder acked = new AckedOrderDecoder();
+
+    //order ids as they're acked, and (instrumentId, venue) of every book update the books publish
+    private final List<Long> acks = new ArrayList<>();
+    private final List<String> published = new ArrayList<>();
+
+    public OrderBookRegistryTest() {
+        network.addConsumer(this::record);
+    }
+
+    private void record(final DirectBuffer buffer){
+        header.wrap(buffer, 0);
+        if (header.schemaId() == AckedOrderDecoder.SCHEMA_ID && header.templateId() == AckedOrderDecoder.TEMPLATE_ID) {
+            acks.add(acked.wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).orderId());
+        } else if (header.schemaId() == BookUpdateDecoder.SCHEMA_ID && header.templateId() == BookUpdateDecoder.TEMPLATE_ID) {
+            bookUpdate.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+            if (bookUpdate.source() == Source.ORDERBOOK) {
+                published.add(bookUpdate.instrumentId() + "@" + bookUpdate.venue());
+            }
+        }
+    }
+
+    private void tick(final long instrumentId, final Venue venue, final long bestBid){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder());
+        encoder.venue(venue);
+        encoder.instrumentId(instrumentId);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(bestBid).size(100L)
+                .next().price(bestBid - 1).size(200L);
+
+        encoder.askBookCount(2)
+                .next().price(bestBid + 2).size(100L)
+                .next().price(bestBid + 3).size(200L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        sequencer.onCommand(directBuffer);
+    }
+
+    private void order(final long instrumentId, final messages.order.Venue venue, final long price){
+        new CreateChildOrder(Side.BUY, 50L, price, instrumentId, venue).apply(sequencer);
+    }
+
+    private void cancel(final long orderId){
+        new CancelChildOrder(new ChildOrder(Side.BUY, orderId, 50L, 0L, OrderState.ACKED)).apply(sequencer);
+    }
+
+    @Test
+    public void testMarketDataAndOrdersGoToTheirOwnBook() {
+        final OrderBookRegistry registry = new OrderBookRegistry(sequencer);
+        network.addConsumer(registry);
+
+        tick(1L, Venue.XLON, 100L);
+        tick(2L, Venue.XLON, 200L);
+        tick(1L, Venue.XPAR, 300L);
+
+        assertEquals(3, registry.getBookCount());
+
+        final OrderBook book = registry.getBook(2L, Venue.XLON);
+        assertEquals(2L, book.getInstrumentId());
+        assertEquals(Venue.XLON, book.getVenue());
+        assertEquals(200L, book.getBidBookSide().getFirstLevel().getPrice());
+        assertEquals(300L, registry.getBook(1L, Venue.XPAR).getBidBookSide().getFirstLevel().getPrice());
+
+        order(2L, messages.order.Venue.XLON, 198L);
+        assertEquals(1, acks.size());
+
+        final long orderId = acks.get(0);
+        assertNotNull(book.getRestingOrder(orderId));
+        assertNull(registry.getBook(1L, Venue.XLON).getRestingOrder(orderId));
+        assertEquals(1, registry.getRestingOrderCount());
+
+        //the book stamps what it publishes with its own instrument
+        assertEquals(List.of("2@XLON"), published);
+
+        cancel(orderId);
+        assertNull(book.getRestingOrder(orderId));
+        assertEquals(0, registry.getRestingOrderCount());
+        assertEquals(2, book.getBidBookSide().getLevelCount());
+    }
+
+    @Test
+    public void testOrderForABookWithNoMarketDataYet() {
+        final OrderBookRegistry registry = new OrderBookRegistry(sequencer);
+        network.addConsumer(registry);
+
+        order(7L, messages.order.Venue.XAMS, 10L);
+
+        assertEquals(1, registry.getBookCount());
+        assertNotNull(registry.getBook(7L, Venue.XAMS).getRestingOrder(acks.get(0)));
+    }
+
+    @Test
+    public void testOrderWithNoVenueIsNotRouted() {
+        final OrderBookRegistry registry = new OrderBookRegistry(sequencer);
+        network.addConsumer(registry);
+
+        new CreateChildOrder(Side.BUY, 50L, 10L).apply(sequencer);
+        new CreateChildOrder(Side.BUY, 50L, 11L).apply(sequencer);
+
+        assertEquals(0, registry.getBookCount());
+        assertTrue(acks.isEmpty());
+        assertEquals(2L, registry.getUnroutedMessageCount());
+    }
+
+    @Test
+    public void testShardsSplitTheInstruments() {
+        final OrderBookRegistry[] shards = OrderBookRegistry.shards(sequencer, 2);
+        network.addConsumer(shards[0]);
+        network.addConsumer(shards[1]);
+
+        for (long instrumentId = 1; instrumentId <= 6; instrumentId++) {
+            tick(instrumentId, Venue.XLON, 100L);
+        }
+
+        assertEquals(3, shards[0].getBookCount());
+        assertEquals(3, shards[1].getBookCount());
+        for (OrderBookRegistry shard : shards) {
+            for (OrderBook book : shard.getBooks()) {
+                assertTrue(shard.owns(book.getInstrumentId()));
+            }
+        }
+
+        //only the owning shard acks, and only it can cancel
+        order(3L, messages.order.Venue.XLON, 98L);
+        assertEquals(1, acks.size());
+
+        final OrderBookRegistry owner = shards[OrderBookRegistry.shardOf(3L, 2)];
+        assertEquals(1, owner.getRestingOrderCount());
+
+        cancel(acks.get(0));
+        assertEquals(0, owner.getRestingOrderCount());
+        assertNull(owner.getBook(3L, Venue.XLON).getRestingOrder(acks.get(0)));
+    }
+
+    @Test
+    public void testNewBooksAreConfigured() {
+        final OrderBookRegistry registry = new OrderBookRegistry(sequencer);
+        registry.setBookConfigurer(book -> book.setBookPublishMode(BookPublishMode.CHANGED_SIDES));
+        network.addConsumer(registry);
+
+        tick(1L, Venue.XLON, 100L);
+
+        assertEquals(BookPublishMode.CHANGED_SIDES, registry.getBook(1L, Venue.XLON).getBookPublishMode());
+    }
+}
@@ -0,0 +1,89 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import messages.order.Side;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrderBookSideTest {
+
+    private static void assertLevels(final OrderBookSide side, final long... prices) {
+        OrderBookLevel level = side.getFirstLevel();
+        OrderBookLevel previous = null;
+        for (long price : prices) {
+            assertNotNull(level);
+            assertEquals(price, level.getPrice());
+            assertSame(previous, level.previous());
+            assertSame(side.getFirstLevel(), level.first());
+            previous = level;
+            level = level.next();
+        }
+        assertNull(level);
+        assertSame(previous, side.getLastLevel());
+        assertEquals(prices.length, side.getFirstLevel().size());
+    }
+
+    @Test
+    public void testNewLevelsGoInPriceOrderWhereverTheyLand() {
+        final AskBookSide asks = new AskBookSide();
+        asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 1100, 100));
+        asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 1300, 100));
+        //new best, in between and new deepest
+        asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 1000, 100));
+        asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 1200, 100));
+        asks.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 1400, 50, 1));
+
+        assertLevels(asks, 1000, 1100, 1200, 1300, 1400);
+        assertEquals(50, asks.getLevel(1400).getQuantity());
+
+        final BidBookSide bids = new BidBookSide();
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 98, 100));
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 100, 100));
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 99, 100));
+        bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 99, 20));
+
+        assertLevels(bids, 100, 99, 98);
+        assertEquals(120, bids.getLevel(99).getQuantity());
+        assertNull(bids.getLevel(97));
+    }
+
+    @Test
+    public void testRemovingLevelsKeepsTheListAndIndexInStep() {
+        final BidBookSide bids = new BidBookSide();
+        for (long price = 100; price > 90; price--) {
+            bids.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, price, 10));
+        }
+
+        assertSame(bids.getFirstLevel(), bids.getLevel(95).remove());
+        assertEquals(bids.getLevel(99), bids.getLevel(100).remove());
+        bids.getLevel(91).remove();
+
+        assertLevels(bids, 99, 98, 97, 96, 94, 93, 92);
+
+        bids.removeMarketDataOrders();
+        assertNull(bids.getFirstLevel());
+        assertEquals(0, bids.getLevelCount());
+    }
+
+    @Test
+    public void testDeepBookIsNotQuadratic() {
+        final AskBookSide asks = new AskBookSide();
+        final int depth = 20_000;
+
+        final long start = System.nanoTime();
+        //worst case for a list walk, every level is the new deepest and then every add lands at the back
+        for (int i = 0; i < depth; i++) {
+            asks.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 1_000 + i, 10));
+        }
+        for (int i = 0; i < depth; i++) {
+            asks.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 1_000 + depth - 1, 1, i));
+        }
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(depth, asks.getLevelCount());
+        assertEquals(10 + depth, asks.getLastLevel().getQuantity());
+        assertTrue("took " + elapsedMillis + "ms", elapsedMillis < 5_000);
+    }
+}
@@ -0,0 +1,201 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.marketdata.*;
+import messages.order.OrdType;
+import messages.order.Side;
+import messages.order.TimeInForce;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class OrderTypeTest {
+
+    private final OrderChannel orderChannel = Mockito.mock(OrderChannel.class);
+    private final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), orderChannel);
+
+    private UnsafeBuffer tick(){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(100L).size(100L)
+                .next().price(96L).size(200L);
+
+        encoder.askBookCount(2)
+                .next().price(101L).size(100L)
+                .next().price(115L).size(200L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Before
+    public void setUp() {
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+    }
+
+    private void buy(final long price, final long quantity, final OrdType ordType, final TimeInForce timeInForce, final boolean postOnly){
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, price, quantity, 1).instructions(ordType, timeInForce, postOnly));
+    }
+
+    @Test
+    public void testDayOrderRestsWhatItCantMatch() {
+        buy(101L, 150L, OrdType.LIMIT, TimeInForce.DAY, false);
+
+        final InOrder inOrder = Mockito.inOrder(orderChannel);
+        inOrder.verify(orderChannel).publishAck(1);
+        inOrder.verify(orderChannel).publishFill(Mockito.eq(100L), Mockito.eq(101L), any());
+        verify(orderChannel, never()).publishCancelAck(anyLong());
+
+        final LimitOrderFlyweight resting = book.getRestingOrder(1);
+        assertNotNull(resting);
+        assertEquals(50L, resting.getQuantity());
+        assertEquals(101L, book.getBidBookSide().getFirstLevel().getPrice());
+        assertEquals(115L, book.getAskBookSide().getFirstLevel().getPrice());
+    }
+
+    @Test
+    public void testUnsetInstructionsAreADayLimit() {
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 150L, 1).instructions(OrdType.NULL_VAL, TimeInForce.NULL_VAL, false));
+
+        assertTrue(book.getRestingOrder(1).canRest());
+        assertEquals(50L, book.getRestingOrder(1).getQuantity());
+    }
+
+    @Test
+    public void testIocCancelsWhatItCantMatch() {
+        buy(101L, 150L, OrdType.LIMIT, TimeInForce.IOC, false);
+
+        final InOrder inOrder = Mockito.inOrder(orderChannel);
+        inOrder.verify(orderChannel).publishAck(1);
+        inOrder.verify(orderChannel).publishFill(Mockito.eq(100L), Mockito.eq(101L), any());
+        inOrder.verify(orderChannel).publishCancelAck(1);
+
+        assertNull(book.getRestingOrder(1));
+        assertEquals(100L, book.getBidBookSide().getFirstLevel().getPrice());
+    }
+
+    @Test
+    public void testIocWithNothingToMatchIsCancelled() {
+        buy(99L, 50L, OrdType.LIMIT, TimeInForce.IOC, false);
+
+        final InOrder inOrder = Mockito.inOrder(orderChannel);
+        inOrder.verify(orderChannel).publishAck(1);
+        inOrder.verify(orderChannel).publishCancelAck(1);
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), any());
+        assertEquals(2, book.getBidBookSide().getLevelCount());
+    }
+
+    @Test
+    public void testMarketOrderSweepsEveryLevel() {
+        buy(0L, 250L, OrdType.MARKET, TimeInForce.DAY, false);
+
+        final InOrder inOrder = Mockito.inOrder(orderChannel);
+        inOrder.verify(orderChannel).publishAck(1);
+        inOrder.verify(orderChannel).publishFill(Mockito.eq(100L), Mockito.eq(101L), any());
+        inOrder.verify(orderChannel).publishFill(Mockito.eq(150L), Mockito.eq(115L), any());
+        verify(orderChannel, never()).publishCancelAck(anyLong());
+
+        assertEquals(1, book.getAskBookSide().getLevelCount());
+        assertEquals(50L, book.getAskBookSide().getFirstLevel().getQuantity());
+    }
+
+    @Test
+    public void testMarketOrderNeverRests() {
+        buy(0L, 400L, OrdType.MARKET, TimeInForce.DAY, false);
+
+        verify(orderChannel).publishFill(Mockito.eq(200L), Mockito.eq(115L), any());
+        verify(orderChannel).publishCancelAck(1);
+
+        assertNull(book.getRestingOrder(1));
+        assertNull(book.getAskBookSide().getFirstLevel());
+        assertEquals(100L, book.getBidBookSide().getFirstLevel().getPrice());
+    }
+
+    @Test
+    public void testFokThatCantFillInFullDoesntTrade() {
+        buy(115L, 350L, OrdType.LIMIT, TimeInForce.FOK, false);
+
+        final InOrder inOrder = Mockito.inOrder(orderChannel);
+        inOrder.verify(orderChannel).publishAck(1);
+        inOrder.verify(orderChannel).publishCancelAck(1);
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), any());
+
+        assertEquals(2, book.getAskBookSide().getLevelCount());
+        assertEquals(100L, book.getAskBookSide().getFirstLevel().getQuantity());
+    }
+
+    @Test
+    public void testFokThatCanFillInFull() {
+        buy(115L, 300L, OrdType.LIMIT, TimeInForce.FOK, false);
+
+        verify(orderChannel).publishFill(Mockito.eq(100L), Mockito.eq(101L), any());
+        verify(orderChannel).publishFill(Mockito.eq(200L), Mockito.eq(115L), any());
+        verify(orderChannel, never()).publishCancelAck(anyLong());
+        assertNull(book.getAskBookSide().getFirstLevel());
+    }
+
+    @Test
+    public void testFokOnlyCountsLevelsWithinItsLimit() {
+        buy(101L, 150L, OrdType.LIMIT, TimeInForce.FOK, false);
+
+        verify(orderChannel).publishCancelAck(1);
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void testPostOnlyThatWouldCrossIsCancelled() {
+        buy(101L, 50L, OrdType.LIMIT, TimeInForce.DAY, true);
+
+        final InOrder inOrder = Mockito.inOrder(orderChannel);
+        inOrder.verify(orderChannel).publishAck(1);
+        inOrder.verify(orderChannel).publishCancelAck(1);
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), any());
+
+        assertNull(book.getRestingOrder(1));
+        assertEquals(100L, book.getAskBookSide().getFirstLevel().getQuantity());
+    }
+
+    @Test
+    public void testPostOnlyThatDoesntCrossRests() {
+        buy(99L, 50L, OrdType.LIMIT, TimeInForce.DAY, true);
+
+        verify(orderChannel).publishAck(1);
+        verify(orderChannel, never()).publishCancelAck(anyLong());
+        assertEquals(50L, book.getRestingOrder(1).getQuantity());
+    }
+
+    @Test
+    public void testSweepFillsOurRestingOrdersToo() {
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 101L, 30L, 2));
+        buy(101L, 120L, OrdType.LIMIT, TimeInForce.IOC, false);
+
+        //the market's 100 was there first, then 20 of our 30
+        final InOrder inOrder = Mockito.inOrder(orderChannel);
+        inOrder.verify(orderChannel).publishFill(Mockito.eq(100L), Mockito.eq(101L), any());
+        inOrder.verify(orderChannel, Mockito.times(2)).publishFill(Mockito.eq(20L), Mockito.eq(101L), any());
+
+        assertEquals(10L, book.getRestingOrder(2).getQuantity());
+        assertEquals(10L, book.getAskBookSide().getFirstLevel().getQuantity());
+    }
+}
@@ -0,0 +1,140 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class PassiveFillTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
+
+    private final OrderChannel orderChannel = Mockito.mock(OrderChannel.class);
+    private final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), orderChannel);
+
+    @Before
+    public void setUp(){
+        book.setMarketDataMode(MarketDataMode.RECONCILE);
+        book.setSimulatePassiveFills(true);
+    }
+
+    /**
+     * @param bids price, size pairs
+     */
+    private UnsafeBuffer tick(final long... bids){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        bookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        bookUpdateEncoder.venue(Venue.XLON);
+        bookUpdateEncoder.instrumentId(123L);
+        bookUpdateEncoder.source(Source.STREAM);
+
+        final var bidBook = bookUpdateEncoder.bidBookCount(bids.length / 2);
+        for (int i = 0; i < bids.length; i += 2) {
+            bidBook.next().price(bids[i]).size(bids[i + 1]);
+        }
+
+        bookUpdateEncoder.askBookCount(1)
+                .next().price(101L).size(101L);
+
+        bookUpdateEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testFilledOnceTheVolumeAheadHasTraded(){
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 150L, 1));
+
+        assertEquals(200L, book.getRestingOrder(1).getVolumeAhead());
+
+        //new volume joins behind us
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 400L, 93L, 300L)));
+        assertEquals(200L, book.getRestingOrder(1).getVolumeAhead());
+
+        //300 trades, the 200 ahead of us and 100 of ours
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 100L, 93L, 300L)));
+
+        verify(orderChannel).publishFill(eq(100L), eq(96L), any());
+
+        final LimitOrderFlyweight order = book.getRestingOrder(1);
+        assertEquals(50L, order.getQuantity());
+        assertEquals(0L, order.getVolumeAhead());
+        assertEquals(150L, book.getBidBookSide().getLevel(96L).getQuantity());
+
+        //the rest trades
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 20L, 93L, 300L)));
+
+        verify(orderChannel).publishFill(eq(50L), eq(96L), any());
+        assertNull(book.getRestingOrder(1));
+        assertEquals(20L, book.getBidBookSide().getLevel(96L).getQuantity());
+    }
+
+    @Test
+    public void testSmallerReductionsOnlyMoveUsUpTheQueue(){
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 150L, 1));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 120L, 93L, 300L)));
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 60L, 93L, 300L)));
+
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), any());
+        assertEquals(60L, book.getRestingOrder(1).getVolumeAhead());
+        assertEquals(150L, book.getRestingOrder(1).getQuantity());
+    }
+
+    @Test
+    public void testLevelGoneFromInsideTheUpdateHasTraded(){
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 150L, 1));
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 300L, 93L, 300L)));
+
+        //96 is gone but 93 is still there
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 93L, 300L)));
+
+        verify(orderChannel).publishFill(eq(100L), eq(96L), any());
+        assertEquals(50L, book.getRestingOrder(1).getQuantity());
+    }
+
+    @Test
+    public void testLevelPastTheFeedsDepthHasNotTraded(){
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 93L, 150L, 1));
+
+        //the book moves up and 93 drops out of the bottom
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 99L, 50L, 96L, 200L)));
+
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), any());
+        assertEquals(300L, book.getRestingOrder(1).getVolumeAhead());
+        assertEquals(150L, book.getBidBookSide().getLevel(93L).getQuantity());
+    }
+
+    @Test
+    public void testNoPassiveFillsWhenSwitchedOff(){
+        book.setSimulatePassiveFills(false);
+
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 200L, 93L, 300L)));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 96L, 150L, 1));
+        book.onBookUpdate(wrapBufferInDecoder(tick(100L, 100L, 96L, 10L, 93L, 300L)));
+
+        verify(orderChannel, never()).publishFill(anyLong(), anyLong(), any());
+        assertEquals(160L, book.getBidBookSide().getLevel(96L).getQuantity());
+    }
+}
@@ -0,0 +1,156 @@
+package codingblackfemales.orderbook.channel;
+
+import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.sequencer.Sequencer;
+import messages.marketdata.*;
+import messages.order.*;
+import messages.order.MessageHeaderDecoder;
+import messages.marketdata.Venue;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static codingblackfemales.orderbook.MatchingOrderBookVisitorTest.wrapBufferInDecoder;
+import static org.junit.Assert.*;
+
+public class OrderChannelTest {
+
+    /**
+     * Records each report as "template:orderId[:quantity@price]".
+     */
+    private static class RecordingSequencer implements Sequencer {
+        private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        private final AckedOrderDecoder acked = new AckedOrderDecoder();
+        private final CancelAckedOrderDecoder cancelAcked = new CancelAckedOrderDecoder();
+        private final PartialFillOrderDecoder partialFill = new PartialFillOrderDecoder();
+        private final FillOrderDecoder fill = new FillOrderDecoder();
+
+        final List<String> reports = new ArrayList<>();
+        final List<DirectBuffer> buffers = new ArrayList<>();
+
+        @Override
+        public void onCommand(final DirectBuffer buffer) {
+            buffers.add(buffer);
+            reports.add(decode(buffer));
+        }
+
+        String decode(final DirectBuffer buffer) {
+            header.wrap(buffer, 0);
+            final int offset = header.encodedLength();
+            switch (header.templateId()) {
+                case AckedOrderDecoder.TEMPLATE_ID:
+                    return "ack:" + acked.wrap(buffer, offset, header.blockLength(), header.version()).orderId();
+                case CancelAckedOrderDecoder.TEMPLATE_ID:
+                    return "cancelAck:" + cancelAcked.wrap(buffer, offset, header.blockLength(), header.version()).orderId();
+                case PartialFillOrderDecoder.TEMPLATE_ID:
+                    partialFill.wrap(buffer, offset, header.blockLength(), header.version());
+                    return "partialFill:" + partialFill.orderId() + ":" + partialFill.quantity() + "@" + partialFill.price();
+                case FillOrderDecoder.TEMPLATE_ID:
+                    fill.wrap(buffer, offset, header.blockLength(), header.version());
+                    return "fill:" + fill.orderId() + ":" + fill.quantity() + "@" + fill.price();
+                default:
+                    return "unknown:" + header.templateId();
+            }
+        }
+    }
+
+    private UnsafeBuffer tick(){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, new messages.marketdata.MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(100L).size(100L)
+                .next().price(96L).size(200L);
+
+        encoder.askBookCount(2)
+                .next().price(101L).size(100L)
+                .next().price(115L).size(200L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testPartialThenFinalFill() {
+        final RecordingSequencer sequencer = new RecordingSequencer();
+        final OrderChannel channel = new OrderChannel(sequencer);
+
+        final LimitOrderFlyweight limit = new LimitOrderFlyweight(messages.order.Side.BUY, 100L, 50L, 7);
+        channel.publishFill(50L, 100L, limit);
+
+        limit.setQuantity(0);
+        channel.publishFill(50L, 101L, limit);
+
+        channel.publishAck(8);
+        channel.publishCancelAck(8);
+
+        assertEquals(List.of("partialFill:7:50@100", "fill:7:50@101", "ack:8", "cancelAck:8"), sequencer.reports);
+
+        //same buffer every time
+        for (DirectBuffer buffer : sequencer.buffers) {
+            assertSame(sequencer.buffers.get(0), buffer);
+        }
+    }
+
+    @Test
+    public void testReportSentWhileAnotherIsBeingDispatchedDoesNotOverwriteIt() {
+        final List<String> seenAfterNested = new ArrayList<>();
+
+        final RecordingSequencer sequencer = new RecordingSequencer() {
+            private OrderChannel channel;
+
+            @Override
+            public void onCommand(final DirectBuffer buffer) {
+                super.onCommand(buffer);
+                if (reports.size() == 1) {
+                    channel.publishCancelAck(99);
+                    seenAfterNested.add(decode(buffer));
+                }
+            }
+
+            {
+                channel = new OrderChannel(this);
+                channel.publishAck(1);
+            }
+        };
+
+        assertEquals(List.of("ack:1", "cancelAck:99"), sequencer.reports);
+        assertEquals(List.of("ack:1"), seenAfterNested);
+    }
+
+    @Test
+    public void testBookSendsAcksCancelAcksAndFills() {
+        final RecordingSequencer sequencer = new RecordingSequencer();
+        final OrderBook book = new OrderBook(Mockito.mock(MarketDataChannel.class), new OrderChannel(sequencer));
+
+        book.onBookUpdate(wrapBufferInDecoder(tick()));
+
+        book.onLimitOrder(new LimitOrderFlyweight(messages.order.Side.BUY, 96L, 50L, 1));
+        book.onCancelOrder(1);
+
+        //takes all of 101 and half of 115
+        book.onLimitOrder(new LimitOrderFlyweight(messages.order.Side.BUY, 115L, 200L, 2));
+
+        //our own resting sell is hit by our own buy
+        book.onLimitOrder(new LimitOrderFlyweight(messages.order.Side.SELL, 110L, 30L, 3));
+        book.onLimitOrder(new LimitOrderFlyweight(messages.order.Side.BUY, 110L, 30L, 4));
+
+        assertEquals(List.of(
+                "ack:1", "cancelAck:1",
+                "ack:2", "partialFill:2:100@101", "fill:2:100@115",
+                "ack:3",
+                "ack:4", "fill:4:30@110", "fill:3:30@110"), sequencer.reports);
+    }
+}
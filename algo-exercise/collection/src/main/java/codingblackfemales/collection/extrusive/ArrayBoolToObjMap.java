@@ -0,0 +1,70 @@
+package codingblackfemales.collection.extrusive;
+
+/**
+ * A {@link BoolToObjMap} is just two slots, no hashing required. Null values can't be stored.
+ */
+public class ArrayBoolToObjMap<TYPEOF> implements BoolToObjMap<TYPEOF> {
+
+    private TYPEOF whenFalse;
+    private TYPEOF whenTrue;
+
+    @Override
+    public TYPEOF get(final boolean b) {
+        return b ? whenTrue : whenFalse;
+    }
+
+    @Override
+    public TYPEOF getOrDefault(final boolean b, final TYPEOF obj) {
+        final TYPEOF value = get(b);
+        return value != null ? value : obj;
+    }
+
+    @Override
+    public void put(final boolean b, final TYPEOF obj) {
+        if (obj == null) {
+            throw new IllegalArgumentException("Null values can't be stored, use remove()");
+        }
+        if (b) {
+            whenTrue = obj;
+        } else {
+            whenFalse = obj;
+        }
+    }
+
+    @Override
+    public TYPEOF remove(final boolean b) {
+        final TYPEOF value = get(b);
+        if (b) {
+            whenTrue = null;
+        } else {
+            whenFalse = null;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(final boolean b) {
+        return get(b) != null;
+    }
+
+    @Override
+    public int size() {
+        return (whenFalse != null ? 1 : 0) + (whenTrue != null ? 1 : 0);
+    }
+
+    @Override
+    public void clear() {
+        whenFalse = null;
+        whenTrue = null;
+    }
+
+    @Override
+    public void forEach(final BoolObjConsumer<TYPEOF> consumer) {
+        if (whenFalse != null) {
+            consumer.accept(false, whenFalse);
+        }
+        if (whenTrue != null) {
+            consumer.accept(true, whenTrue);
+        }
+    }
+}
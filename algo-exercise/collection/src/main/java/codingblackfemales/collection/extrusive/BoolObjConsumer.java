@@ -0,0 +1,5 @@
+package codingblackfemales.collection.extrusive;
+
+public interface BoolObjConsumer<TYPEOF> {
+    public void accept(boolean b, TYPEOF obj);
+}
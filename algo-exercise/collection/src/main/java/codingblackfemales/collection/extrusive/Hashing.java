@@ -0,0 +1,63 @@
+package codingblackfemales.collection.extrusive;
+
+/**
+ * Hashing and sizing shared by the open addressing maps. Capacities are always a power of two so a slot is
+ * {@code hash & mask}, the hash is scrambled first as sequential ids (order ids, prices in ticks) would otherwise
+ * all land next to each other and make the probe runs long.
+ */
+final class Hashing {
+
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+    static final float DEFAULT_LOAD_FACTOR = 0.65f;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {
+    }
+
+    static int hash(final int key, final int mask) {
+        final int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    static int hash(final long key, final int mask) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    static int hash(final Object key, final int mask) {
+        return hash(key.hashCode(), mask);
+    }
+
+    static int capacity(final int initialCapacity) {
+        if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 0 and " + MAX_CAPACITY + ": " + initialCapacity);
+        }
+        return initialCapacity <= 2 ? 2 : Integer.highestOneBit(initialCapacity - 1) << 1;
+    }
+
+    static int grow(final int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Map can't grow past " + MAX_CAPACITY + " slots");
+        }
+        return capacity << 1;
+    }
+
+    static int resizeThreshold(final int capacity, final float loadFactor) {
+        if (loadFactor <= 0f || loadFactor >= 1f) {
+            throw new IllegalArgumentException("Load factor must be between 0 and 1 exclusive: " + loadFactor);
+        }
+        return Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Slot {@code candidate} can move back into the hole at {@code hole} if its home slot isn't cyclically in
+     * (hole, candidate], i.e. moving it doesn't put it before where a lookup starts looking for it.
+     */
+    static boolean canShiftBack(final int hole, final int candidate, final int home) {
+        if (hole <= candidate) {
+            return home <= hole || home > candidate;
+        }
+        return home <= hole && home > candidate;
+    }
+}
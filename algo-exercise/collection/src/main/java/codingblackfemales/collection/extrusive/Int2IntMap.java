@@ -1,4 +1,16 @@
 package codingblackfemales.collection.extrusive;
 
+/**
+ * An int to int map, lookups of a key that isn't there return {@link #missingValue()} (which can't be stored).
+ */
 public interface Int2IntMap {
+    int get(int i);
+    void put(int i, int value);
+    int getOrDefault(int i, int value);
+    int remove(int i);
+    boolean containsKey(int i);
+    int missingValue();
+    int size();
+    void clear();
+    void forEach(IntIntConsumer consumer);
 }
@@ -0,0 +1,5 @@
+package codingblackfemales.collection.extrusive;
+
+public interface IntIntConsumer {
+    public void accept(int i, int value);
+}
@@ -4,5 +4,9 @@ public interface IntToObjMap<TYPEOF> {
     TYPEOF get(int i);
     void put(int i, TYPEOF obj);
     TYPEOF getOrDefault(int i, TYPEOF obj);
+    TYPEOF remove(int i);
+    boolean containsKey(int i);
+    int size();
+    void clear();
     void forEach(IntObjConsumer<TYPEOF> consumer);
 }
@@ -1,7 +1,50 @@
 package codingblackfemales.collection.extrusive;
 
-public class Map {
-    public void intToObjMap(){}
-    public void boolToObjMap(){}
-    public void longToObjMap(){}
+/**
+ * Factory methods for the primitive maps, pass an expected size where you know it so the map never has to grow.
+ */
+public final class Map {
+
+    private Map() {
+    }
+
+    public static <TYPEOF> IntToObjMap<TYPEOF> intToObjMap() {
+        return new OpenAddressingIntToObjMap<>();
+    }
+
+    public static <TYPEOF> IntToObjMap<TYPEOF> intToObjMap(final int expectedSize) {
+        return new OpenAddressingIntToObjMap<>(capacityFor(expectedSize));
+    }
+
+    public static <TYPEOF> LongToObjMap<TYPEOF> longToObjMap() {
+        return new OpenAddressingLongToObjMap<>();
+    }
+
+    public static <TYPEOF> LongToObjMap<TYPEOF> longToObjMap(final int expectedSize) {
+        return new OpenAddressingLongToObjMap<>(capacityFor(expectedSize));
+    }
+
+    public static Int2IntMap int2IntMap(final int missingValue) {
+        return new OpenAddressingInt2IntMap(missingValue);
+    }
+
+    public static Int2IntMap int2IntMap(final int expectedSize, final int missingValue) {
+        return new OpenAddressingInt2IntMap(capacityFor(expectedSize), missingValue);
+    }
+
+    public static <KEY, TYPEOF> ObjToObjMap<KEY, TYPEOF> objToObjMap() {
+        return new OpenAddressingObjToObjMap<>();
+    }
+
+    public static <KEY, TYPEOF> ObjToObjMap<KEY, TYPEOF> objToObjMap(final int expectedSize) {
+        return new OpenAddressingObjToObjMap<>(capacityFor(expectedSize));
+    }
+
+    public static <TYPEOF> BoolToObjMap<TYPEOF> boolToObjMap() {
+        return new ArrayBoolToObjMap<>();
+    }
+
+    private static int capacityFor(final int expectedSize) {
+        return (int) Math.ceil(expectedSize / (double) Hashing.DEFAULT_LOAD_FACTOR) + 1;
+    }
 }
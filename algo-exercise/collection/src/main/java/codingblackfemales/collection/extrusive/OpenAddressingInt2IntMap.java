@@ -0,0 +1,176 @@
+package codingblackfemales.collection.extrusive;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing {@link Int2IntMap} with linear probing, the same layout as {@link OpenAddressingIntToObjMap}
+ * but with an int[] of values where an empty slot holds the missing value.
+ *
+ * Not thread safe, and the map mustn't be changed from inside {@link #forEach}.
+ */
+public class OpenAddressingInt2IntMap implements Int2IntMap {
+
+    private final float loadFactor;
+    private final int missingValue;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+
+    public OpenAddressingInt2IntMap(final int missingValue) {
+        this(Hashing.DEFAULT_INITIAL_CAPACITY, missingValue);
+    }
+
+    public OpenAddressingInt2IntMap(final int initialCapacity, final int missingValue) {
+        this(initialCapacity, Hashing.DEFAULT_LOAD_FACTOR, missingValue);
+    }
+
+    public OpenAddressingInt2IntMap(final int initialCapacity, final float loadFactor, final int missingValue) {
+        final int capacity = Hashing.capacity(initialCapacity);
+        this.resizeThreshold = Hashing.resizeThreshold(capacity, loadFactor);
+        this.loadFactor = loadFactor;
+        this.missingValue = missingValue;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(values, missingValue);
+    }
+
+    @Override
+    public int missingValue() {
+        return missingValue;
+    }
+
+    @Override
+    public int get(final int key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    @Override
+    public int getOrDefault(final int key, final int value) {
+        int index = Hashing.hash(key, mask);
+        int existing;
+        while ((existing = values[index]) != missingValue) {
+            if (keys[index] == key) {
+                return existing;
+            }
+            index = (index + 1) & mask;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(final int key) {
+        return get(key) != missingValue;
+    }
+
+    @Override
+    public void put(final int key, final int value) {
+        if (value == missingValue) {
+            throw new IllegalArgumentException("The missing value " + missingValue + " can't be stored, use remove()");
+        }
+
+        int index = Hashing.hash(key, mask);
+        while (values[index] != missingValue) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+
+        if (++size > resizeThreshold) {
+            rehash(Hashing.grow(values.length));
+        }
+    }
+
+    @Override
+    public int remove(final int key) {
+        int index = Hashing.hash(key, mask);
+        int existing;
+        while ((existing = values[index]) != missingValue) {
+            if (keys[index] == key) {
+                values[index] = missingValue;
+                size--;
+                compactChain(index);
+                return existing;
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    private void compactChain(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == missingValue) {
+                return;
+            }
+
+            if (Hashing.canShiftBack(hole, index, Hashing.hash(keys[index], mask))) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                values[index] = missingValue;
+                hole = index;
+            }
+        }
+    }
+
+    private void rehash(final int capacity) {
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = Hashing.resizeThreshold(capacity, loadFactor);
+        Arrays.fill(values, missingValue);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != missingValue) {
+                int index = Hashing.hash(oldKeys[i], mask);
+                while (values[index] != missingValue) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, missingValue);
+            size = 0;
+        }
+    }
+
+    @Override
+    public void forEach(final IntIntConsumer consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != missingValue) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package codingblackfemales.collection.extrusive;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing {@link LongToObjMap} with linear probing.
+ *
+ * Keys and values sit in two flat arrays, an empty slot is a null value so null values can't be stored. Removal
+ * shifts the rest of the probe run back rather than leaving tombstones, so there's no garbage and lookups don't
+ * slow down as entries come and go. The table only grows, doubling when the size goes over capacity * load factor,
+ * so size it up front to keep puts allocation free.
+ *
+ * Not thread safe, and the map mustn't be changed from inside {@link #forEach}.
+ */
+public class OpenAddressingLongToObjMap<TYPEOF> implements LongToObjMap<TYPEOF> {
+
+    private final float loadFactor;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+
+    public OpenAddressingLongToObjMap() {
+        this(Hashing.DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public OpenAddressingLongToObjMap(final int initialCapacity) {
+        this(initialCapacity, Hashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    public OpenAddressingLongToObjMap(final int initialCapacity, final float loadFactor) {
+        final int capacity = Hashing.capacity(initialCapacity);
+        this.resizeThreshold = Hashing.resizeThreshold(capacity, loadFactor);
+        this.loadFactor = loadFactor;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public TYPEOF get(final long key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF getOrDefault(final long key, final TYPEOF obj) {
+        int index = Hashing.hash(key, mask);
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return obj;
+    }
+
+    @Override
+    public boolean containsKey(final long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public void put(final long key, final TYPEOF obj) {
+        if (obj == null) {
+            throw new IllegalArgumentException("Null values can't be stored, use remove()");
+        }
+
+        int index = Hashing.hash(key, mask);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                values[index] = obj;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = obj;
+
+        if (++size > resizeThreshold) {
+            rehash(Hashing.grow(values.length));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF remove(final long key) {
+        int index = Hashing.hash(key, mask);
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                values[index] = null;
+                size--;
+                compactChain(index);
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private void compactChain(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == null) {
+                return;
+            }
+
+            if (Hashing.canShiftBack(hole, index, Hashing.hash(keys[index], mask))) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                values[index] = null;
+                hole = index;
+            }
+        }
+    }
+
+    private void rehash(final int capacity) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = Hashing.resizeThreshold(capacity, loadFactor);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = Hashing.hash(oldKeys[i], mask);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of slots, the map grows once size goes over capacity * load factor.
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final LongObjConsumer<TYPEOF> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (TYPEOF) values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package codingblackfemales.collection.extrusive;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing {@link ObjToObjMap} with linear probing, keys are compared with equals() so
+ * they should be immutable (or at least not change while they are in the map).
+ *
+ * Keys and values sit in two flat arrays, an empty slot is a null value so null values can't be stored. Removal
+ * shifts the rest of the probe run back rather than leaving tombstones, so there's no garbage and lookups don't
+ * slow down as entries come and go. The table only grows, doubling when the size goes over capacity * load factor,
+ * so size it up front to keep puts allocation free.
+ *
+ * Not thread safe, and the map mustn't be changed from inside {@link #forEach}.
+ */
+public class OpenAddressingObjToObjMap<KEY, TYPEOF> implements ObjToObjMap<KEY, TYPEOF> {
+
+    private final float loadFactor;
+
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+
+    public OpenAddressingObjToObjMap() {
+        this(Hashing.DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public OpenAddressingObjToObjMap(final int initialCapacity) {
+        this(initialCapacity, Hashing.DEFAULT_LOAD_FACTOR);
+    }
+
+    public OpenAddressingObjToObjMap(final int initialCapacity, final float loadFactor) {
+        final int capacity = Hashing.capacity(initialCapacity);
+        this.resizeThreshold = Hashing.resizeThreshold(capacity, loadFactor);
+        this.loadFactor = loadFactor;
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public TYPEOF get(final KEY key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF getOrDefault(final KEY key, final TYPEOF obj) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys can't be stored");
+        }
+
+        int index = Hashing.hash(key, mask);
+        Object value;
+        while ((value = values[index]) != null) {
+            if (key.equals(keys[index])) {
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return obj;
+    }
+
+    @Override
+    public boolean containsKey(final KEY key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public void put(final KEY key, final TYPEOF obj) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys can't be stored");
+        }
+
+        if (obj == null) {
+            throw new IllegalArgumentException("Null values can't be stored, use remove()");
+        }
+
+        int index = Hashing.hash(key, mask);
+        while (values[index] != null) {
+            if (key.equals(keys[index])) {
+                values[index] = obj;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = obj;
+
+        if (++size > resizeThreshold) {
+            rehash(Hashing.grow(values.length));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF remove(final KEY key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys can't be stored");
+        }
+
+        int index = Hashing.hash(key, mask);
+        Object value;
+        while ((value = values[index]) != null) {
+            if (key.equals(keys[index])) {
+                values[index] = null;
+                keys[index] = null;
+                size--;
+                compactChain(index);
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private void compactChain(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == null) {
+                return;
+            }
+
+            if (Hashing.canShiftBack(hole, index, Hashing.hash(keys[index], mask))) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                values[index] = null;
+                keys[index] = null;
+                hole = index;
+            }
+        }
+    }
+
+    private void rehash(final int capacity) {
+        final Object[] oldKeys = keys;
+        final Object[] oldValues = values;
+
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = Hashing.resizeThreshold(capacity, loadFactor);
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = Hashing.hash(oldKeys[i], mask);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of slots, the map grows once size goes over capacity * load factor.
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            Arrays.fill(keys, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final ObjObjConsumer<KEY, TYPEOF> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept((KEY) keys[i], (TYPEOF) values[i]);
+            }
+        }
+    }
+}
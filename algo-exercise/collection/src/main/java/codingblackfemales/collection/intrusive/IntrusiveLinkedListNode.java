@@ -62,6 +62,9 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
         if (previous != null) {
             previous.next = next;
         }
+        if (next != null) {
+            next.previous = previous;
+        }
     }
 
     private void setFirst(TYPEOF first) {
@@ -111,6 +114,10 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
         if (this.first.equals(this)) {
             newFirst = next;
             resetFirst(newFirst);
+            //only the first node's last is kept up to date, hand it on
+            if (newFirst != null) {
+                newFirst.last = this.last;
+            }
         }else{
             newFirst = this.first();
         }
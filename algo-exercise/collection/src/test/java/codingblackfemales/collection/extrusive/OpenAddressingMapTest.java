@@ -0,0 +1,133 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OpenAddressingMapTest {
+
+    @Test
+    public void testLongToObjMatchesHashMapThroughPutsAndRemoves() {
+        final OpenAddressingLongToObjMap<String> map = new OpenAddressingLongToObjMap<>(4);
+        final HashMap<Long, String> expected = new HashMap<>();
+        final Random random = new Random(42);
+
+        //small key range so we get plenty of collisions, overwrites and removes in the middle of probe runs
+        for (int i = 0; i < 100_000; i++) {
+            final long key = random.nextInt(512) * 1024L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                final String value = "v" + i;
+                expected.put(key, value);
+                map.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (long key = 0; key < 512 * 1024L; key += 1024L) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+
+        final HashMap<Long, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void testGrowsOnlyPastTheLoadFactor() {
+        final OpenAddressingLongToObjMap<String> map = new OpenAddressingLongToObjMap<>(16, 0.5f);
+
+        for (long i = 0; i < 8; i++) {
+            map.put(i, "v" + i);
+        }
+        assertEquals(16, map.capacity());
+
+        map.put(8L, "v8");
+        assertEquals(32, map.capacity());
+
+        for (long i = 0; i <= 8; i++) {
+            assertEquals("v" + i, map.get(i));
+        }
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(1L));
+        assertEquals("default", map.getOrDefault(1L, "default"));
+    }
+
+    @Test
+    public void testIntToObjAndObjToObj() {
+        final IntToObjMap<String> ints = Map.intToObjMap(100);
+        final ObjToObjMap<String, Integer> objs = Map.objToObjMap(100);
+
+        for (int i = -50; i < 50; i++) {
+            ints.put(i, "v" + i);
+            objs.put("k" + i, i);
+        }
+
+        assertEquals(100, ints.size());
+        assertEquals("v-7", ints.get(-7));
+        assertEquals("v-7", ints.remove(-7));
+        assertFalse(ints.containsKey(-7));
+
+        assertEquals(Integer.valueOf(49), objs.get("k49"));
+        assertEquals(Integer.valueOf(49), objs.remove("k49"));
+        assertNull(objs.get("k49"));
+        assertEquals(99, objs.size());
+    }
+
+    @Test
+    public void testInt2IntUsesTheMissingValueForAbsentKeys() {
+        final Int2IntMap map = Map.int2IntMap(-1);
+        final HashMap<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            final int key = random.nextInt(256);
+            if (random.nextBoolean()) {
+                assertEquals((int) expected.getOrDefault(key, -1), map.remove(key));
+                expected.remove(key);
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+
+        for (int key = 0; key < 256; key++) {
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key));
+        }
+
+        final int[] sum = new int[1];
+        map.forEach((key, value) -> sum[0] += value);
+        assertEquals(expected.values().stream().mapToInt(Integer::intValue).sum(), sum[0]);
+
+        try {
+            map.put(1, -1);
+            fail();
+        } catch (IllegalArgumentException expectedException) {
+        }
+    }
+
+    @Test
+    public void testBoolToObj() {
+        final BoolToObjMap<String> map = Map.boolToObjMap();
+
+        map.put(true, "buy");
+        assertEquals(1, map.size());
+        assertEquals("buy", map.get(true));
+        assertNull(map.get(false));
+
+        map.put(false, "sell");
+        final StringBuilder visited = new StringBuilder();
+        map.forEach((b, obj) -> visited.append(b).append('=').append(obj).append(' '));
+        assertEquals("false=sell true=buy ", visited.toString());
+
+        assertEquals("buy", map.remove(true));
+        assertEquals(1, map.size());
+    }
+}
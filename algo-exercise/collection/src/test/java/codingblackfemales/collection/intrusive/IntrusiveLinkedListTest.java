@@ -139,6 +139,43 @@ public class IntrusiveLinkedListTest {
         assertEquals(1, node4First.size());
     }
 
+    @Test
+    public void testAddAfterRemovingFirst(){
+        final ExampleNode node = new ExampleNode(0);
+
+        IntStream.range(1, 3).forEach( i -> {
+            node.add(new ExampleNode(i));
+        });
+
+        final ExampleNode newFirst = node.remove();
+        newFirst.add(new ExampleNode(3));
+
+        assertEquals(3, newFirst.size());
+        assertEquals(3, newFirst.last().getI());
+        assertEquals(2, newFirst.next.getI());
+        assertEquals(3, newFirst.next.next.getI());
+    }
+
+    @Test
+    public void testRemoveNeighboursFromTheMiddle(){
+        final ExampleNode node = new ExampleNode(0);
+
+        IntStream.range(1, 5).forEach( i -> {
+            node.add(new ExampleNode(i));
+        });
+
+        final ExampleNode two = node.next.next;
+        final ExampleNode three = two.next;
+
+        two.remove();
+        final ExampleNode first = three.remove();
+
+        assertEquals(3, first.size());
+        assertEquals(1, first.next.getI());
+        assertEquals(4, first.next.next.getI());
+        assertEquals(1, first.next.next.previous.getI());
+    }
+
     private static void assertAllLastEquals(ExampleNode starting, ExampleNode expectedLast, int expectedLastId){
         ExampleNode next = starting;
 
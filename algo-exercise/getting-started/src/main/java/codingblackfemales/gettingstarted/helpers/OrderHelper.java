@@ -378,7 +378,11 @@ public class OrderHelper {
         for (int i = 0; i < state.getBidLevels(); i++) {
             BidLevel newBidLevel = state.getBidAt(i);
             if (newBidLevel != null && !localBidLevels.contains(newBidLevel)) { // Avoid duplicates
-                localBidLevels.add(newBidLevel);
+                // the state reuses its level objects every tick, so keep a copy we can update locally
+                BidLevel copy = new BidLevel();
+                copy.setPrice(newBidLevel.price);
+                copy.setQuantity(newBidLevel.quantity);
+                localBidLevels.add(copy);
             }
         }
 
@@ -386,7 +390,10 @@ public class OrderHelper {
         for (int i = 0; i < state.getAskLevels(); i++) {
             AskLevel newAskLevel = state.getAskAt(i);
             if (newAskLevel != null && !localAskLevels.contains(newAskLevel)) { // Avoid duplicates
-                localAskLevels.add(newAskLevel);
+                AskLevel copy = new AskLevel();
+                copy.setPrice(newAskLevel.price);
+                copy.setQuantity(newAskLevel.quantity);
+                localAskLevels.add(copy);
             }
         }
 
@@ -56,7 +56,7 @@ public class TWAPStrategy implements ExecutionStrategy {
 
 
         // Step 3: Conditional Buy logic - Only buy if buyTotal is within BUY_BUDGET
-        if (remainingBudget > 0 && !localBidLevels.isEmpty() && state.getActiveChildOrders().size() < MAX_ACTIVE_ORDERS) {
+        if (remainingBudget > 0 && !localBidLevels.isEmpty() && state.getActiveChildOrderCount() < MAX_ACTIVE_ORDERS) {
             for (AskLevel askLevel : localAskLevels) {
                 if (askLevel == null) continue;
                 long askPrice = askLevel.price;
@@ -91,7 +91,7 @@ public class TWAPStrategy implements ExecutionStrategy {
     }
 
         // Step 4: Sell logic
-if (!localBidLevels.isEmpty() && state.getActiveChildOrders().size() < MAX_ACTIVE_ORDERS) {
+if (!localBidLevels.isEmpty() && state.getActiveChildOrderCount() < MAX_ACTIVE_ORDERS) {
     for (BidLevel bidLevel : localBidLevels) {
         if (bidLevel == null) continue;
         long bidPrice = bidLevel.price;
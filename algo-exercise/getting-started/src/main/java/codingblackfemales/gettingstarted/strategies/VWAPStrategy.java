@@ -62,7 +62,7 @@ public class VWAPStrategy implements ExecutionStrategy {
 
 
         // Conditional Buy logic - Only buy if buyTotal is within BUY_BUDGET,askPrice < bidVwap or we are within the stop-loss interval
-        if (remainingBudget > 0 && !localBidLevels.isEmpty() && state.getActiveChildOrders().size() < MAX_ACTIVE_ORDERS) {
+        if (remainingBudget > 0 && !localBidLevels.isEmpty() && state.getActiveChildOrderCount() < MAX_ACTIVE_ORDERS) {
             for (AskLevel askLevel : localAskLevels) {
                 if (askLevel == null) continue;
                 long askPrice = askLevel.price;
@@ -103,7 +103,7 @@ public class VWAPStrategy implements ExecutionStrategy {
         }
 
         // Sell logic
-        if (!localBidLevels.isEmpty() && state.getActiveChildOrders().size() < MAX_ACTIVE_ORDERS) {
+        if (!localBidLevels.isEmpty() && state.getActiveChildOrderCount() < MAX_ACTIVE_ORDERS) {
             for (BidLevel bidLevel : localBidLevels) {
                 if (bidLevel == null) continue;
                  long bidPrice = bidLevel.price;
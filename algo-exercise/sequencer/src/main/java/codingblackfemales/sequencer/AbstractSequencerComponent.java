@@ -1,9 +1,44 @@
 package codingblackfemales.sequencer;
 
+/**
+ * Keeps track of the (schemaId, templateId) pairs a component has asked for in a flat array indexed by
+ * {@link #messageIndex(int, int)}. A component that hasn't required anything gets every message.
+ */
 public class AbstractSequencerComponent implements SequencerComponent {
 
+    public static final int MAX_SCHEMA_ID = 15;
+    public static final int MAX_TEMPLATE_ID = 63;
+    public static final int MESSAGE_INDEX_LENGTH = (MAX_SCHEMA_ID + 1) * (MAX_TEMPLATE_ID + 1);
+
+    private final boolean[] required = new boolean[MESSAGE_INDEX_LENGTH];
+    private boolean requiresEverything = true;
+
+    /**
+     * @return the slot for a message in a dispatch table, or -1 if the ids are out of range.
+     */
+    public static int messageIndex(final int schemaId, final int templateId) {
+        if (schemaId < 0 || schemaId > MAX_SCHEMA_ID || templateId < 0 || templateId > MAX_TEMPLATE_ID) {
+            return -1;
+        }
+        return schemaId * (MAX_TEMPLATE_ID + 1) + templateId;
+    }
+
     @Override
     public void requireMessage(int schemaId, int templateId) {
+        final int index = messageIndex(schemaId, templateId);
+        if (index < 0) {
+            throw new IllegalArgumentException("Message (schemaId=" + schemaId + ",templateId=" + templateId + ") is out of range");
+        }
+        required[index] = true;
+        requiresEverything = false;
+    }
 
+    @Override
+    public boolean isMessageRequired(int schemaId, int templateId) {
+        if (requiresEverything) {
+            return true;
+        }
+        final int index = messageIndex(schemaId, templateId);
+        return index >= 0 && required[index];
     }
 }
@@ -0,0 +1,119 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.FrameLengthDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sequencer that can be called from many threads at once. Producers copy their SBE encoded command
+ * into a lock free many-to-one ring buffer, a single sequencing thread drains the ring, stamps the
+ * sequencer number and dispatches to the network. The order commands are claimed in the ring is the
+ * total order every consumer sees.
+ *
+ * Consumers run on the sequencing thread, so any command they send (e.g. the algo container's actions)
+ * goes to the back of the ring and is sequenced after the message being dispatched, rather than
+ * recursing into the network.
+ *
+ * Either call {@link #start()} to run the sequencing thread, or drive {@link #doWork()} yourself.
+ */
+public class ConcurrentSequencer implements Sequencer, Agent, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentSequencer.class);
+
+    public static final int COMMAND_MSG_TYPE_ID = 1;
+    public static final int DEFAULT_DRAIN_LIMIT = 256;
+
+    private final ManyToOneRingBuffer commands;
+    private final DefaultSequencer sequencer;
+    private final int drainLimit;
+
+    private final ThreadLocal<FrameLengthDecoder> frameLengthDecoders = ThreadLocal.withInitial(FrameLengthDecoder::new);
+
+    private final UnsafeBuffer command = new UnsafeBuffer(0, 0);
+    private final MessageHandler handler = this::onRingMessage;
+
+    private volatile Thread sequencingThread;
+    private AgentRunner runner;
+
+    public ConcurrentSequencer(final Network network, final int ringCapacity) {
+        this(network, ringCapacity, DEFAULT_DRAIN_LIMIT);
+    }
+
+    public ConcurrentSequencer(final Network network, final int ringCapacity, final int drainLimit) {
+        final int length = ringCapacity + RingBufferDescriptor.TRAILER_LENGTH;
+        this.commands = new ManyToOneRingBuffer(new UnsafeBuffer(ByteBuffer.allocateDirect(length)));
+        //the ring slot is ours until the handler returns, so the sequencer can stamp it in place
+        this.sequencer = new DefaultSequencer(network);
+        this.drainLimit = drainLimit;
+    }
+
+    /**
+     * Safe to call from any thread. Spins while the ring is full, applying back pressure to producers.
+     */
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+
+        final int length = frameLengthDecoders.get().frameLength(buffer, 0);
+
+        while (!commands.write(COMMAND_MSG_TYPE_ID, buffer, 0, length)) {
+            if (Thread.currentThread() == sequencingThread) {
+                throw new IllegalStateException("Command ring is full, the sequencing thread cannot wait on itself");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public int doWork() {
+        if (sequencingThread != Thread.currentThread()) {
+            sequencingThread = Thread.currentThread();
+        }
+        return commands.read(handler, drainLimit);
+    }
+
+    private void onRingMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+        command.wrap(buffer, index, length);
+        sequencer.onCommand(command);
+    }
+
+    /**
+     * @return number of bytes of commands waiting to be sequenced.
+     */
+    public int backlog() {
+        return commands.size();
+    }
+
+    public void start() {
+        runner = new AgentRunner(
+                new BackoffIdleStrategy(100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(1)),
+                throwable -> logger.error("[SEQUENCER] Error sequencing command", throwable),
+                null,
+                this);
+        AgentRunner.startOnThread(runner);
+    }
+
+    @Override
+    public void close() {
+        if (runner != null) {
+            runner.close();
+        }
+    }
+
+    @Override
+    public String roleName() {
+        return "sequencer";
+    }
+}
@@ -1,37 +1,62 @@
 package codingblackfemales.sequencer;
 
 import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.FrameLengthDecoder;
+import codingblackfemales.sequencer.util.SequencedBufferRing;
 import messages.marketdata.MessageHeaderDecoder;
 import messages.marketdata.MessageHeaderEncoder;
 import messages.order.CreateOrderDecoder;
 import messages.order.CreateOrderEncoder;
+import messages.order.Venue;
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
-
-import java.nio.ByteBuffer;
-
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Stamps every command with the next sequencer number and dispatches it to the network.
+ *
+ * The sequencer runs in one of two modes:
+ *
+ * 1) stamp in place (the default), the caller owns the buffer it passes in and the sequencer number is
+ *    written straight into it.
+ * 2) ring, each command is copied into the next slot of a preallocated {@link SequencedBufferRing} and
+ *    stamped there, so the caller is free to re-use its buffer as soon as onCommand returns.
+ *
+ * In both modes create order commands are re-encoded into a ring slot, and nothing is allocated per message.
+ */
 public class DefaultSequencer implements Sequencer {
 
+    public static final int DEFAULT_RING_SIZE = 64;
+    public static final int DEFAULT_SLOT_CAPACITY = 1024;
+
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
 
-    private ByteBuffer byteBuffer;//= ByteBuffer.allocateDirect(1024);
-    private UnsafeBuffer mutableBuffer;// = new UnsafeBuffer(byteBuffer);
-
     private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
     private final CreateOrderEncoder createOrderEncoder = new CreateOrderEncoder();
 
     private final messages.order.MessageHeaderEncoder businessHeaderEncoder = new messages.order.MessageHeaderEncoder();
 
-    private final ByteBuffer businessByteBuffer = ByteBuffer.allocateDirect(1024);
-    private final UnsafeBuffer businessMutableBuffer = new UnsafeBuffer(businessByteBuffer);
+    private final FrameLengthDecoder frameLengthDecoder = new FrameLengthDecoder();
+
+    private final SequencedBufferRing ring;
+    private final boolean stampInPlace;
 
     long sequencerNumber = 0L;
 
     private final Network network;
 
     public DefaultSequencer(Network network) {
+        this(network, new SequencedBufferRing(DEFAULT_RING_SIZE, DEFAULT_SLOT_CAPACITY), true);
+    }
+
+    public DefaultSequencer(Network network, SequencedBufferRing ring) {
+        this(network, ring, false);
+    }
+
+    public DefaultSequencer(Network network, SequencedBufferRing ring, boolean stampInPlace) {
         this.network = network;
+        this.ring = ring;
+        this.stampInPlace = stampInPlace;
     }
 
     @Override
@@ -43,16 +68,19 @@ public class DefaultSequencer implements Sequencer {
         int templateId = headerDecoder.templateId();
 
         if(isModelMessage(schemaId, templateId)){
-            DirectBuffer mutatedBuffer = processModelCommand(bb, schemaId, headerDecoder);
+            MutableDirectBuffer mutatedBuffer = processModelCommand(bb, schemaId, headerDecoder);
             sequenceAndDispatchMessage(mutatedBuffer);
         }
+        else if(stampInPlace && bb instanceof MutableDirectBuffer){
+            sequenceAndDispatchMessage((MutableDirectBuffer) bb);
+        }
         else{
-            sequenceAndDispatchMessage(bb);
+            sequenceAndDispatchMessage(copyToRing(bb));
         }
 
     }
 
-    public DirectBuffer processModelCommand(final DirectBuffer byteBuffer, final int schemaId, final MessageHeaderDecoder header){
+    public MutableDirectBuffer processModelCommand(final DirectBuffer byteBuffer, final int schemaId, final MessageHeaderDecoder header){
 
         final int actingBlockLength = header.blockLength();
         final int actingVersion = header.version();
@@ -60,27 +88,53 @@ public class DefaultSequencer implements Sequencer {
 
         createOrderDecoder.wrap(byteBuffer, bufferOffset, actingBlockLength, actingVersion);
 
+        //each create gets its own slot, so a create sent while another is being dispatched can't overwrite it
+        final MutableDirectBuffer businessMutableBuffer = ring.claim();
 
         createOrderEncoder.wrapAndApplyHeader(businessMutableBuffer, 0, businessHeaderEncoder);
+        createOrderEncoder.instrumentId(createOrderDecoder.instrumentId());
+        createOrderEncoder.venue(venue(createOrderDecoder.venueRaw()));
         createOrderEncoder.price(createOrderDecoder.price());
         createOrderEncoder.quantity(createOrderDecoder.quantity());
         createOrderEncoder.side(createOrderDecoder.side());
+        createOrderEncoder.ordType(createOrderDecoder.ordType());
+        createOrderEncoder.timeInForce(createOrderDecoder.timeInForce());
+        createOrderEncoder.execInst(createOrderDecoder.execInst());
         createOrderEncoder.orderId(newOrderId());
         return businessMutableBuffer;
     }
 
-    private long orderId = 1;
+    /**
+     * @return the venue with this value, or NULL_VAL for a create that didn't set one or set one we don't know.
+     */
+    private static Venue venue(final int value){
+        try {
+            return Venue.get(value);
+        } catch (IllegalArgumentException e) {
+            return Venue.NULL_VAL;
+        }
+    }
+
+    long orderId = 1;
 
     public long newOrderId(){
         return orderId +=1;
     }
 
-    public void sequenceAndDispatchMessage(final DirectBuffer bb){
+    private MutableDirectBuffer copyToRing(final DirectBuffer bb){
 
-        byteBuffer = ByteBuffer.allocateDirect(1024);
-        mutableBuffer = new UnsafeBuffer(byteBuffer);
+        final int length = frameLengthDecoder.frameLength(bb, 0);
+
+        if(length > ring.slotCapacity()){
+            throw new IllegalArgumentException("Message of " + length + " bytes does not fit in ring slot of " + ring.slotCapacity() + " bytes");
+        }
+
+        final MutableDirectBuffer slot = ring.claim();
+        slot.putBytes(0, bb, 0, length);
+        return slot;
+    }
 
-        mutableBuffer.wrap(bb);
+    public void sequenceAndDispatchMessage(final MutableDirectBuffer mutableBuffer){
 
         headerEncoder.wrap(mutableBuffer, 0);
 
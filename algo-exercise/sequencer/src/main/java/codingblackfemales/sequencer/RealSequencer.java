@@ -1,35 +1,81 @@
 package codingblackfemales.sequencer;
 
-import codingblackfemales.sequencer.util.ByteBufferUtil;
-import messages.marketdata.MessageHeaderEncoder;
+import codingblackfemales.sequencer.journal.Journal;
+import codingblackfemales.sequencer.journal.JournalReader;
+import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.FrameLengthDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.order.CreateOrderDecoder;
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
 
-import java.nio.ByteBuffer;
+/**
+ * A sequencer that journals every frame it sequences (sequencer number included) before dispatching it.
+ *
+ * When opened on an existing journal it carries on numbering from the last sequencer number and order id in
+ * it, so a restarted process appends to the same stream and never re-issues an order id. Use {@link #replay(Journal, Network)} to play a journal back
+ * into any network, e.g. to rebuild state after a crash or to re-run a backtest without re-encoding market data.
+ */
+public class RealSequencer extends DefaultSequencer implements AutoCloseable {
 
-public class RealSequencer {
+    private final Journal journal;
+    private final FrameLengthDecoder frameLengthDecoder = new FrameLengthDecoder();
 
-    final ByteBuffer sequenced = ByteBuffer.allocateDirect(1024);
-    final UnsafeBuffer directBuffer = new UnsafeBuffer();
-    final MessageHeaderEncoder encoder = new MessageHeaderEncoder();
-
-    final long sequenceNumber = 0L;
+    public RealSequencer(final Network network, final Journal journal) {
+        super(network);
+        this.journal = journal;
+        recover(journal);
+    }
 
-    public void processMessage(DirectBuffer buffer){
+    @Override
+    public void dispatchToNetwork(final DirectBuffer sequencedBuffer) {
+        journal.append(sequencedBuffer, 0, frameLengthDecoder.frameLength(sequencedBuffer, 0));
+        super.dispatchToNetwork(sequencedBuffer);
+    }
 
-        ByteBufferUtil.cloneInto(buffer.byteBuffer(), sequenced);
+    public Journal getJournal() {
+        return journal;
+    }
 
-        directBuffer.wrap(sequenced);
+    @Override
+    public void close() {
+        journal.close();
+    }
 
-        encoder.wrap(directBuffer, 0);
+    /**
+     * @return the number of frames replayed.
+     */
+    public static long replay(final Journal journal, final Network network) {
+        return new JournalReader(journal.directory()).replay(network);
+    }
 
-        encoder.sequencerNumber(sequenceNumber);
+    /**
+     * Picks up the sequencer and order numbering where the journal left off. Segments are read newest first and
+     * only as far back as the last sequenced frame and the last create order, as ids only ever go up the last
+     * create holds the highest one, so a restart reads the tail of the journal rather than all of it.
+     */
+    private void recover(final Journal journal) {
+        final JournalReader reader = new JournalReader(journal.directory());
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+        final long[] lastSequencerNumber = {0L};
+        final long[] lastOrderId = {0L};
 
-        dispatch(directBuffer);
-    }
+        final long[] segments = reader.segmentIndexes();
+        for (int i = segments.length - 1; i >= 0 && (lastSequencerNumber[0] == 0L || lastOrderId[0] == 0L); i--) {
+            final boolean sequencerNumberFound = lastSequencerNumber[0] != 0L;
+            final boolean orderIdFound = lastOrderId[0] != 0L;
+            reader.replaySegment(segments[i], buffer -> {
+                header.wrap(buffer, 0);
+                if (!sequencerNumberFound) {
+                    lastSequencerNumber[0] = header.sequencerNumber();
+                }
+                if (!orderIdFound && isModelMessage(header.schemaId(), header.templateId())) {
+                    lastOrderId[0] = createOrder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).orderId();
+                }
+            });
+        }
 
-    public void dispatch(UnsafeBuffer buffer){
-        //TODO: Implement
+        this.sequencerNumber = lastSequencerNumber[0];
+        this.orderId = Math.max(this.orderId, lastOrderId[0]);
     }
-
 }
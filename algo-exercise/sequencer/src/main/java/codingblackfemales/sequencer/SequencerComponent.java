@@ -3,4 +3,6 @@ package codingblackfemales.sequencer;
 public interface SequencerComponent {
     public void requireMessage(int schemaId, int templateId);
 
+    public boolean isMessageRequired(int schemaId, int templateId);
+
 }
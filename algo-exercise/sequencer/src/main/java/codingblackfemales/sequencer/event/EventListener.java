@@ -0,0 +1,38 @@
+package codingblackfemales.sequencer.event;
+
+import codingblackfemales.sequencer.AbstractSequencerComponent;
+import codingblackfemales.sequencer.net.Consumer;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+
+/**
+ * A consumer that dispatches on (schemaId, templateId) with a single array lookup, rather than a chain of ifs.
+ *
+ * Subclasses register a {@link MessageHandler} per message they understand with {@link #on(int, int, MessageHandler)},
+ * which also requires the message so the network doesn't bother dispatching anything else to us.
+ */
+public abstract class EventListener extends AbstractSequencerComponent implements Consumer {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final MessageHandler[] handlers = new MessageHandler[MESSAGE_INDEX_LENGTH];
+
+    protected void on(final int schemaId, final int templateId, final MessageHandler handler) {
+        requireMessage(schemaId, templateId);
+        handlers[messageIndex(schemaId, templateId)] = handler;
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        header.wrap(buffer, 0);
+
+        final int index = messageIndex(header.schemaId(), header.templateId());
+        if (index < 0) {
+            return;
+        }
+
+        final MessageHandler handler = handlers[index];
+        if (handler != null) {
+            handler.onMessage(buffer, header.encodedLength(), header.blockLength(), header.version());
+        }
+    }
+}
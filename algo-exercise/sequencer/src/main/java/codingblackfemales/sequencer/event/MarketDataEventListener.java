@@ -1,37 +1,28 @@
 package codingblackfemales.sequencer.event;
 
-import codingblackfemales.sequencer.net.Consumer;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
 import messages.marketdata.BookUpdateDecoder;
-import messages.marketdata.MessageHeaderDecoder;
-import org.agrona.DirectBuffer;
 
-public abstract class MarketDataEventListener implements Consumer {
+public abstract class MarketDataEventListener extends EventListener {
 
-    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
     private final BookUpdateDecoder book = new BookUpdateDecoder();
     private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
     private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
 
-    @Override
-    public void onMessage(final DirectBuffer buffer) {
-        header.wrap(buffer, 0);
-
-        final int actingBlockLength = header.blockLength();
-        final int actingVersion = header.version();
-        final int bufferOffset = header.encodedLength();
-
-        if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
-            book.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
+    public MarketDataEventListener() {
+        on(BookUpdateDecoder.SCHEMA_ID, BookUpdateDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            book.wrap(buffer, offset, actingBlockLength, actingVersion);
             onBookUpdate(book);
-        }else if(header.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
-            ask.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
+        });
+        on(AskBookUpdateDecoder.SCHEMA_ID, AskBookUpdateDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            ask.wrap(buffer, offset, actingBlockLength, actingVersion);
             onAskBook(ask);
-        }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
-            bid.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
+        });
+        on(BidBookUpdateDecoder.SCHEMA_ID, BidBookUpdateDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            bid.wrap(buffer, offset, actingBlockLength, actingVersion);
             onBidBook(bid);
-        }
+        });
     }
 
     public abstract void onBookUpdate(BookUpdateDecoder bookUpdate);
@@ -0,0 +1,11 @@
+package codingblackfemales.sequencer.event;
+
+import org.agrona.DirectBuffer;
+
+/**
+ * Decodes the body of one message type, an entry in an {@link EventListener}'s dispatch table.
+ */
+@FunctionalInterface
+public interface MessageHandler {
+    public void onMessage(final DirectBuffer buffer, final int offset, final int actingBlockLength, final int actingVersion);
+}
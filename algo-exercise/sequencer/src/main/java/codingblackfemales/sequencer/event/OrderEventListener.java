@@ -1,13 +1,8 @@
 package codingblackfemales.sequencer.event;
 
-import codingblackfemales.sequencer.net.Consumer;
-import messages.marketdata.MessageHeaderDecoder;
 import messages.order.*;
-import org.agrona.DirectBuffer;
 
-public abstract class OrderEventListener implements Consumer {
-
-    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+public abstract class OrderEventListener extends EventListener {
 
     private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
     private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
@@ -17,40 +12,35 @@ public abstract class OrderEventListener implements Consumer {
     private final PartialFillOrderDecoder partialFillOrderDecoder = new PartialFillOrderDecoder();
     private final FillOrderDecoder fillOrderDecoder = new FillOrderDecoder();
 
-    @Override
-    public void onMessage(DirectBuffer buffer){
-
-        header.wrap(buffer, 0);
-
-        final int actingBlockLength = header.blockLength();
-        final int actingVersion = header.version();
-        final int bufferOffset = header.encodedLength();
-
-        if(header.schemaId() == CreateOrderEncoder.SCHEMA_ID) {
-
-            if (header.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
-                createOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCreateOrder(createOrderDecoder);
-            } else if (header.templateId() == CancelOrderDecoder.TEMPLATE_ID) {
-                cancelOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCancelOrder(cancelOrderDecoder);
-            } else if (header.templateId() == AckedOrderDecoder.TEMPLATE_ID) {
-                ackedOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onAckedOrder(ackedOrderDecoder);
-            } else if (header.templateId() == CancelAckedOrderDecoder.TEMPLATE_ID) {
-                cancelAckedOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCancelAckedOrder(cancelAckedOrderDecoder);
-            } else if (header.templateId() == PendingOrderDecoder.TEMPLATE_ID) {
-                pendingOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onPendingOrder(pendingOrderDecoder);
-            } else if (header.templateId() == PartialFillOrderDecoder.TEMPLATE_ID) {
-                partialFillOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onPartialFill(partialFillOrderDecoder);
-            } else if (header.templateId() == FillOrderDecoder.TEMPLATE_ID) {
-                fillOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onFill(fillOrderDecoder);
-            }
-        }
+    public OrderEventListener() {
+        on(CreateOrderDecoder.SCHEMA_ID, CreateOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            createOrderDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onCreateOrder(createOrderDecoder);
+        });
+        on(CancelOrderDecoder.SCHEMA_ID, CancelOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            cancelOrderDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onCancelOrder(cancelOrderDecoder);
+        });
+        on(AckedOrderDecoder.SCHEMA_ID, AckedOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            ackedOrderDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onAckedOrder(ackedOrderDecoder);
+        });
+        on(CancelAckedOrderDecoder.SCHEMA_ID, CancelAckedOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            cancelAckedOrderDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onCancelAckedOrder(cancelAckedOrderDecoder);
+        });
+        on(PendingOrderDecoder.SCHEMA_ID, PendingOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            pendingOrderDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onPendingOrder(pendingOrderDecoder);
+        });
+        on(PartialFillOrderDecoder.SCHEMA_ID, PartialFillOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            partialFillOrderDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onPartialFill(partialFillOrderDecoder);
+        });
+        on(FillOrderDecoder.SCHEMA_ID, FillOrderDecoder.TEMPLATE_ID, (buffer, offset, actingBlockLength, actingVersion) -> {
+            fillOrderDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
+            onFill(fillOrderDecoder);
+        });
     }
 
     public abstract void onCreateOrder(final CreateOrderDecoder create);
@@ -0,0 +1,153 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An append only journal of sequenced frames, written to a directory of fixed size memory mapped segment files.
+ *
+ * Each record is a little endian int length followed by the frame bytes, padded to 8 bytes. A length of
+ * {@link #PADDING} means the rest of the segment is unused and the next record is at the start of the next
+ * segment, a length of 0 means nothing has been written there yet.
+ *
+ * The length is written last with an ordered store, so a reader mapping the same file never sees a
+ * partially written frame. Not thread safe, there should be one writer (the sequencer) per directory.
+ */
+public class Journal implements AutoCloseable {
+
+    public static final int RECORD_HEADER_LENGTH = BitUtil.SIZE_OF_INT;
+    public static final int RECORD_ALIGNMENT = BitUtil.SIZE_OF_LONG;
+    public static final int PADDING = -1;
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final File directory;
+    private final int segmentSize;
+
+    private final UnsafeBuffer segment = new UnsafeBuffer(0, 0);
+    private MappedByteBuffer mappedSegment;
+    private long segmentIndex;
+    private int position;
+
+    public Journal(final File directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public Journal(final File directory, final int segmentSize) {
+        if (segmentSize % RECORD_ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + RECORD_ALIGNMENT + ": " + segmentSize);
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        IoUtil.ensureDirectoryExists(directory, "journal");
+
+        final long[] existing = segmentIndexes(directory);
+
+        if (existing.length == 0) {
+            mapSegment(0, true);
+        } else {
+            //carry on from the end of the last segment we wrote
+            mapSegment(existing[existing.length - 1], false);
+            position = endOfRecords(segment, segmentSize);
+        }
+    }
+
+    public void append(final DirectBuffer buffer, final int offset, final int length) {
+
+        final int recordLength = BitUtil.align(RECORD_HEADER_LENGTH + length, RECORD_ALIGNMENT);
+
+        if (recordLength > segmentSize) {
+            throw new IllegalArgumentException("Frame of " + length + " bytes does not fit in a journal segment of " + segmentSize + " bytes");
+        }
+
+        if (position + recordLength > segmentSize) {
+            if (position < segmentSize) {
+                segment.putIntOrdered(position, PADDING);
+            }
+            roll();
+        }
+
+        segment.putBytes(position + RECORD_HEADER_LENGTH, buffer, offset, length);
+        segment.putIntOrdered(position, length);
+
+        position += recordLength;
+    }
+
+    /**
+     * Forces everything written so far out to the storage device.
+     */
+    public void flush() {
+        mappedSegment.force();
+    }
+
+    public File directory() {
+        return directory;
+    }
+
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public void close() {
+        IoUtil.unmap(mappedSegment);
+        mappedSegment = null;
+    }
+
+    private void roll() {
+        IoUtil.unmap(mappedSegment);
+        mapSegment(segmentIndex + 1, true);
+        position = 0;
+    }
+
+    private void mapSegment(final long index, final boolean isNew) {
+        final File file = segmentFile(directory, index);
+        mappedSegment = isNew ? IoUtil.mapNewFile(file, segmentSize) : IoUtil.mapExistingFile(file, "journal segment");
+        segment.wrap(mappedSegment);
+        segmentIndex = index;
+    }
+
+    static int endOfRecords(final UnsafeBuffer segment, final int segmentSize) {
+        int position = 0;
+        while (position + RECORD_HEADER_LENGTH <= segmentSize) {
+            final int length = segment.getIntVolatile(position);
+            if (length == 0) {
+                return position;
+            } else if (length == PADDING) {
+                return segmentSize;
+            }
+            position += BitUtil.align(RECORD_HEADER_LENGTH + length, RECORD_ALIGNMENT);
+        }
+        return segmentSize;
+    }
+
+    static File segmentFile(final File directory, final long index) {
+        return new File(directory, String.format("%020d", index) + SEGMENT_SUFFIX);
+    }
+
+    static long[] segmentIndexes(final File directory) {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+
+        if (files == null) {
+            return new long[0];
+        }
+
+        final long[] indexes = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            final String name = files[i].getName();
+            indexes[i] = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        }
+        Arrays.sort(indexes);
+        return indexes;
+    }
+}
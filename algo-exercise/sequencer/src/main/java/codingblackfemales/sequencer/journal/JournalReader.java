@@ -0,0 +1,95 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.net.Network;
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static codingblackfemales.sequencer.journal.Journal.PADDING;
+import static codingblackfemales.sequencer.journal.Journal.RECORD_ALIGNMENT;
+import static codingblackfemales.sequencer.journal.Journal.RECORD_HEADER_LENGTH;
+
+/**
+ * Replays a {@link Journal} into a network, segment by segment, straight out of the mapped files.
+ *
+ * Frames are dispatched exactly as they were sequenced (sequencer number included) and are not copied or
+ * re-encoded. Segments are mapped copy-on-write, so a consumer that writes to a frame can't change the journal.
+ */
+public class JournalReader {
+
+    private final File directory;
+
+    private final UnsafeBuffer segment = new UnsafeBuffer(0, 0);
+    private final UnsafeBuffer frame = new UnsafeBuffer(0, 0);
+
+    public JournalReader(final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the number of frames dispatched to the network.
+     */
+    public long replay(final Network network) {
+
+        long frames = 0;
+
+        for (long index : segmentIndexes()) {
+            frames += replaySegment(index, network);
+        }
+
+        return frames;
+    }
+
+    /**
+     * @return the indexes of the journal's segments, oldest first.
+     */
+    public long[] segmentIndexes() {
+        return Journal.segmentIndexes(directory);
+    }
+
+    /**
+     * Replays just one segment, so a reader that only wants the end of the journal needn't read all of it.
+     *
+     * @return the number of frames dispatched to the network.
+     */
+    public long replaySegment(final long index, final Network network) {
+
+        final MappedByteBuffer mapped = IoUtil.mapExistingFile(
+                Journal.segmentFile(directory, index), FileChannel.MapMode.PRIVATE, "journal segment");
+
+        try {
+            segment.wrap(mapped);
+            return replaySegment(network);
+        } finally {
+            IoUtil.unmap(mapped);
+        }
+    }
+
+    private long replaySegment(final Network network) {
+
+        final int capacity = segment.capacity();
+
+        long frames = 0;
+        int position = 0;
+
+        while (position + RECORD_HEADER_LENGTH <= capacity) {
+            final int length = segment.getIntVolatile(position);
+
+            if (length == 0 || length == PADDING) {
+                break;
+            }
+
+            frame.wrap(segment, position + RECORD_HEADER_LENGTH, length);
+            network.dispatch(frame);
+
+            frames++;
+            position += BitUtil.align(RECORD_HEADER_LENGTH + length, RECORD_ALIGNMENT);
+        }
+
+        return frames;
+    }
+}
@@ -0,0 +1,120 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.util.FrameLengthDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A network that fans each sequenced message out to a {@link ConsumerQueue} per consumer, every consumer runs on
+ * its own thread so a slow consumer (logging, the UI) can't stall a latency critical one (the algo container).
+ *
+ * Messages are copied into the queues before dispatch returns, so the sequencer is free to re-use its buffer.
+ * There must be a single dispatching thread, pair this with a {@link codingblackfemales.sequencer.ConcurrentSequencer}
+ * when consumers send commands back to the sequencer. Consumers can be added once the network has started, they get
+ * a thread straight away and see the messages dispatched from then on.
+ */
+public class AsyncNetwork implements Network, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncNetwork.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final FrameLengthDecoder frameLengthDecoder = new FrameLengthDecoder();
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+
+    //swapped whole by addConsumer, read by the dispatching thread
+    private volatile ConsumerQueue[] queues = new ConsumerQueue[0];
+    private final List<AgentRunner> runners = new ArrayList<>();
+    private boolean started = false;
+
+    @Override
+    public void dispatch(final DirectBuffer buffer) {
+        final int length = frameLengthDecoder.frameLength(buffer, 0);
+        header.wrap(buffer, 0);
+        final long sequencerNumber = header.sequencerNumber();
+        final int schemaId = header.schemaId();
+        final int templateId = header.templateId();
+
+        final ConsumerQueue[] queues = this.queues;
+        for (int i = 0; i < queues.length; i++) {
+            //don't copy frames into queues whose consumer would throw them away
+            if (queues[i].getConsumer().isMessageRequired(schemaId, templateId)) {
+                queues[i].offer(buffer, length, sequencerNumber);
+            }
+        }
+    }
+
+    public ConsumerQueue addConsumer(final Consumer consumer) {
+        return addConsumer(consumer, BackPressure.BLOCK);
+    }
+
+    public ConsumerQueue addConsumer(final Consumer consumer, final BackPressure backPressure) {
+        return addConsumer(consumer, backPressure, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    public synchronized ConsumerQueue addConsumer(final Consumer consumer, final BackPressure backPressure, final int capacity, final int maxFrameLength) {
+        final ConsumerQueue queue = new ConsumerQueue(consumer, backPressure, capacity, maxFrameLength, DEFAULT_BATCH_SIZE);
+
+        final ConsumerQueue[] queues = this.queues;
+        final ConsumerQueue[] newQueues = new ConsumerQueue[queues.length + 1];
+        System.arraycopy(queues, 0, newQueues, 0, queues.length);
+        newQueues[queues.length] = queue;
+
+        //running before it's dispatched to, or a blocking queue could fill with nothing to drain it
+        if (started) {
+            startRunner(queue);
+        }
+        this.queues = newQueues;
+
+        return queue;
+    }
+
+    public List<ConsumerQueue> getConsumerQueues() {
+        final List<ConsumerQueue> list = new ArrayList<>();
+        Collections.addAll(list, queues);
+        return list;
+    }
+
+    /**
+     * Starts a thread per consumer, and one for each consumer added from now on.
+     */
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("Network already started");
+        }
+        started = true;
+        for (ConsumerQueue queue : queues) {
+            startRunner(queue);
+        }
+    }
+
+    private void startRunner(final ConsumerQueue queue) {
+        final AgentRunner runner = new AgentRunner(
+                new BackoffIdleStrategy(100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MICROSECONDS.toNanos(100)),
+                throwable -> logger.error("[NETWORK] Error in consumer " + queue.getConsumer(), throwable),
+                null,
+                queue);
+        runners.add(runner);
+        AgentRunner.startOnThread(runner);
+    }
+
+    @Override
+    public synchronized void close() {
+        started = false;
+        for (AgentRunner runner : runners) {
+            runner.close();
+        }
+        runners.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package codingblackfemales.sequencer.net;
+
+/**
+ * What an {@link AsyncNetwork} does when a consumer's queue is full.
+ */
+public enum BackPressure {
+
+    /**
+     * Wait for the consumer to catch up, nothing is lost but a slow consumer holds up the sequencer.
+     */
+    BLOCK,
+
+    /**
+     * Throw away the oldest queued message to make room, for consumers that can live with gaps (e.g. logging).
+     */
+    DROP_OLDEST,
+
+    /**
+     * Throw away the oldest queued message if it is a book update the new message supersedes (same instrument,
+     * same or more book sides), otherwise wait. Order messages are never dropped.
+     */
+    CONFLATE_BOOK_UPDATES
+}
@@ -4,4 +4,11 @@ import org.agrona.DirectBuffer;
 
 public interface Consumer {
     public void onMessage(final DirectBuffer buffer);
+
+    /**
+     * Lets the network skip frames this consumer would ignore, by default it gets everything.
+     */
+    public default boolean isMessageRequired(final int schemaId, final int templateId) {
+        return true;
+    }
 }
@@ -0,0 +1,229 @@
+package codingblackfemales.sequencer.net;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded single producer, single consumer queue of frames in front of one {@link Consumer}, the producer is
+ * the network's dispatching thread and the consumer is this queue's own agent thread.
+ *
+ * Frames are copied into fixed size preallocated slots. The consumer copies a slot out and then claims it by
+ * moving the head on with a CAS, the producer can drop the oldest frame the same way when the queue is full
+ * (see {@link BackPressure}). If the producer drops and overwrites a slot while the consumer is copying it the
+ * consumer's CAS fails and the torn copy is thrown away.
+ */
+public class ConsumerQueue implements Agent {
+
+    private static final int LENGTH_OFFSET = 0;
+    private static final int FRAME_OFFSET = BitUtil.SIZE_OF_INT;
+
+    private final Consumer consumer;
+    private final BackPressure backPressure;
+    private final int batchSize;
+
+    private final UnsafeBuffer[] slots;
+    private final int mask;
+    private final int slotCapacity;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private volatile long lastOfferedSequencerNumber;
+    private volatile long lastDeliveredSequencerNumber;
+
+    private final UnsafeBuffer delivery;
+    private final MessageHeaderDecoder deliveryHeader = new MessageHeaderDecoder();
+
+    private final MessageHeaderDecoder incomingHeader = new MessageHeaderDecoder();
+    private final MessageHeaderDecoder queuedHeader = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdate = new BidBookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdate = new AskBookUpdateDecoder();
+
+    public ConsumerQueue(final Consumer consumer, final BackPressure backPressure, final int capacity, final int maxFrameLength, final int batchSize) {
+        if (!BitUtil.isPowerOfTwo(capacity)) {
+            throw new IllegalArgumentException("Queue capacity must be a power of two: " + capacity);
+        }
+
+        this.consumer = consumer;
+        this.backPressure = backPressure;
+        this.batchSize = batchSize;
+        this.slots = new UnsafeBuffer[capacity];
+        this.mask = capacity - 1;
+        this.slotCapacity = BitUtil.align(FRAME_OFFSET + maxFrameLength, BitUtil.SIZE_OF_LONG);
+
+        final ByteBuffer memory = ByteBuffer.allocateDirect(capacity * slotCapacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new UnsafeBuffer(memory, i * slotCapacity, slotCapacity);
+        }
+
+        this.delivery = new UnsafeBuffer(ByteBuffer.allocateDirect(maxFrameLength));
+    }
+
+    /**
+     * Called on the network's dispatching thread only.
+     */
+    void offer(final DirectBuffer buffer, final int length, final long sequencerNumber) {
+
+        if (FRAME_OFFSET + length > slotCapacity) {
+            throw new IllegalArgumentException("Frame of " + length + " bytes is bigger than the queue's max frame length");
+        }
+
+        final long position = tail.get();
+
+        while (position - head.get() > mask) {
+            if (!makeRoom(buffer)) {
+                Thread.onSpinWait();
+            }
+        }
+
+        final UnsafeBuffer slot = slots[(int) (position & mask)];
+        slot.putBytes(FRAME_OFFSET, buffer, 0, length);
+        slot.putInt(LENGTH_OFFSET, length);
+
+        lastOfferedSequencerNumber = sequencerNumber;
+        tail.lazySet(position + 1);
+    }
+
+    private boolean makeRoom(final DirectBuffer incoming) {
+        final long oldest = head.get();
+
+        switch (backPressure) {
+            case DROP_OLDEST:
+                if (head.compareAndSet(oldest, oldest + 1)) {
+                    dropped.lazySet(dropped.get() + 1);
+                }
+                return true;
+            case CONFLATE_BOOK_UPDATES:
+                if (supersedes(incoming, slots[(int) (oldest & mask)])) {
+                    if (head.compareAndSet(oldest, oldest + 1)) {
+                        conflated.lazySet(conflated.get() + 1);
+                    }
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private boolean supersedes(final DirectBuffer incoming, final DirectBuffer queuedSlot) {
+        incomingHeader.wrap(incoming, 0);
+        queuedHeader.wrap(queuedSlot, FRAME_OFFSET);
+
+        if (incomingHeader.schemaId() != BookUpdateDecoder.SCHEMA_ID || queuedHeader.schemaId() != BookUpdateDecoder.SCHEMA_ID) {
+            return false;
+        }
+
+        final int incomingTemplate = incomingHeader.templateId();
+        final boolean coversSameSides = incomingTemplate == BookUpdateDecoder.TEMPLATE_ID || incomingTemplate == queuedHeader.templateId();
+
+        return coversSameSides && instrumentId(incoming, 0, incomingHeader) == instrumentId(queuedSlot, FRAME_OFFSET, queuedHeader);
+    }
+
+    private long instrumentId(final DirectBuffer buffer, final int offset, final MessageHeaderDecoder header) {
+        final int bodyOffset = offset + header.encodedLength();
+        final int templateId = header.templateId();
+
+        if (templateId == BookUpdateDecoder.TEMPLATE_ID) {
+            return bookUpdate.wrap(buffer, bodyOffset, header.blockLength(), header.version()).instrumentId();
+        } else if (templateId == BidBookUpdateDecoder.TEMPLATE_ID) {
+            return bidBookUpdate.wrap(buffer, bodyOffset, header.blockLength(), header.version()).instrumentId();
+        } else if (templateId == AskBookUpdateDecoder.TEMPLATE_ID) {
+            return askBookUpdate.wrap(buffer, bodyOffset, header.blockLength(), header.version()).instrumentId();
+        }
+        return -1;
+    }
+
+    @Override
+    public int doWork() {
+        int work = 0;
+
+        while (work < batchSize) {
+            final long position = head.get();
+
+            if (position >= tail.get()) {
+                break;
+            }
+
+            final UnsafeBuffer slot = slots[(int) (position & mask)];
+            final int length = slot.getInt(LENGTH_OFFSET);
+
+            if (length > 0 && FRAME_OFFSET + length <= slotCapacity) {
+                delivery.putBytes(0, slot, FRAME_OFFSET, length);
+            }
+
+            if (!head.compareAndSet(position, position + 1)) {
+                //dropped by the producer while we were copying it, try the new head
+                continue;
+            }
+
+            deliveryHeader.wrap(delivery, 0);
+            lastDeliveredSequencerNumber = deliveryHeader.sequencerNumber();
+
+            consumer.onMessage(delivery);
+
+            delivered.lazySet(delivered.get() + 1);
+            work++;
+        }
+
+        return work;
+    }
+
+    @Override
+    public String roleName() {
+        return "consumer-" + consumer.getClass().getSimpleName();
+    }
+
+    public Consumer getConsumer() {
+        return consumer;
+    }
+
+    public BackPressure getBackPressure() {
+        return backPressure;
+    }
+
+    /**
+     * @return number of messages queued and not yet delivered.
+     */
+    public long lag() {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * @return how many sequencer numbers behind the network this consumer is.
+     */
+    public long sequencerLag() {
+        return lag() == 0 ? 0 : lastOfferedSequencerNumber - lastDeliveredSequencerNumber;
+    }
+
+    public long delivered() {
+        return delivered.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long conflated() {
+        return conflated.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumerQueue(consumer=" + consumer.getClass().getSimpleName() + ",backPressure=" + backPressure +
+                ",lag=" + lag() + ",delivered=" + delivered() + ",dropped=" + dropped() + ",conflated=" + conflated() + ")";
+    }
+}
@@ -1,18 +1,28 @@
 package codingblackfemales.sequencer.net;
 
+import messages.marketdata.MessageHeaderDecoder;
 import org.agrona.DirectBuffer;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TestNetwork implements Network{
 
-    private final List<Consumer> consumers = new LinkedList<>();
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final List<Consumer> consumers = new ArrayList<>();
 
     @Override
     public void dispatch(DirectBuffer buffer){
-        for (Consumer consumer: consumers) {
-            consumer.onMessage(buffer);
+        header.wrap(buffer, 0);
+        final int schemaId = header.schemaId();
+        final int templateId = header.templateId();
+
+        //indexed loop, consumers can dispatch back into the network and an iterator per message adds up
+        for (int i = 0; i < consumers.size(); i++) {
+            final Consumer consumer = consumers.get(i);
+            if (consumer.isMessageRequired(schemaId, templateId)) {
+                consumer.onMessage(buffer);
+            }
         }
     }
 
@@ -0,0 +1,48 @@
+package codingblackfemales.sequencer.util;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+
+/**
+ * Works out how many bytes an SBE frame (header + body + repeating groups) occupies in a buffer,
+ * so frames can be copied or persisted without copying the whole backing buffer.
+ *
+ * Instances re-use their decoders and are not thread safe.
+ */
+public class FrameLengthDecoder {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdate = new BidBookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdate = new AskBookUpdateDecoder();
+
+    public int frameLength(final DirectBuffer buffer, final int offset) {
+
+        header.wrap(buffer, offset);
+
+        final int headerLength = header.encodedLength();
+        final int actingBlockLength = header.blockLength();
+        final int actingVersion = header.version();
+        final int bodyOffset = offset + headerLength;
+
+        if (header.schemaId() == BookUpdateDecoder.SCHEMA_ID) {
+            final int templateId = header.templateId();
+            if (templateId == BookUpdateDecoder.TEMPLATE_ID) {
+                bookUpdate.wrap(buffer, bodyOffset, actingBlockLength, actingVersion);
+                return headerLength + bookUpdate.sbeDecodedLength();
+            } else if (templateId == BidBookUpdateDecoder.TEMPLATE_ID) {
+                bidBookUpdate.wrap(buffer, bodyOffset, actingBlockLength, actingVersion);
+                return headerLength + bidBookUpdate.sbeDecodedLength();
+            } else if (templateId == AskBookUpdateDecoder.TEMPLATE_ID) {
+                askBookUpdate.wrap(buffer, bodyOffset, actingBlockLength, actingVersion);
+                return headerLength + askBookUpdate.sbeDecodedLength();
+            }
+        }
+
+        //order messages have no repeating groups, so the block is the whole body
+        return headerLength + actingBlockLength;
+    }
+}
@@ -0,0 +1,62 @@
+package codingblackfemales.sequencer.util;
+
+import org.agrona.BitUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed size ring of re-usable direct buffers that the sequencer copies commands into before
+ * stamping and dispatching them. All memory is allocated up front as a single direct block, each
+ * slot is a view over part of it.
+ *
+ * A slot is handed out again after {@link #size()} further claims, so consumers must not hold on to
+ * a sequenced buffer for longer than that (the synchronous network never does).
+ */
+public class SequencedBufferRing {
+
+    private final UnsafeBuffer[] slots;
+    private final int mask;
+    private final int slotCapacity;
+
+    private long claimed = 0L;
+
+    public SequencedBufferRing(final int size, final int slotCapacity) {
+        if (!BitUtil.isPowerOfTwo(size)) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + size);
+        }
+        if (slotCapacity < 1) {
+            throw new IllegalArgumentException("Slot capacity must be positive: " + slotCapacity);
+        }
+
+        this.slots = new UnsafeBuffer[size];
+        this.mask = size - 1;
+        this.slotCapacity = slotCapacity;
+
+        final ByteBuffer memory = ByteBuffer.allocateDirect(size * slotCapacity);
+
+        for (int i = 0; i < size; i++) {
+            slots[i] = new UnsafeBuffer(memory, i * slotCapacity, slotCapacity);
+        }
+    }
+
+    /**
+     * @return the next slot in the ring, the caller owns it until the ring wraps around.
+     */
+    public MutableDirectBuffer claim() {
+        return slots[(int) (claimed++ & mask)];
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    public int slotCapacity() {
+        return slotCapacity;
+    }
+
+    public long claimed() {
+        return claimed;
+    }
+}
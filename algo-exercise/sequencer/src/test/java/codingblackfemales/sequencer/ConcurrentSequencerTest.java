@@ -0,0 +1,144 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.Network;
+import messages.order.CancelOrderDecoder;
+import messages.order.CancelOrderEncoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.MessageHeaderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentSequencerTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int COMMANDS_PER_PRODUCER = 50_000;
+
+    private static class RecordingNetwork implements Network {
+        private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        private final CancelOrderDecoder cancel = new CancelOrderDecoder();
+
+        final long[] sequencerNumbers;
+        final long[] orderIds;
+        int received = 0;
+
+        RecordingNetwork(int capacity) {
+            sequencerNumbers = new long[capacity];
+            orderIds = new long[capacity];
+        }
+
+        @Override
+        public void dispatch(DirectBuffer buffer) {
+            header.wrap(buffer, 0);
+            cancel.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+            sequencerNumbers[received] = header.sequencerNumber();
+            orderIds[received] = cancel.orderId();
+            received++;
+        }
+    }
+
+    private static UnsafeBuffer encodeCancel(final long orderId) {
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(64));
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder()).orderId(orderId);
+        return buffer;
+    }
+
+    @Test
+    public void testManyProducersAreTotallyOrderedAndFifoPerProducer() throws Exception {
+        final int total = PRODUCERS * COMMANDS_PER_PRODUCER;
+        final RecordingNetwork network = new RecordingNetwork(total);
+        final ConcurrentSequencer sequencer = new ConcurrentSequencer(network, 1 << 16);
+
+        final CountDownLatch go = new CountDownLatch(1);
+        final List<Thread> producers = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            final long producerId = p;
+            final Thread producer = new Thread(() -> {
+                final UnsafeBuffer buffer = encodeCancel(0);
+                final CancelOrderEncoder encoder = new CancelOrderEncoder();
+                encoder.wrap(buffer, MessageHeaderEncoder.ENCODED_LENGTH);
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < COMMANDS_PER_PRODUCER; i++) {
+                    //re-use the same buffer, the sequencer has copied it by the time onCommand returns
+                    encoder.orderId(producerId * COMMANDS_PER_PRODUCER + i);
+                    sequencer.onCommand(buffer);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        sequencer.start();
+        go.countDown();
+
+        for (Thread producer : producers) {
+            producer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (sequencer.backlog() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        sequencer.close();
+
+        assertEquals(total, network.received);
+
+        final long[] lastSeenPerProducer = new long[PRODUCERS];
+        java.util.Arrays.fill(lastSeenPerProducer, -1);
+
+        for (int i = 0; i < total; i++) {
+            assertEquals(i + 1, network.sequencerNumbers[i]);
+
+            final int producer = (int) (network.orderIds[i] / COMMANDS_PER_PRODUCER);
+            assertTrue(network.orderIds[i] > lastSeenPerProducer[producer]);
+            lastSeenPerProducer[producer] = network.orderIds[i];
+        }
+    }
+
+    @Test
+    public void testCommandsSentByConsumersAreSequencedAfterTheCurrentMessage() {
+        final List<Long> dispatched = new ArrayList<>();
+        final ConcurrentSequencer[] holder = new ConcurrentSequencer[1];
+
+        final Network network = new Network() {
+            private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+            private final CancelOrderDecoder cancel = new CancelOrderDecoder();
+
+            @Override
+            public void dispatch(DirectBuffer buffer) {
+                header.wrap(buffer, 0);
+                cancel.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                dispatched.add(cancel.orderId());
+                //like the algo container reacting to a message by sending a new command
+                if (cancel.orderId() == 1) {
+                    holder[0].onCommand(encodeCancel(3));
+                }
+            }
+        };
+
+        final ConcurrentSequencer sequencer = new ConcurrentSequencer(network, 1024);
+        holder[0] = sequencer;
+
+        sequencer.onCommand(encodeCancel(1));
+        sequencer.onCommand(encodeCancel(2));
+
+        while (sequencer.doWork() > 0) {
+            //drain
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), dispatched);
+    }
+}
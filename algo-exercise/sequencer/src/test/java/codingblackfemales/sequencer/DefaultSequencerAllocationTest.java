@@ -0,0 +1,134 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.SequencedBufferRing;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class DefaultSequencerAllocationTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+    private final CountingNetwork network = new CountingNetwork();
+
+    private static class CountingNetwork implements Network {
+        private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        long messages = 0;
+        long lastSequencerNumber = 0;
+        DirectBuffer lastBuffer;
+
+        @Override
+        public void dispatch(DirectBuffer buffer) {
+            header.wrap(buffer, 0);
+            lastSequencerNumber = header.sequencerNumber();
+            lastBuffer = buffer;
+            messages++;
+        }
+    }
+
+    private UnsafeBuffer createSampleMarketDataTick() {
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(98L).size(100L)
+                .next().price(95L).size(200L);
+
+        encoder.askBookCount(2)
+                .next().price(100L).size(101L)
+                .next().price(110L).size(200L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void testRingModeCopiesAndStampsWithoutTouchingCallerBuffer() {
+        final DefaultSequencer sequencer = new DefaultSequencer(network, new SequencedBufferRing(4, 256));
+        final UnsafeBuffer tick = createSampleMarketDataTick();
+
+        for (int i = 1; i <= 10; i++) {
+            sequencer.onCommand(tick);
+            assertEquals(i, network.lastSequencerNumber);
+            assertNotSame(tick, network.lastBuffer);
+        }
+
+        headerDecoder.wrap(tick, 0);
+        assertEquals(0L, headerDecoder.sequencerNumber());
+    }
+
+    @Test
+    public void testInPlaceModeStampsCallerBuffer() {
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final UnsafeBuffer tick = createSampleMarketDataTick();
+
+        sequencer.onCommand(tick);
+        sequencer.onCommand(tick);
+
+        assertSame(tick, network.lastBuffer);
+        headerDecoder.wrap(tick, 0);
+        assertEquals(2L, headerDecoder.sequencerNumber());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRingModeRejectsMessagesLargerThanASlot() {
+        final DefaultSequencer sequencer = new DefaultSequencer(network, new SequencedBufferRing(4, 32));
+        sequencer.onCommand(createSampleMarketDataTick());
+    }
+
+    @Test
+    public void testSteadyStateAllocatesNothing() {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final DefaultSequencer ringSequencer = new DefaultSequencer(network, new SequencedBufferRing(64, 1024));
+        final DefaultSequencer inPlaceSequencer = new DefaultSequencer(network);
+        final UnsafeBuffer tick = createSampleMarketDataTick();
+
+        //warm up so the JIT has settled before we start counting
+        for (int i = 0; i < 50_000; i++) {
+            ringSequencer.onCommand(tick);
+            inPlaceSequencer.onCommand(tick);
+        }
+
+        final long directBuffersBefore = directBufferCount();
+        final long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < 100_000; i++) {
+            ringSequencer.onCommand(tick);
+            inPlaceSequencer.onCommand(tick);
+        }
+
+        final long bytesAllocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        final long directBuffersAllocated = directBufferCount() - directBuffersBefore;
+
+        assertEquals(300_000L, network.messages);
+        assertEquals(0L, directBuffersAllocated);
+        //the old path allocated a ByteBuffer and an UnsafeBuffer per message, ~20MB for this loop
+        assertTrue("allocated " + bytesAllocated + " bytes", bytesAllocated < 1024);
+    }
+
+    private static long directBufferCount() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getCount();
+            }
+        }
+        return 0;
+    }
+}
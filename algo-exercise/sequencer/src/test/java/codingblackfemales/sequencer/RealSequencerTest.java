@@ -0,0 +1,193 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.journal.Journal;
+import messages.marketdata.*;
+import messages.order.CreateOrderDecoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RealSequencerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final BookUpdateEncoder encoder = new BookUpdateEncoder();
+    private final BookUpdateDecoder decoder = new BookUpdateDecoder();
+
+    private UnsafeBuffer createTick(final long bestBid) {
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(2)
+                .next().price(bestBid).size(100L)
+                .next().price(bestBid - 1).size(200L);
+
+        encoder.askBookCount(1)
+                .next().price(bestBid + 2).size(101L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    private UnsafeBuffer createOrder() {
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new CreateOrderEncoder().wrapAndApplyHeader(directBuffer, 0, new messages.order.MessageHeaderEncoder())
+                .instrumentId(123L)
+                .venue(messages.order.Venue.XLON)
+                .price(100L)
+                .quantity(50L)
+                .side(Side.BUY);
+        return directBuffer;
+    }
+
+    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
+
+    private void recordOrderId(final DirectBuffer buffer, final List<Long> orderIds) {
+        headerDecoder.wrap(buffer, 0);
+        if (headerDecoder.schemaId() == CreateOrderDecoder.SCHEMA_ID && headerDecoder.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
+            orderIds.add(createOrderDecoder.wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version()).orderId());
+        }
+    }
+
+    private List<long[]> replay(final Journal journal) {
+        final List<long[]> replayed = new ArrayList<>();
+        RealSequencer.replay(journal, (DirectBuffer buffer) -> {
+            headerDecoder.wrap(buffer, 0);
+            decoder.wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+            replayed.add(new long[]{headerDecoder.sequencerNumber(), decoder.bidBook().next().price()});
+        });
+        return replayed;
+    }
+
+    @Test
+    public void testJournalsEverySequencedFrameAcrossSegments() {
+        final File directory = folder.getRoot();
+        final List<Long> dispatched = new ArrayList<>();
+
+        //small segments so that the ticks roll over several files
+        try (RealSequencer sequencer = new RealSequencer(buffer -> dispatched.add(headerDecoder.wrap(buffer, 0).sequencerNumber()), new Journal(directory, 512))) {
+            for (int i = 0; i < 20; i++) {
+                sequencer.onCommand(createTick(100 + i));
+            }
+        }
+
+        assertEquals(20, dispatched.size());
+        assertTrue(directory.list().length > 1);
+
+        final Journal journal = new Journal(directory, 512);
+        final List<long[]> replayed = replay(journal);
+        journal.close();
+
+        assertEquals(20, replayed.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + 1, replayed.get(i)[0]);
+            assertEquals(100 + i, replayed.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void testReopenedJournalCarriesOnSequencing() {
+        final File directory = folder.getRoot();
+
+        try (RealSequencer sequencer = new RealSequencer(buffer -> {}, new Journal(directory, 512))) {
+            sequencer.onCommand(createTick(100));
+            sequencer.onCommand(createTick(101));
+            sequencer.onCommand(createTick(102));
+        }
+
+        try (RealSequencer sequencer = new RealSequencer(buffer -> {}, new Journal(directory, 512))) {
+            sequencer.onCommand(createTick(103));
+        }
+
+        final Journal journal = new Journal(directory, 512);
+        final List<long[]> replayed = replay(journal);
+        journal.close();
+
+        assertEquals(4, replayed.size());
+        assertEquals(4L, replayed.get(3)[0]);
+        assertEquals(103L, replayed.get(3)[1]);
+    }
+
+    @Test
+    public void testReopenedJournalCarriesOnOrderIds() {
+        final File directory = folder.getRoot();
+        final List<Long> orderIds = new ArrayList<>();
+
+        try (RealSequencer sequencer = new RealSequencer(buffer -> recordOrderId(buffer, orderIds), new Journal(directory, 512))) {
+            sequencer.onCommand(createOrder());
+            sequencer.onCommand(createOrder());
+            //the creates end up a few segments back from the end
+            for (int i = 0; i < 20; i++) {
+                sequencer.onCommand(createTick(100 + i));
+            }
+        }
+        assertTrue(directory.list().length > 2);
+
+        try (RealSequencer sequencer = new RealSequencer(buffer -> recordOrderId(buffer, orderIds), new Journal(directory, 512))) {
+            sequencer.onCommand(createOrder());
+            sequencer.onCommand(createTick(120));
+        }
+
+        //a restart carries on from the journal, rather than re-issuing ids it already holds
+        assertEquals(3, orderIds.size());
+        assertEquals(orderIds.get(1) + 1, (long) orderIds.get(2));
+
+        try (RealSequencer sequencer = new RealSequencer(buffer -> recordOrderId(buffer, orderIds), new Journal(directory, 512))) {
+            sequencer.onCommand(createOrder());
+        }
+        assertEquals(orderIds.get(2) + 1, (long) orderIds.get(3));
+
+        final Journal journal = new Journal(directory, 512);
+        final List<Long> sequencerNumbers = new ArrayList<>();
+        RealSequencer.replay(journal, buffer -> sequencerNumbers.add(headerDecoder.wrap(buffer, 0).sequencerNumber()));
+        journal.close();
+        for (int i = 0; i < sequencerNumbers.size(); i++) {
+            assertEquals(i + 1, (long) sequencerNumbers.get(i));
+        }
+        assertEquals(25, sequencerNumbers.size());
+    }
+
+    @Test
+    public void testCreateFromBeforeTheOrderInstructionsStillDecodes() {
+        //a create as version 0 wrote it, the block ends where venue starts
+        final UnsafeBuffer old = createOrder();
+        new messages.order.MessageHeaderEncoder().wrap(old, 0).blockLength(CreateOrderEncoder.venueEncodingOffset()).version(0);
+
+        headerDecoder.wrap(old, 0);
+        createOrderDecoder.wrap(old, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(100L, createOrderDecoder.price());
+        assertEquals(50L, createOrderDecoder.quantity());
+        assertEquals(messages.order.Venue.NULL_VAL, createOrderDecoder.venue());
+        assertEquals(messages.order.OrdType.NULL_VAL, createOrderDecoder.ordType());
+        assertEquals(messages.order.TimeInForce.NULL_VAL, createOrderDecoder.timeInForce());
+        assertEquals(messages.order.ExecInst.NULL_VAL, createOrderDecoder.execInst());
+
+        //and the sequencer sends it on as the current version
+        final List<DirectBuffer> sequenced = new ArrayList<>();
+        new DefaultSequencer(sequenced::add).onCommand(old);
+        headerDecoder.wrap(sequenced.get(0), 0);
+        assertEquals(CreateOrderEncoder.SCHEMA_VERSION, headerDecoder.version());
+        createOrderDecoder.wrap(sequenced.get(0), headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+        assertEquals(100L, createOrderDecoder.price());
+        assertEquals(messages.order.Venue.NULL_VAL, createOrderDecoder.venue());
+    }
+}
@@ -0,0 +1,89 @@
+package codingblackfemales.sequencer.event;
+
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.PartialFillOrderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EventListenerTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private static class RecordingMarketDataListener extends MarketDataEventListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onBookUpdate(BookUpdateDecoder bookUpdate) {
+            events.add("book:" + bookUpdate.instrumentId());
+        }
+
+        @Override
+        public void onAskBook(AskBookUpdateDecoder askBook) {
+            events.add("ask:" + askBook.instrumentId());
+        }
+
+        @Override
+        public void onBidBook(BidBookUpdateDecoder bidBook) {
+            events.add("bid:" + bidBook.instrumentId());
+        }
+    }
+
+    private DirectBuffer bidUpdate(final long instrumentId) {
+        new BidBookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+                .instrumentId(instrumentId)
+                .venue(Venue.XLON)
+                .bidBookCount(1).next().price(100L).size(10L);
+        return buffer;
+    }
+
+    private DirectBuffer partialFill() {
+        //same template id as a BidBookUpdate, but in the order schema
+        new PartialFillOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder())
+                .orderId(1L);
+        return buffer;
+    }
+
+    @Test
+    public void testDispatchesOnSchemaAndTemplate() {
+        final RecordingMarketDataListener listener = new RecordingMarketDataListener();
+
+        listener.onMessage(bidUpdate(123L));
+        listener.onMessage(partialFill());
+
+        assertEquals(List.of("bid:123"), listener.events);
+    }
+
+    @Test
+    public void testListenersOnlyRequireWhatTheyHandle() {
+        final RecordingMarketDataListener listener = new RecordingMarketDataListener();
+
+        assertTrue(listener.isMessageRequired(BookUpdateDecoder.SCHEMA_ID, BookUpdateDecoder.TEMPLATE_ID));
+        assertTrue(listener.isMessageRequired(BidBookUpdateDecoder.SCHEMA_ID, BidBookUpdateDecoder.TEMPLATE_ID));
+        assertFalse(listener.isMessageRequired(PartialFillOrderEncoder.SCHEMA_ID, PartialFillOrderEncoder.TEMPLATE_ID));
+        assertFalse(listener.isMessageRequired(99, 1));
+    }
+
+    @Test
+    public void testNetworkSkipsConsumersThatDontRequireTheMessage() {
+        final TestNetwork network = new TestNetwork();
+        final RecordingMarketDataListener listener = new RecordingMarketDataListener();
+        final List<DirectBuffer> everything = new ArrayList<>();
+
+        network.addConsumer(listener);
+        network.addConsumer(everything::add);
+
+        network.dispatch(partialFill());
+        network.dispatch(bidUpdate(456L));
+
+        assertEquals(List.of("bid:456"), listener.events);
+        assertEquals(2, everything.size());
+    }
+}
@@ -0,0 +1,183 @@
+package codingblackfemales.sequencer.net;
+
+import messages.marketdata.BidBookUpdateEncoder;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Venue;
+import messages.order.CancelOrderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncNetworkTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+
+    private static class RecordingConsumer implements Consumer {
+        private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final List<Long> sequencerNumbers = new ArrayList<>();
+
+        @Override
+        public synchronized void onMessage(DirectBuffer buffer) {
+            sequencerNumbers.add(header.wrap(buffer, 0).sequencerNumber());
+        }
+
+        synchronized List<Long> received() {
+            return new ArrayList<>(sequencerNumbers);
+        }
+    }
+
+    private DirectBuffer bidUpdate(final long sequencerNumber, final long instrumentId) {
+        new BidBookUpdateEncoder().wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .instrumentId(instrumentId)
+                .venue(Venue.XLON)
+                .bidBookCount(1).next().price(100L).size(10L);
+        headerEncoder.sequencerNumber(sequencerNumber);
+        return buffer;
+    }
+
+    private DirectBuffer bookUpdate(final long sequencerNumber, final long instrumentId) {
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        encoder.wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .instrumentId(instrumentId)
+                .venue(Venue.XLON);
+        encoder.bidBookCount(0);
+        encoder.askBookCount(0);
+        headerEncoder.sequencerNumber(sequencerNumber);
+        return buffer;
+    }
+
+    private DirectBuffer cancel(final long sequencerNumber) {
+        final messages.order.MessageHeaderEncoder orderHeader = new messages.order.MessageHeaderEncoder();
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, orderHeader).orderId(sequencerNumber);
+        orderHeader.sequencerNumber(sequencerNumber);
+        return buffer;
+    }
+
+    private static void awaitTrue(final java.util.function.BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void testBlockingConsumerGetsEverythingInOrder() throws Exception {
+        final AsyncNetwork network = new AsyncNetwork();
+        final RecordingConsumer consumer = new RecordingConsumer();
+        final ConsumerQueue queue = network.addConsumer(consumer, BackPressure.BLOCK, 64, 256);
+        network.start();
+
+        for (long i = 1; i <= 10_000; i++) {
+            network.dispatch(bidUpdate(i, 123L));
+        }
+
+        awaitTrue(() -> queue.delivered() == 10_000);
+        network.close();
+
+        final List<Long> received = consumer.received();
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i + 1, (long) received.get(i));
+        }
+        assertEquals(0, queue.lag());
+    }
+
+    @Test
+    public void testConsumerAddedAfterStartIsDrained() throws Exception {
+        final AsyncNetwork network = new AsyncNetwork();
+        final ConsumerQueue first = network.addConsumer(new RecordingConsumer(), BackPressure.BLOCK, 64, 256);
+        network.start();
+
+        network.dispatch(bidUpdate(1, 123L));
+
+        //a queue far smaller than what's sent, blocks the dispatcher for good if nothing drains it
+        final RecordingConsumer late = new RecordingConsumer();
+        final ConsumerQueue lateQueue = network.addConsumer(late, BackPressure.BLOCK, 8, 256);
+        for (long i = 2; i <= 1000; i++) {
+            network.dispatch(bidUpdate(i, 123L));
+        }
+
+        awaitTrue(() -> first.delivered() == 1000 && lateQueue.delivered() == 999);
+        network.close();
+
+        final List<Long> received = late.received();
+        assertEquals(2L, (long) received.get(0));
+        assertEquals(1000L, (long) received.get(received.size() - 1));
+    }
+
+    @Test
+    public void testSlowConsumerDoesNotStallFastConsumer() throws Exception {
+        final AsyncNetwork network = new AsyncNetwork();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final RecordingConsumer fast = new RecordingConsumer();
+        final Consumer slow = message -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        final ConsumerQueue fastQueue = network.addConsumer(fast, BackPressure.BLOCK, 2048, 256);
+        final ConsumerQueue slowQueue = network.addConsumer(slow, BackPressure.DROP_OLDEST, 4, 256);
+        network.start();
+
+        for (long i = 1; i <= 1000; i++) {
+            network.dispatch(bidUpdate(i, 123L));
+        }
+
+        awaitTrue(() -> fastQueue.delivered() == 1000);
+
+        assertTrue(slowQueue.lag() <= 4);
+        assertTrue(slowQueue.dropped() >= 1000 - 4 - 1);
+        assertTrue(slowQueue.sequencerLag() > 0);
+
+        release.countDown();
+        network.close();
+    }
+
+    @Test
+    public void testConflatesSupersededBookUpdatesButNeverOrderMessages() throws Exception {
+        final AsyncNetwork network = new AsyncNetwork();
+        final RecordingConsumer consumer = new RecordingConsumer();
+        final ConsumerQueue queue = network.addConsumer(consumer, BackPressure.CONFLATE_BOOK_UPDATES, 2, 256);
+
+        //queue is not running, drive it by hand
+        network.dispatch(bidUpdate(1, 123L));
+        network.dispatch(bidUpdate(2, 123L));
+        network.dispatch(bookUpdate(3, 123L));
+
+        assertEquals(1, queue.conflated());
+        queue.doWork();
+        assertEquals(List.of(2L, 3L), consumer.received());
+
+        network.dispatch(cancel(4));
+        network.dispatch(bidUpdate(5, 123L));
+
+        //oldest is an order message, so the next book update has to wait for the consumer
+        final Thread dispatcher = new Thread(() -> network.dispatch(bookUpdate(6, 123L)));
+        dispatcher.start();
+        dispatcher.join(200);
+        assertTrue(dispatcher.isAlive());
+
+        while (dispatcher.isAlive()) {
+            queue.doWork();
+        }
+        queue.doWork();
+
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), consumer.received());
+        assertEquals(1, queue.conflated());
+    }
+}
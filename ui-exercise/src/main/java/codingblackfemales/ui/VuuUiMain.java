@@ -7,7 +7,7 @@ import codingblackfemales.container.RunTrigger;
 import codingblackfemales.marketdata.api.MarketDataEncoder;
 import codingblackfemales.marketdata.api.MarketDataMessage;
 import codingblackfemales.marketdata.gen.RandomMarketDataGenerator;
-import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.ConcurrentSequencer;
 import codingblackfemales.sequencer.Sequencer;
 import codingblackfemales.sequencer.consumer.LoggingConsumer;
 import codingblackfemales.sequencer.net.TestNetwork;
@@ -89,7 +89,8 @@ public class VuuUiMain {
 
         //Algo Stuff
         final TestNetwork network = new TestNetwork();
-        final Sequencer sequencer = new DefaultSequencer(network);
+        //the feeder thread below and the algo's actions both send commands, so sequence them on their own thread
+        final ConcurrentSequencer sequencer = new ConcurrentSequencer(network, 1 << 20);
 
         final RunTrigger runTrigger = new RunTrigger();
         final Actioner actioner = new Actioner(sequencer);
@@ -138,6 +139,7 @@ public class VuuUiMain {
         final VuuServer vuuServer = new VuuServer(config, lifecycle, clock, metrics);
 
         lifecycle.start();
+        sequencer.start();
 
         final RandomMarketDataGenerator generator = new RandomMarketDataGenerator(123L, Venue.XLON, 1_000, 100, 15);
 
@@ -154,7 +156,7 @@ public class VuuUiMain {
                     }
                 }
             }
-        }).run();
+        }, "market-data-feeder").start();
 
         //tick(sequencer);
 
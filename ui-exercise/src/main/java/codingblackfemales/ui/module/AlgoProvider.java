@@ -13,8 +13,6 @@ import messages.marketdata.BookUpdateDecoder;
 import org.agrona.DirectBuffer;
 import org.finos.toolbox.time.Clock;
 import org.finos.vuu.core.table.DataTable;
-import org.finos.vuu.core.table.InMemDataTable;
-import org.finos.vuu.core.table.RowData;
 import org.finos.vuu.core.table.RowWithData;
 import org.finos.vuu.provider.Provider;
 import org.slf4j.Logger;
@@ -170,26 +168,16 @@ public class AlgoProvider extends MarketDataEventListener implements Provider {
 
     }
 
+    /**
+     * Warns if the book we've just been given is crossed, from the touch we already hold rather than the table.
+     */
     private void debugBidOfferCross(){
-        InMemDataTable inMem = (InMemDataTable) table.asTable();
-        RowData data =  inMem.pullRow("1230");
-        Object bidObj = data.get("bid");
-        Object offerObj = data.get("offer");
-
-        if(offerObj != null && bidObj != null){
-            long bid = (long) bidObj;
-            long offer = (long) offerObj;
-
-            if(bid != 0 && offer != 0){
-                if(offer < bid){
-                    System.out.println("ERROR<<<><><><");
-                }
-            }
-
-            System.out.println("CheckBook: bid=" + bidObj + " offer=" + offerObj);
-        }
-
+        final BidLevel bid = bidBook[0];
+        final AskLevel offer = askBook[0];
 
+        if(bid != null && offer != null && bid.price != 0 && offer.price != 0 && offer.price < bid.price){
+            logger.warn("[ALGO] Crossed book for instrument " + instrumentId + ": bid=" + bid.price + " offer=" + offer.price);
+        }
     }
 
     private Map<String, Object> mkUpdate(final String key, final long instrumentId, final int level, final BidLevel bid, final AskLevel ask){